@@ -0,0 +1,150 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.MetricRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import scot.mygov.documents.DocumentTemplateRegistry;
+import scot.mygov.documents.DocumentType;
+import scot.mygov.housing.forms.DocumentGenerationService;
+import scot.mygov.housing.forms.DocumentGenerationServiceException;
+import scot.mygov.housing.forms.RenderedDocumentCache;
+import scot.mygov.housing.forms.modeltenancy.model.DepositSchemeAdministrators;
+import scot.mygov.housing.forms.modeltenancy.validation.ModelTenancyObjectMother;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static scot.mygov.housing.forms.foreigntraveldeclaration.ForeignTravelDeclarationObjectMother.anyForeignTravelDeclaration;
+import static scot.mygov.housing.forms.nonprovisionofdocumentation.NonProvisionOfDocumentationObjectMother.anyNonProvisionOfDocumentation;
+import static scot.mygov.housing.forms.noticetoleave.NoticeToLeaveObjectMother.anyNoticeToLeave;
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.anyRentAdjudication;
+import static scot.mygov.housing.forms.rentincreaseforimprovementsnotice.RentIncreaseForImprovementsObjectMother.anyRentIncreaseForImprovements;
+import static scot.mygov.housing.forms.rentincreasenotice.RentIncreaseObjectMother.anyRentIncrease;
+
+/**
+ * Render throughput of each document generation service, wired as it is in HousingModule.
+ *
+ * The rendered document cache is disabled so that every invocation goes through Aspose.  Pass
+ * -Daspose.license=/path/to/license.lic to render with the license, otherwise documents carry the evaluation watermark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DocumentGenerationBenchmark {
+
+    @Param({
+            "modelTenancy",
+            "rentAdjudication",
+            "foreignTravelDeclaration",
+            "rentIncrease",
+            "rentIncreaseForImprovements",
+            "nonProvisionOfDocumentation",
+            "noticeToLeave",
+            "subtenantNoticeToLeave"
+    })
+    String form;
+
+    @Param({ "PDF", "WORD" })
+    DocumentType type;
+
+    private DocumentTemplateRegistry templateRegistry;
+
+    private Render render;
+
+    @Setup
+    public void setUp() {
+        HousingModule module = new HousingModule();
+        HousingConfiguration config = new HousingConfiguration();
+        MetricRegistry registry = new MetricRegistry();
+        String licensePath = System.getProperty("aspose.license");
+        AsposeLicense license = new AsposeLicense(licensePath == null ? null : new File(licensePath));
+        templateRegistry = module.templateRegistry(config, license, registry);
+        RenderedDocumentCache noCache = new RenderedDocumentCache(0, registry);
+
+        switch (form) {
+            case "modelTenancy":
+                render = bind(module.modelTenancyDocumentGenerationService(
+                        config, templateRegistry, null, noCache, new DepositSchemeAdministrators(), registry),
+                        new ModelTenancyObjectMother().anyTenancy());
+                break;
+            case "rentAdjudication":
+                render = bind(module.rentAdjudicationDocumentGenerationService(
+                        templateRegistry, null, noCache, registry),
+                        anyRentAdjudication());
+                break;
+            case "foreignTravelDeclaration":
+                render = bind(module.foreignTravelDeclarationDocumentGenerationService(
+                        templateRegistry, null, noCache, registry),
+                        anyForeignTravelDeclaration());
+                break;
+            case "rentIncrease":
+                render = bind(module.rentIncreaseDocumentGenerationService(
+                        config, templateRegistry, null, noCache, registry),
+                        anyRentIncrease());
+                break;
+            case "rentIncreaseForImprovements":
+                render = bind(module.rentIncreaseForImprovementsDocumentGenerationService(
+                        templateRegistry, null, noCache, registry),
+                        anyRentIncreaseForImprovements());
+                break;
+            case "nonProvisionOfDocumentation":
+                render = bind(module.nonProvisionOfDocumentationDocumentGenerationService(
+                        templateRegistry, null, noCache, registry),
+                        anyNonProvisionOfDocumentation());
+                break;
+            case "noticeToLeave":
+                render = bind(module.noticeToLeaveDocumentGenerationService(
+                        config, templateRegistry, null, noCache, registry),
+                        anyNoticeToLeave());
+                break;
+            case "subtenantNoticeToLeave":
+                render = bind(module.subtenantNoticeToLeaveDocumentGenerationService(
+                        config, templateRegistry, null, noCache, registry),
+                        anyNoticeToLeave());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown form " + form);
+        }
+        templateRegistry.preload();
+    }
+
+    @TearDown
+    public void tearDown() {
+        templateRegistry.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] singleThreaded() throws DocumentGenerationServiceException {
+        return render.render(type);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] multiThreaded() throws DocumentGenerationServiceException {
+        return render.render(type);
+    }
+
+    private static <T> Render bind(DocumentGenerationService<T> service, T model) {
+        return type -> service.save(model, type);
+    }
+
+    @FunctionalInterface
+    interface Render {
+        byte[] render(DocumentType type) throws DocumentGenerationServiceException;
+    }
+}
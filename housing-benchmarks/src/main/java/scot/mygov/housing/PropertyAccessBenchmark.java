@@ -0,0 +1,74 @@
+package scot.mygov.housing;
+
+import org.apache.commons.beanutils.BeanUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import scot.mygov.PropertyAccessors;
+import scot.mygov.housing.forms.modeltenancy.model.ModelTenancy;
+import scot.mygov.housing.forms.modeltenancy.model.OptionalTerms;
+import scot.mygov.housing.forms.modeltenancy.validation.ModelTenancyObjectMother;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares commons-beanutils with PropertyAccessors for the property reads done on every model tenancy request: the
+ * mandatory and monetary fields read by validation, and the optional terms copied into the merge fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyAccessBenchmark {
+
+    private static final String[] FIELDS = {
+            "propertyType",
+            "tenancyStartDate",
+            "firstPaymentDate",
+            "rentPaymentMethod",
+            "rentAmount",
+            "depositAmount"
+    };
+
+    private final ModelTenancy tenancy = new ModelTenancyObjectMother().anyTenancy();
+
+    @Benchmark
+    public void beanUtilsGetProperty(Blackhole blackhole) throws Exception {
+        for (String field : FIELDS) {
+            blackhole.consume(BeanUtils.getProperty(tenancy, field));
+        }
+    }
+
+    @Benchmark
+    public void accessorsGetProperty(Blackhole blackhole) {
+        for (String field : FIELDS) {
+            blackhole.consume(PropertyAccessors.getProperty(tenancy, field));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> beanUtilsDescribe() throws Exception {
+        Map<String, Object> fields = new HashMap<>();
+        fields.putAll(BeanUtils.describe(tenancy.getOptionalTerms()));
+        return fields;
+    }
+
+    @Benchmark
+    public Map<String, Object> accessorsGetters() {
+        Map<String, Object> fields = new HashMap<>();
+        OptionalTerms terms = tenancy.getOptionalTerms();
+        PropertyAccessors.getters(OptionalTerms.class).forEach((name, getter) -> fields.put(name, getter.apply(terms)));
+        return fields;
+    }
+}
@@ -0,0 +1,192 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.net.httpserver.HttpServer;
+import io.undertow.Undertow;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.Application;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import scot.mygov.housing.europa.Europa;
+import scot.mygov.housing.postcode.EuropaPostcodeService;
+import scot.mygov.housing.postcode.PostcodeResource;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares handling requests on the Undertow worker threads with handling them on virtual threads.
+ *
+ * The postcode lookup endpoint is served against a local stand-in for Europa that answers after a fixed delay, so
+ * request threads spend nearly all of their time blocked on the upstream call.  Throughput and 99th percentile
+ * latency are reported for each mode.  Virtual threads need Java 21 or later; on an older runtime only the platform
+ * thread run is made.
+ *
+ * Arguments, all optional: concurrency (default 200), seconds per run (default 30), upstream delay in ms (default 100).
+ */
+public class RequestHandlingLoadTest {
+
+    private static final byte[] NO_RESULTS =
+            "{\"metadata\":{\"count\":0,\"status\":\"OK\"}}".getBytes(StandardCharsets.UTF_8);
+
+    private static final int WARMUP_SECONDS = 5;
+
+    private RequestHandlingLoadTest() {
+        // prevent instantiation
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = arg(args, 0, 200);
+        int seconds = arg(args, 1, 30);
+        int upstreamDelayMillis = arg(args, 2, 100);
+
+        ExecutorService upstreamExecutor = Executors.newCachedThreadPool();
+        HttpServer upstream = standInEuropa(upstreamDelayMillis, upstreamExecutor);
+        try {
+            URI upstreamUri = URI.create("http://localhost:" + upstream.getAddress().getPort() + "/");
+            System.out.printf("concurrency %d, %ds per run, upstream delay %dms%n",
+                    concurrency, seconds, upstreamDelayMillis);
+            run("platform", null, upstreamUri, concurrency, seconds).print();
+            if (VirtualThreads.isAvailable()) {
+                run("virtual", VirtualThreads.executor("request-"), upstreamUri, concurrency, seconds).print();
+            } else {
+                System.out.printf("virtual: not available on Java %d%n", Runtime.version().feature());
+            }
+        } finally {
+            upstream.stop(0);
+            upstreamExecutor.shutdownNow();
+        }
+    }
+
+    private static HttpServer standInEuropa(int delayMillis, Executor executor) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, NO_RESULTS.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(NO_RESULTS);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static Result run(String mode, Executor requestExecutor, URI upstreamUri, int concurrency, int seconds)
+            throws Exception {
+        // size the upstream connection pool to the load so that only the request threads differ between runs
+        Client client = ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+                .connectionPoolSize(concurrency)
+                .build();
+        Europa europa = new Europa(client.target(upstreamUri), new MetricRegistry());
+        Application app = new Application() {
+            @Override
+            public Set<Object> getSingletons() {
+                return Collections.singleton(new PostcodeResource(new EuropaPostcodeService(europa)));
+            }
+        };
+
+        Housing.Server server = new Housing.Server(requestExecutor);
+        server.deploy(app);
+        server.start(Undertow.builder().addHttpListener(0, "localhost"));
+        try {
+            URI uri = URI.create("http://localhost:" + server.port() + "/postcode/address-lookup?postcode=EH66QQ");
+            load(uri, concurrency, WARMUP_SECONDS);
+            return new Result(mode, load(uri, concurrency, seconds), seconds);
+        } finally {
+            server.stop();
+            client.close();
+        }
+    }
+
+    /**
+     * Send requests from the given number of clients, each waiting for its response before sending the next.
+     *
+     * @return the latency of every successful request, in nanoseconds
+     */
+    private static List<Long> load(URI uri, int concurrency, int seconds) throws Exception {
+        ExecutorService httpExecutor = Executors.newCachedThreadPool();
+        HttpClient http = HttpClient.newBuilder().executor(httpExecutor).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).build();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            latencies.add(System.nanoTime() - start);
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                latencies.addAll(future.get());
+            }
+            return latencies;
+        } finally {
+            clients.shutdownNow();
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    private static int arg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    private static class Result {
+
+        private final String mode;
+
+        private final List<Long> latencies;
+
+        private final int seconds;
+
+        Result(String mode, List<Long> latencies, int seconds) {
+            this.mode = mode;
+            this.latencies = latencies;
+            this.seconds = seconds;
+            Collections.sort(latencies);
+        }
+
+        void print() {
+            if (latencies.isEmpty()) {
+                System.out.printf("%s: no successful requests%n", mode);
+                return;
+            }
+
+            long p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+            System.out.printf("%s: %.1f requests/s, p99 %.1fms%n",
+                    mode,
+                    (double) latencies.size() / seconds,
+                    p99 / 1_000_000.0);
+        }
+    }
+}
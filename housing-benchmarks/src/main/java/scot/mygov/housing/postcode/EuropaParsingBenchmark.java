@@ -0,0 +1,125 @@
+package scot.mygov.housing.postcode;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scot.mygov.housing.JsonCodec;
+import scot.mygov.housing.europa.EuropaResults;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways of turning a Europa response into PostcodeServiceResults: reading it into a tree and binding
+ * that to EuropaResults before formatting, as was done before, and streaming it through PostcodeResultsReader.
+ *
+ * The response is generated with the fields Europa returns for fieldset=all, or a recorded response can be used with
+ * -Deuropa.payload=&lt;file&gt;, in which case the addresses parameter is ignored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EuropaParsingBenchmark {
+
+    @Param({ "1", "40", "400" })
+    public int addresses;
+
+    private final JsonCodec codec = JsonCodec.defaultCodec();
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        String recorded = System.getProperty("europa.payload");
+        payload = recorded != null
+                ? Files.readAllBytes(Paths.get(recorded))
+                : codec.getMapper().writeValueAsBytes(response(codec.getMapper(), addresses));
+    }
+
+    @Benchmark
+    public PostcodeServiceResults treeThenBind() throws IOException {
+        JsonNode tree = codec.getMapper().readTree(new ByteArrayInputStream(payload));
+        EuropaResults results = codec.treeToValue(tree, EuropaResults.class);
+        PostcodeServiceResults to = new PostcodeServiceResults();
+        to.setResults(results.getMetadata().getCount() == 0
+                ? Collections.emptyList()
+                : results.getResults().get(0).getAddress().stream()
+                        .map(EuropaPostcodeService::toResult)
+                        .sorted(PostcodeServiceResult.comparator())
+                        .toList());
+        return to;
+    }
+
+    @Benchmark
+    public List<PostcodeServiceResult> streaming() throws IOException {
+        try (InputStream in = new ByteArrayInputStream(payload);
+             JsonParser parser = codec.getMapper().createParser(in)) {
+            return PostcodeResultsReader.INSTANCE.read(parser).getResults();
+        }
+    }
+
+    private static ObjectNode response(ObjectMapper mapper, int count) {
+        ObjectNode response = mapper.createObjectNode();
+        ObjectNode metadata = response.putObject("metadata");
+        metadata.put("count", count);
+        metadata.put("querytime", 0.012);
+        ArrayNode address = response.putArray("results").addObject().putArray("address");
+        for (int i = 0; i < count; i++) {
+            ObjectNode a = address.addObject();
+            a.put("uprn", String.valueOf(906030000 + i));
+            a.put("udprn", String.valueOf(10000000 + i));
+            a.put("parent_uprn", "906030000");
+            a.put("dpa_organisation_name", i % 10 == 0 ? "SCOTTISH GOVERNMENT" : null);
+            a.put("dpa_sub_building_name", "FLAT " + (i % 8 + 1));
+            a.put("dpa_building_number", String.valueOf(i / 8 + 1));
+            a.put("dpa_thoroughfare", "COMMERCIAL STREET");
+            a.put("dpa_dependent_locality", "LEITH");
+            a.put("dpa_post_town", "EDINBURGH");
+            a.put("dpa_postcode", "EH6 6QQ");
+            a.put("dpa_postal_address_code", "D");
+            a.put("dpa_delivery_point_suffix", "1A");
+            a.put("lpi_paon_start_number", i / 8 + 1);
+            a.put("lpi_sao_text", "FLAT " + (i % 8 + 1));
+            a.put("lpi_street_description", "COMMERCIAL STREET");
+            a.put("lpi_town_name", "EDINBURGH");
+            a.put("lpi_administrative_area", "CITY OF EDINBURGH");
+            a.put("lpi_logical_status_code", "1");
+            a.put("x_coordinate", 326990.0 + i);
+            a.put("y_coordinate", 676700.0 + i);
+            a.put("latitude", 55.9767);
+            a.put("longitude", -3.1722);
+            a.put("rpc", "1");
+            a.put("local_custodian_code", 9064);
+            a.put("country", "S");
+            a.put("postal_address_file", "Y");
+            a.put("blpu_state_code", "2");
+            a.put("blpu_state_date", "2004-03-01");
+            ObjectNode classification = a.putObject("classification");
+            classification.put("code", "RD06");
+            classification.put("description", "Self Contained Flat (Includes Maisonette / Apartment)");
+        }
+        return response;
+    }
+}
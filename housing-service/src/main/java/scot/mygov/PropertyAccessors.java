@@ -0,0 +1,135 @@
+package scot.mygov;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads bean properties through getters that are bound once per class, in place of commons-beanutils.
+ *
+ * The first time a class is seen its readable properties are introspected and each getter is turned into a Function
+ * with LambdaMetafactory, so reading a property afterwards is a map lookup and a direct call.  Getters that cannot be
+ * bound that way, for example because the class is not accessible from here, are called through a method handle.
+ *
+ * Property names may be nested using dots, as in "address.postcode".  As with BeanUtils.getProperty, values are
+ * returned as strings.
+ */
+public class PropertyAccessors {
+
+    private static final Splitter PATH_SPLITTER = Splitter.on('.');
+
+    private static final ClassValue<Map<String, Function<Object, Object>>> GETTERS =
+            new ClassValue<Map<String, Function<Object, Object>>>() {
+                @Override
+                protected Map<String, Function<Object, Object>> computeValue(Class<?> type) {
+                    return introspect(type);
+                }
+            };
+
+    private PropertyAccessors() {
+        // prevent instantiation
+    }
+
+    /**
+     * The getter for every readable property of a class, other than getClass.
+     */
+    public static Map<String, Function<Object, Object>> getters(Class<?> type) {
+        return GETTERS.get(type);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the class has no such readable property
+     */
+    public static Function<Object, Object> getter(Class<?> type, String property) {
+        Function<Object, Object> getter = getters(type).get(property);
+        if (getter == null) {
+            throw new IllegalArgumentException("Unknown property '" + property + "' of " + type.getName());
+        }
+        return getter;
+    }
+
+    /**
+     * The value of a property, or a nested property, of a bean as a string.  Null if the value, or any bean along
+     * the path to it, is null.
+     *
+     * @throws IllegalArgumentException if the property does not exist
+     */
+    public static String getProperty(Object bean, String name) {
+        Object value = bean;
+        for (String property : PATH_SPLITTER.split(name)) {
+            if (value == null) {
+                return null;
+            }
+            value = getter(value.getClass(), property).apply(value);
+        }
+        return value == null ? null : value.toString();
+    }
+
+    private static Map<String, Function<Object, Object>> introspect(Class<?> type) {
+        BeanInfo info;
+        try {
+            info = Introspector.getBeanInfo(type, Object.class);
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("Failed to introspect " + type.getName(), e);
+        }
+
+        ImmutableMap.Builder<String, Function<Object, Object>> getters = ImmutableMap.builder();
+        for (PropertyDescriptor descriptor : info.getPropertyDescriptors()) {
+            Method method = descriptor.getReadMethod();
+            if (method != null) {
+                getters.put(descriptor.getName(), bind(method));
+            }
+        }
+        return getters.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> bind(Method method) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    handle.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable t) {
+            return invoker(method);
+        }
+    }
+
+    private static Function<Object, Object> invoker(Method method) {
+        method.trySetAccessible();
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflect(method)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access " + method, e);
+        }
+        return bean -> {
+            try {
+                return handle.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to call " + method, t);
+            }
+        };
+    }
+}
@@ -4,14 +4,24 @@ import com.aspose.words.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 /**
  * DocumentTemplateLoader that can load a different template based on the date being called.
  *
  * The document loaded will be the most recent one whose threshold is either today or later.
+ *
+ * The template to use is worked out once and then swapped when the next threshold is reached.  If the loader has been
+ * started with a scheduler then the next template is prewarmed ahead of its threshold, and the swap happens on the
+ * scheduler.  Templates older than the one in use can never be used again and are released.
  */
 public class DateSwitchingDocumentTemplateLoader implements DocumentTemplateLoader {
 
@@ -21,22 +31,115 @@ public class DateSwitchingDocumentTemplateLoader implements DocumentTemplateLoad
 
     Supplier<LocalDate> localDateSupplier = () -> LocalDate.now();
 
+    LongSupplier millisSupplier = System::currentTimeMillis;
+
+    private final AtomicReference<Active> active = new AtomicReference<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private Duration prewarmLead;
+
     public void addDocument(LocalDate fromDate, DocumentTemplateLoader loader) {
         loaders.put(fromDate, loader);
     }
 
+    /**
+     * Work out the template to use now, and schedule the switch to each later template.
+     *
+     * @param prewarmLead how long before its threshold a template is prewarmed
+     */
+    public void start(ScheduledExecutorService scheduler, Duration prewarmLead) {
+        this.scheduler = scheduler;
+        this.prewarmLead = prewarmLead;
+        switchTemplate();
+    }
+
     @Override
     public Document loadDocumentTemplate() {
+        DocumentTemplateLoader loader = active().loader;
+        return loader == null ? null : loader.loadDocumentTemplate();
+    }
+
+    @Override
+    public String templateVersion() {
+        DocumentTemplateLoader loader = active().loader;
+        return loader == null ? null : loader.templateVersion();
+    }
+
+    private Active active() {
+        Active current = active.get();
+        // also switch here in case the scheduled switch is late, or the loader was never started
+        if (current == null || millisSupplier.getAsLong() >= current.switchAtMillis) {
+            current = switchTemplate();
+        }
+        return current;
+    }
+
+    synchronized Active switchTemplate() {
+        Active current = active.get();
+        if (current != null && millisSupplier.getAsLong() < current.switchAtMillis) {
+            // another thread has already switched
+            return current;
+        }
+
         LocalDate today = localDateSupplier.get();
-        LOG.info("loadDocumentTemplate, date is {}", today);
         Map.Entry<LocalDate, DocumentTemplateLoader> entry = loaders.floorEntry(today);
-        if (entry == null) {
-            return null;
+        LocalDate next = loaders.higherKey(today);
+        Active switched = new Active(entry == null ? null : entry.getValue(), next);
+        active.set(switched);
+
+        if (entry != null) {
+            LOG.info("Using version for date {}", entry.getKey());
+            retireBefore(entry.getKey());
+        }
+
+        if (scheduler != null && next != null) {
+            scheduleSwitch(next);
+        }
+        return switched;
+    }
+
+    private void retireBefore(LocalDate date) {
+        // dates only move forwards, so older templates will never be selected again
+        Iterator<Map.Entry<LocalDate, DocumentTemplateLoader>> it = loaders.headMap(date, false).entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<LocalDate, DocumentTemplateLoader> retired = it.next();
+            LOG.info("Releasing version for date {}", retired.getKey());
+            retired.getValue().release();
+            it.remove();
         }
-        LocalDate dateUsed = entry.getKey();
-        DocumentTemplateLoader loader = entry.getValue();
-        LOG.info("Using version for date {}", dateUsed);
-        return loader.loadDocumentTemplate();
     }
 
+    private void scheduleSwitch(LocalDate next) {
+        long delay = Math.max(0, startOfDayMillis(next) - millisSupplier.getAsLong());
+        DocumentTemplateLoader nextLoader = loaders.get(next);
+        scheduler.schedule(() -> prewarm(next, nextLoader),
+                Math.max(0, delay - prewarmLead.toMillis()), TimeUnit.MILLISECONDS);
+        scheduler.schedule((Runnable) this::switchTemplate, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static void prewarm(LocalDate date, DocumentTemplateLoader loader) {
+        try {
+            LOG.info("Prewarming version for date {}", date);
+            loader.prewarm();
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to prewarm version for date {}", date, e);
+        }
+    }
+
+    private static long startOfDayMillis(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static class Active {
+
+        private final DocumentTemplateLoader loader;
+
+        private final long switchAtMillis;
+
+        Active(DocumentTemplateLoader loader, LocalDate next) {
+            this.loader = loader;
+            this.switchAtMillis = next == null ? Long.MAX_VALUE : startOfDayMillis(next);
+        }
+    }
 }
@@ -5,15 +5,17 @@ import com.aspose.words.IFieldMergingCallback;
 import com.aspose.words.PdfSaveOptions;
 import com.aspose.words.SaveFormat;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
  * Generates documents from a ampa of fields.
+ *
+ * The merged document is rendered straight from memory into the requested format: a PDF is laid out and saved from
+ * the merged document rather than from a DOCX copy of it, and a DOCX is saved without laying out any pages.
+ *
+ * The time taken by each stage is reported to the RenderTimer given, if any.
  */
 public class DocumentGenerator {
 
@@ -23,64 +25,121 @@ public class DocumentGenerator {
         this.templateLoader = templateLoader;
     }
 
+    public String templateVersion() {
+        return templateLoader.templateVersion();
+    }
+
     public byte[] save(Map<String, Object> fields, DocumentType type) throws DocumentGeneratorException {
         return save(fields, type, null);
     }
 
     public byte[] save(Map<String, Object> fields, DocumentType type, IFieldMergingCallback mergingCallback)
                 throws DocumentGeneratorException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        save(fields, type, mergingCallback, out);
+        return out.toByteArray();
+    }
 
-        byte[] mergedDocument = executeMailMerge(fields, mergingCallback);
+    public void save(
+            Map<String, Object> fields,
+            DocumentType type,
+            IFieldMergingCallback mergingCallback,
+            OutputStream out) throws DocumentGeneratorException {
+        write(merge(fields, type, mergingCallback), type, out);
+    }
 
-        if (type == DocumentType.WORD) {
-            return mergedDocument;
-        }
+    public Document merge(Map<String, Object> fields, DocumentType type, IFieldMergingCallback mergingCallback)
+            throws DocumentGeneratorException {
+        return merge(fields, type, mergingCallback, RenderTimer.NONE);
+    }
 
-        // render as a PDF
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
-        savePdf(mergedDocument, os);
-        return os.toByteArray();
+    /**
+     * Merge the fields into a copy of the template and prepare it to be written as the given type.  All of the work
+     * that can fail because of the content of the fields is done here, before anything has been written out.
+     */
+    public Document merge(
+            Map<String, Object> fields,
+            DocumentType type,
+            IFieldMergingCallback mergingCallback,
+            RenderTimer timer) throws DocumentGeneratorException {
+        Document document = executeMailMerge(fields, mergingCallback, timer);
+        layout(document, type, timer);
+        return document;
     }
 
-    private byte[] executeMailMerge(Map<String, Object> fields, IFieldMergingCallback mergingCallback)
-                throws DocumentGeneratorException {
+    private Document executeMailMerge(
+            Map<String, Object> fields,
+            IFieldMergingCallback mergingCallback,
+            RenderTimer timer) throws DocumentGeneratorException {
 
+        long start = System.nanoTime();
         Document template = templateLoader.loadDocumentTemplate();
+        timer.record(RenderStage.CLONE, System.nanoTime() - start);
         template.getMailMerge().setTrimWhitespaces(true);
         if (mergingCallback != null) {
             template.getMailMerge().setFieldMergingCallback(mergingCallback);
         }
 
         try {
-            List<String> fieldnames = new ArrayList<>();
-            List<Object> values = new ArrayList<>();
-            fields.entrySet().stream().forEach(entry -> {
-                fieldnames.add(entry.getKey());
-                values.add(entry.getValue());
-            });
-            template.getMailMerge().execute(
-                    fieldnames.toArray(new String[fieldnames.size()]),
-                    values.toArray());
+            String[] fieldnames = new String[fields.size()];
+            Object[] values = new Object[fields.size()];
+            int i = 0;
+            for (Map.Entry<String, Object> entry : fields.entrySet()) {
+                fieldnames[i] = entry.getKey();
+                values[i] = entry.getValue();
+                i++;
+            }
+            start = System.nanoTime();
+            template.getMailMerge().execute(fieldnames, values);
+            timer.record(RenderStage.MERGE, System.nanoTime() - start);
+
+            start = System.nanoTime();
             template.updateFields();
-            template.updatePageLayout();
-
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            template.save(out, SaveFormat.DOCX);
-            return out.toByteArray();
+            timer.record(RenderStage.UPDATE_FIELDS, System.nanoTime() - start);
+            return template;
         } catch (Exception e) {
             throw new DocumentGeneratorException("Failed to execute mail merge", e);
         }
     }
 
-    private static void savePdf(byte[] wordDocument, OutputStream outputStream) throws DocumentGeneratorException {
+    /**
+     * Only fixed page formats need the page layout to be built, flow formats such as DOCX are laid out by whatever
+     * opens them.
+     */
+    private static void layout(Document document, DocumentType type, RenderTimer timer)
+            throws DocumentGeneratorException {
+        if (type != DocumentType.PDF) {
+            return;
+        }
+
         try {
-            PdfSaveOptions saveOptions = new PdfSaveOptions();
-            saveOptions.setUseHighQualityRendering(true);
+            long start = System.nanoTime();
+            document.updatePageLayout();
+            timer.record(RenderStage.LAYOUT, System.nanoTime() - start);
+        } catch (Exception e) {
+            throw new DocumentGeneratorException("Failed to lay out document", e);
+        }
+    }
+
+    public void write(Document document, DocumentType type, OutputStream out)
+            throws DocumentGeneratorException {
+        write(document, type, out, RenderTimer.NONE);
+    }
 
-            Document doc = new Document(new ByteArrayInputStream(wordDocument));
-            doc.save(outputStream, saveOptions);
+    public void write(Document document, DocumentType type, OutputStream out, RenderTimer timer)
+            throws DocumentGeneratorException {
+        long start = System.nanoTime();
+        try {
+            if (type == DocumentType.WORD) {
+                document.save(out, SaveFormat.DOCX);
+            } else {
+                PdfSaveOptions saveOptions = new PdfSaveOptions();
+                saveOptions.setUseHighQualityRendering(true);
+                document.save(out, saveOptions);
+            }
+            timer.record(RenderStage.SAVE, System.nanoTime() - start);
         } catch (Exception e) {
-            throw new DocumentGeneratorException("Failed to convert word document to pdf", e);
+            throw new DocumentGeneratorException("Failed to save document as " + type.getExtension(), e);
         }
     }
 }
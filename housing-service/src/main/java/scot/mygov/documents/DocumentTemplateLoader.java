@@ -9,4 +9,25 @@ public interface DocumentTemplateLoader {
 
     Document loadDocumentTemplate();
 
+    /**
+     * Identifies the template that loadDocumentTemplate would currently return.  Documents rendered from templates
+     * with the same version can be treated as interchangeable.
+     */
+    String templateVersion();
+
+    /**
+     * Get the template ready to be used, so that the first document rendered from it is not slowed down.
+     */
+    default void prewarm() {
+        loadDocumentTemplate();
+    }
+
+    /**
+     * Free any memory held for a template that is not expected to be used again.  If it is used after all then it is
+     * loaded again.
+     */
+    default void release() {
+        // nothing held by default
+    }
+
 }
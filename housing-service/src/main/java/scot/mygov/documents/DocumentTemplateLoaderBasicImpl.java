@@ -2,6 +2,7 @@ package scot.mygov.documents;
 
 import com.aspose.words.Document;
 import com.aspose.words.NodeType;
+import com.google.common.base.Suppliers;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
@@ -10,6 +11,7 @@ import scot.mygov.UnavailableResourceException;
 import scot.mygov.housing.AsposeLicense;
 
 import java.io.InputStream;
+import java.util.function.Supplier;
 
 /**
  * Created by z418868 on 24/09/2020.
@@ -18,13 +20,34 @@ public class DocumentTemplateLoaderBasicImpl implements DocumentTemplateLoader{
 
     private static final Logger LOG = LoggerFactory.getLogger(DocumentTemplateLoader.class);
 
-    private final Document template;
+    private final String path;
+
+    private volatile Supplier<Document> template;
+
+    private final Runnable release;
 
     public DocumentTemplateLoaderBasicImpl(String path, AsposeLicense license) {
-        this.template = loadDocument(path);
+        Document document = loadDocument(path);
+        this.path = path;
+        this.template = () -> document;
+        this.release = null;
+    }
+
+    private DocumentTemplateLoaderBasicImpl(String path, Supplier<Document> template, Runnable release) {
+        this.path = path;
+        this.template = template;
+        this.release = release;
+    }
+
+    /**
+     * Create a loader for a template that is parsed elsewhere.  The supplier is asked for the template every time a
+     * copy is needed, so it is responsible for parsing it only once, and release is run to free it.
+     */
+    public static DocumentTemplateLoaderBasicImpl sharing(String path, Supplier<Document> template, Runnable release) {
+        return new DocumentTemplateLoaderBasicImpl(path, template, release);
     }
 
-    private static Document loadDocument(String path) {
+    static Document loadDocument(String path) {
         LOG.info("loading {}", path);
         StopWatch watch = new StopWatch();
         watch.start();
@@ -44,7 +67,20 @@ public class DocumentTemplateLoaderBasicImpl implements DocumentTemplateLoader{
     }
 
     public Document loadDocumentTemplate() {
-        return template.deepClone();
+        return template.get().deepClone();
+    }
+
+    public String templateVersion() {
+        return path;
+    }
+
+    @Override
+    public void release() {
+        if (release != null) {
+            release.run();
+        } else {
+            template = Suppliers.memoize(() -> loadDocument(path));
+        }
     }
 
 }
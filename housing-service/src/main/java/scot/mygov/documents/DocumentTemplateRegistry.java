@@ -0,0 +1,206 @@
+package scot.mygov.documents;
+
+import com.aspose.words.Document;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scot.mygov.UnavailableResourceException;
+import scot.mygov.housing.AsposeLicense;
+import scot.mygov.housing.MetricName;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Holds the parsed master copy of each document template on the classpath, and creates the loaders that clone them.
+ *
+ * Each template is parsed at most once, however many forms use it.  Templates are parsed on first use unless
+ * preload is called, which parses every template that has been asked for in parallel.
+ *
+ * Templates with a pool size greater than zero are given a pool of ready made copies that is refilled by a single
+ * background thread.  Pool sizes are looked up by the file name of the template.  The same thread switches between
+ * the templates of date switching loaders that have been scheduled.
+ */
+public class DocumentTemplateRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DocumentTemplateRegistry.class);
+
+    private final Map<String, Integer> poolSizes;
+
+    private final int defaultPoolSize;
+
+    private final MetricRegistry registry;
+
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    private final Map<String, DocumentTemplateLoader> loaders = new ConcurrentHashMap<>();
+
+    private final Duration prewarmLead;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("template-%d").setDaemon(true).build());
+
+    /**
+     * @param license not used directly, but the license must be set before any template is parsed
+     * @param prewarmLead how long before a date switching loader changes template the new template is prewarmed
+     */
+    public DocumentTemplateRegistry(
+            AsposeLicense license,
+            Map<String, Integer> poolSizes,
+            int defaultPoolSize,
+            Duration prewarmLead,
+            MetricRegistry registry) {
+        this.poolSizes = poolSizes;
+        this.defaultPoolSize = defaultPoolSize;
+        this.prewarmLead = prewarmLead;
+        this.registry = registry;
+    }
+
+    public DocumentTemplateLoader loader(String path) {
+        return loaders.computeIfAbsent(path, this::newLoader);
+    }
+
+    private DocumentTemplateLoader newLoader(String path) {
+        Template template = templates.computeIfAbsent(path, Template::new);
+        String prefix = MetricRegistry.name(DocumentTemplateRegistry.class, path);
+        registry.register(MetricRegistry.name(prefix, MetricName.LOAD_TIME.getMetricName()),
+                (Gauge<Long>) () -> template.loadMillis);
+        registry.register(MetricRegistry.name(prefix, MetricName.ALLOCATED_BYTES.getMetricName()),
+                (Gauge<Long>) () -> template.allocatedBytes);
+
+        DocumentTemplateLoader loader
+                = DocumentTemplateLoaderBasicImpl.sharing(path, template::master, template::release);
+        int poolSize = poolSize(path);
+        if (poolSize <= 0) {
+            return loader;
+        }
+        return new PooledDocumentTemplateLoader(loader, poolSize, scheduler, registry);
+    }
+
+    /**
+     * Start a date switching loader, so that it switches template on this registry's background thread.
+     */
+    public void schedule(DateSwitchingDocumentTemplateLoader loader) {
+        loader.start(scheduler, prewarmLead);
+    }
+
+    int poolSize(String path) {
+        String filename = StringUtils.substringAfterLast(path, "/");
+        return poolSizes.getOrDefault(filename, defaultPoolSize);
+    }
+
+    /**
+     * Parse every template that has been asked for and not released, in parallel, and wait for them all to finish.
+     */
+    public void preload() {
+        StopWatch watch = StopWatch.createStarted();
+        int threads = Math.min(templates.size(), Runtime.getRuntime().availableProcessors());
+        if (threads == 0) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("template-load-%d").setDaemon(true).build());
+        try {
+            List<Future<Document>> loads = new ArrayList<>();
+            for (Template template : templates.values()) {
+                if (!template.released) {
+                    loads.add(executor.submit(template::master));
+                }
+            }
+            for (Future<Document> load : loads) {
+                load.get();
+            }
+            LOG.info("Loaded {} templates in {}ms", loads.size(), watch.getTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnavailableResourceException("Interrupted while loading templates", e);
+        } catch (ExecutionException e) {
+            throw new UnavailableResourceException("Failed to load templates", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * The master copy of a single template, parsed the first time it is needed.
+     */
+    private static class Template {
+
+        private final String path;
+
+        private volatile Document master;
+
+        private volatile boolean released;
+
+        private volatile long loadMillis = -1;
+
+        // bytes allocated while parsing, including the garbage from the parse, not the heap retained by the master copy
+        private volatile long allocatedBytes = -1;
+
+        Template(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Called for every render, so only a load takes the lock.  Release only drops this reference, so a render
+         * that already has the master can carry on with it.
+         */
+        Document master() {
+            Document current = master;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                released = false;
+                if (master == null) {
+                    long allocatedBefore = allocatedBytes();
+                    StopWatch watch = StopWatch.createStarted();
+                    master = DocumentTemplateLoaderBasicImpl.loadDocument(path);
+                    loadMillis = watch.getTime();
+                    if (allocatedBefore >= 0) {
+                        allocatedBytes = allocatedBytes() - allocatedBefore;
+                    }
+                    LOG.info("Loaded {} in {}ms, allocating {} bytes", path, loadMillis, allocatedBytes);
+                }
+                return master;
+            }
+        }
+
+        synchronized void release() {
+            released = true;
+            if (master != null) {
+                LOG.info("Released {}", path);
+                master = null;
+            }
+        }
+
+        private static long allocatedBytes() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean sunThreads
+                    && sunThreads.isThreadAllocatedMemorySupported()
+                    && sunThreads.isThreadAllocatedMemoryEnabled()) {
+                return sunThreads.getCurrentThreadAllocatedBytes();
+            }
+            return -1;
+        }
+    }
+}
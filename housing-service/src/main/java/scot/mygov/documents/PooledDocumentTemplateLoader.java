@@ -0,0 +1,146 @@
+package scot.mygov.documents;
+
+import com.aspose.words.Document;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scot.mygov.housing.MetricName;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DocumentTemplateLoader that keeps a pool of ready made copies of the template from another loader.
+ *
+ * Each copy handed out is replaced in the background, so a request only has to clone the template itself if the
+ * pool has run dry.
+ */
+public class PooledDocumentTemplateLoader implements DocumentTemplateLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledDocumentTemplateLoader.class);
+
+    private final DocumentTemplateLoader loader;
+
+    private final int size;
+
+    private final BlockingQueue<Document> pool;
+
+    private final Executor refillExecutor;
+
+    // refills that have been asked for but have not yet reached the pool
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // guards adding to the pool against a release, so that a copy loaded while the pool was released is dropped
+    private final Object lock = new Object();
+
+    private volatile boolean released;
+
+    private final Meter hitMeter;
+
+    private final Meter missMeter;
+
+    private final Timer refillLag;
+
+    public PooledDocumentTemplateLoader(
+            DocumentTemplateLoader loader,
+            int size,
+            Executor refillExecutor,
+            MetricRegistry registry) {
+        this.loader = loader;
+        this.size = size;
+        this.pool = new ArrayBlockingQueue<>(size);
+        this.refillExecutor = refillExecutor;
+
+        String prefix = MetricRegistry.name(PooledDocumentTemplateLoader.class, loader.templateVersion());
+        this.hitMeter = registry.meter(MetricRegistry.name(prefix, MetricName.HITS.getMetricName()));
+        this.missMeter = registry.meter(MetricRegistry.name(prefix, MetricName.MISSES.getMetricName()));
+        this.refillLag = registry.timer(MetricRegistry.name(prefix, MetricName.REFILL_LAG.getMetricName()));
+        registry.register(MetricRegistry.name(prefix, MetricName.SIZE.getMetricName()), (Gauge<Integer>) pool::size);
+
+        for (int i = 0; i < size; i++) {
+            refill();
+        }
+    }
+
+    @Override
+    public Document loadDocumentTemplate() {
+        released = false;
+        Document document = pool.poll();
+        if (document == null) {
+            missMeter.mark();
+            document = loader.loadDocumentTemplate();
+        } else {
+            hitMeter.mark();
+        }
+        refill();
+        return document;
+    }
+
+    @Override
+    public String templateVersion() {
+        return loader.templateVersion();
+    }
+
+    @Override
+    public void prewarm() {
+        released = false;
+        loader.prewarm();
+        for (int i = 0; i < size; i++) {
+            refill();
+        }
+    }
+
+    @Override
+    public void release() {
+        synchronized (lock) {
+            released = true;
+            pool.clear();
+        }
+        loader.release();
+    }
+
+    private void refill() {
+        if (released) {
+            return;
+        }
+
+        // the pool is already full once the outstanding refills arrive
+        if (pool.size() + pending.incrementAndGet() > size) {
+            pending.decrementAndGet();
+            return;
+        }
+
+        long requested = System.nanoTime();
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    if (released) {
+                        return;
+                    }
+                    Document document = loader.loadDocumentTemplate();
+                    synchronized (lock) {
+                        if (released) {
+                            return;
+                        }
+                        pool.offer(document);
+                    }
+                    refillLag.update(System.nanoTime() - requested, TimeUnit.NANOSECONDS);
+                } catch (RuntimeException e) {
+                    LOG.warn("Failed to refill template pool for {}", loader.templateVersion(), e);
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            LOG.warn("Unable to schedule template refill for {}", loader.templateVersion(), e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package scot.mygov.documents;
+
+/**
+ * The stages of rendering a document, in the order in which they happen.
+ */
+public enum RenderStage {
+
+    /** Extracting the merge fields from the submitted form. */
+    EXTRACT("extract"),
+
+    /** Taking a copy of the template to merge into. */
+    CLONE("clone"),
+
+    /** Running the mail merge. */
+    MERGE("merge"),
+
+    /** Updating the fields of the merged document. */
+    UPDATE_FIELDS("update-fields"),
+
+    /** Building the page layout, only needed for PDF. */
+    LAYOUT("layout"),
+
+    /** Saving the document as DOCX, or converting it to PDF. */
+    SAVE("save");
+
+    private final String stageName;
+
+    RenderStage(String stageName) {
+        this.stageName = stageName;
+    }
+
+    public String getStageName() {
+        return stageName;
+    }
+}
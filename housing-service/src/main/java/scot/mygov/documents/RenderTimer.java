@@ -0,0 +1,14 @@
+package scot.mygov.documents;
+
+/**
+ * Receives the time taken by each stage of a render.
+ */
+@FunctionalInterface
+public interface RenderTimer {
+
+    RenderTimer NONE = (stage, nanos) -> {
+        // not timed
+    };
+
+    void record(RenderStage stage, long nanos);
+}
@@ -0,0 +1,42 @@
+package scot.mygov.housing;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Checks the basic authentication credentials sent by another service.
+ *
+ * If no username and password have been configured every request is refused, so an endpoint protected by this check
+ * is closed until it has been given credentials.
+ */
+public class BasicAuthCheck {
+
+    private static final String BASIC = "Basic ";
+
+    private final byte[] expected;
+
+    public BasicAuthCheck(String username, String password) {
+        if (StringUtils.isAnyEmpty(username, password)) {
+            this.expected = null;
+        } else {
+            String credentials = username + ":" + password;
+            this.expected = (BASIC + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)))
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @param authorization the value of the Authorization header, or null if there was none
+     * @return true if credentials have been configured and the header carries them
+     */
+    public boolean verify(String authorization) {
+        if (expected == null || authorization == null) {
+            return false;
+        }
+        // compare in constant time so that the credentials cannot be guessed from how long a refusal takes
+        return MessageDigest.isEqual(expected, authorization.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,19 @@
+package scot.mygov.housing;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET method whose successful responses can be cached and revalidated, see ConditionalCaching.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+
+    /**
+     * How long, in seconds, browsers and caches may use a response before revalidating it.
+     */
+    int maxAge();
+}
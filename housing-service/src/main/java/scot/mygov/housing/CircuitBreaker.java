@@ -0,0 +1,153 @@
+package scot.mygov.housing;
+
+import com.google.common.base.Ticker;
+
+import java.time.Duration;
+
+/**
+ * Stops calls to an upstream service that is failing or slow, so that callers fail at once rather than waiting on it.
+ *
+ * The outcome of the last windowSize calls is kept.  Once at least minimumCalls have been made, the breaker opens if the
+ * percentage of them that failed, or that took longer than slowCallDuration, reaches its threshold.  While open every
+ * call is refused.  After openDuration one trial call is let through: if it succeeds promptly the breaker closes, and
+ * otherwise it opens again for another openDuration.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final double slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final long openNanos;
+
+    private final Ticker ticker;
+
+    private final boolean[] failed;
+
+    private final boolean[] slow;
+
+    private int next;
+
+    private int calls;
+
+    private int failures;
+
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    private boolean trialInFlight;
+
+    public CircuitBreaker(
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            double slowCallRateThreshold,
+            Duration slowCallDuration,
+            Duration openDuration) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallDuration, openDuration,
+                Ticker.systemTicker());
+    }
+
+    CircuitBreaker(
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            double slowCallRateThreshold,
+            Duration slowCallDuration,
+            Duration openDuration,
+            Ticker ticker) {
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.ticker = ticker;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    /**
+     * @return true if a call may be made, in which case its outcome must be passed to record
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && ticker.read() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    public synchronized void record(boolean success, long durationNanos) {
+        boolean slowCall = durationNanos > slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+            if (success && !slowCall) {
+                close();
+            } else {
+                open();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // a call that was made before the breaker opened
+            return;
+        }
+
+        if (calls == failed.length) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failed[next] = !success;
+        slow[next] = slowCall;
+        failures += success ? 0 : 1;
+        slowCalls += slowCall ? 1 : 0;
+        next = (next + 1) % failed.length;
+
+        if (calls >= minimumCalls
+                && (percentage(failures) >= failureRateThreshold || percentage(slowCalls) >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private double percentage(int count) {
+        return 100.0 * count / calls;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = ticker.read();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,117 @@
+package scot.mygov.housing;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Adds a strong ETag and Cache-Control to successful responses from methods marked as Cached, and answers a matching
+ * If-None-Match with 304 Not Modified.
+ *
+ * The entity is serialised once to compute the ETag, and those bytes are what is sent.  The bytes are kept for as long
+ * as the entity object itself is alive, so an entity that is returned again, such as the model tenancy template or a
+ * cached postcode lookup, is neither serialised nor hashed again.
+ */
+@Provider
+public class ConditionalCaching implements DynamicFeature {
+
+    private final JsonCodec codec;
+
+    private final Cache<Object, Serialised> serialised = CacheBuilder.newBuilder().weakKeys().build();
+
+    @Inject
+    public ConditionalCaching(JsonCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        Cached cached = resourceInfo.getResourceMethod().getAnnotation(Cached.class);
+        if (cached != null) {
+            CacheControl cacheControl = new CacheControl();
+            cacheControl.setMaxAge(cached.maxAge());
+            context.register(new Filter(cacheControl));
+        }
+    }
+
+    Serialised serialise(Object entity) throws IOException {
+        try {
+            // weak keys are compared by identity, so equal but separate entities are serialised separately
+            return serialised.get(entity, () -> new Serialised(codec.writer().writeValueAsBytes(entity)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to serialise response", e.getCause());
+        }
+    }
+
+    static class Serialised {
+
+        private final byte[] bytes;
+
+        private final EntityTag tag;
+
+        Serialised(byte[] bytes) {
+            this.bytes = bytes;
+            byte[] hash = Hashing.sha256().hashBytes(bytes).asBytes();
+            this.tag = new EntityTag(BaseEncoding.base64Url().omitPadding().encode(hash));
+        }
+
+        byte[] getBytes() {
+            return bytes;
+        }
+
+        EntityTag getTag() {
+            return tag;
+        }
+    }
+
+    private class Filter implements ContainerResponseFilter {
+
+        private final CacheControl cacheControl;
+
+        Filter(CacheControl cacheControl) {
+            this.cacheControl = cacheControl;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+            String method = request.getMethod();
+            boolean readOnly = HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+            if (!readOnly || response.getStatus() != Response.Status.OK.getStatusCode() || !response.hasEntity()) {
+                return;
+            }
+
+            Serialised entity = serialise(response.getEntity());
+            response.getHeaders().putSingle(HttpHeaders.ETAG, entity.getTag());
+            response.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, cacheControl);
+            if (request.getRequest().evaluatePreconditions(entity.getTag()) != null) {
+                response.setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+                response.setEntity(null);
+                response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+                return;
+            }
+            response.setEntity(entity.getBytes(), response.getEntityAnnotations(), MediaType.APPLICATION_JSON_TYPE);
+        }
+    }
+}
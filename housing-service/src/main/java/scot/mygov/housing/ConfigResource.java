@@ -18,11 +18,20 @@ public class ConfigResource {
     ConfigResource() {
     }
 
+    // the resource is shared by every request, so the instance built by the first must be visible to the rest
+    private volatile PublicConfig config;
+
     @GET
+    @Cached(maxAge = 300)
     public PublicConfig config() {
-        PublicConfig config = new PublicConfig();
-        config.setRecaptchaSitekey(housingConfiguration.getRecaptcha().getSitekey());
-        return config;
+        // the configuration does not change, so the same instance is returned and its response is reused
+        PublicConfig publicConfig = config;
+        if (publicConfig == null) {
+            publicConfig = new PublicConfig();
+            publicConfig.setRecaptchaSitekey(housingConfiguration.getRecaptcha().getSitekey());
+            config = publicConfig;
+        }
+        return publicConfig;
     }
 
     class PublicConfig {
@@ -1,6 +1,7 @@
 package scot.mygov.housing;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metered;
 import com.codahale.metrics.MetricFilter;
@@ -87,6 +88,7 @@ public class Healthcheck {
         addModelTenancyMetricsInfo(result, errors, data);
         addDocumentGenerationMetricsInfo(result, errors, data, modelTenancyService);
         addFormSubmissionErrorsInfo(errors);
+        addProbeMetricsInfo(data);
 
         boolean ok = errors.size() == 0;
         result.put("ok", ok);
@@ -174,6 +176,13 @@ public class Healthcheck {
             errors.add("Slow Postcode lookups in the last 5 minutes");
         }
 
+        CircuitBreaker.State circuitState = europa.getCircuitState();
+        data.put("postcodeLookupCircuit", circuitState.name());
+        if (circuitState != CircuitBreaker.State.CLOSED) {
+            errors.add("Postcode lookups are failing fast while Europa is unavailable");
+            ok = false;
+        }
+
         // collect all of the metrics for europa and add them to the data
         MetricFilter filter = forClass(europa.getClass());
         for (Map.Entry<String, Timer> entry : metricRegistry.getTimers(filter).entrySet()) {
@@ -188,6 +197,11 @@ public class Healthcheck {
             data.put(entry.getKey(), entry.getValue().getCount());
         }
 
+        // the postcode cache size and hit ratio
+        for (Map.Entry<String, Gauge> entry : metricRegistry.getGauges(filter).entrySet()) {
+            data.put(entry.getKey(), String.valueOf(entry.getValue().getValue()));
+        }
+
         result.put("Postcode lookups", ok);
     }
 
@@ -246,6 +260,17 @@ public class Healthcheck {
         }
     }
 
+    private void addProbeMetricsInfo(ObjectNode data) {
+        MetricFilter filter = forClass(ProbeScheduler.class);
+        for (Map.Entry<String, Timer> entry : metricRegistry.getTimers(filter).entrySet()) {
+            data.put(entry.getKey(), formatSnapshot(entry.getValue().getSnapshot()));
+        }
+
+        for (Map.Entry<String, Meter> entry : metricRegistry.getMeters(filter).entrySet()) {
+            data.put(entry.getKey(), formatMeter(entry.getValue()));
+        }
+    }
+
     private String formatSnapshot(Snapshot ss) {
         return String.format(
                 "min: %d, " +
@@ -1,21 +1,29 @@
 package scot.mygov.housing;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import dagger.Component;
 import io.undertow.Undertow;
+import io.undertow.servlet.api.DeploymentInfo;
 import org.jboss.resteasy.plugins.server.undertow.UndertowJaxrsServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.bridge.SLF4JBridgeHandler;
+import scot.mygov.documents.DocumentTemplateRegistry;
 import scot.mygov.housing.europa.Europa;
 import scot.mygov.housing.postcode.Heartbeat;
+import scot.mygov.housing.postcode.IndexedPostcodeService;
+import scot.mygov.housing.postcode.PostcodeService;
 import software.amazon.awssdk.services.s3.S3Client;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 public class Housing {
@@ -33,9 +41,18 @@ public class Housing {
     @Inject
     Europa europa;
 
+    @Inject
+    PostcodeService postcodeService;
+
     @Inject
     HousingApplication app;
 
+    @Inject
+    ProbeScheduler probeScheduler;
+
+    @Inject
+    DocumentTemplateRegistry templateRegistry;
+
     @Inject
     @Nullable
     S3Client s3;
@@ -52,18 +69,68 @@ public class Housing {
     }
 
     public void run() {
-        Server server = new Server();
+        if (config.isPreloadTemplates()) {
+            templateRegistry.preload();
+        }
+
+        Executor requestExecutor = VirtualThreads.enabled(config.isVirtualThreads())
+                ? VirtualThreads.executor("request-")
+                : null;
+        Server server = new Server(requestExecutor);
         server.deploy(app);
         server.start(Undertow.builder().addHttpListener(config.getPort(), "::"));
         LOG.info("Listening on port {}", server.port());
 
-        // schedule the postcode lookup heartbeat
-        Heartbeat heartbeat = new Heartbeat(europa);
+        // probe upstreams that have had no traffic so that their metrics stay fresh.  Probes get a thread of their
+        // own so that a slow upstream cannot hold up the circuit breaker or the index reloads.
+        if (config.getProbes().isEnabled()) {
+            probeScheduler.start(Executors.newSingleThreadScheduledExecutor(daemon("probes-%d")));
+        }
+
         ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(1);
-        scheduledExecutorService.scheduleAtFixedRate(heartbeat, 1, config.getHeartbeatMonitoringInterval(), TimeUnit.MINUTES);
+        if (config.getEuropaCircuitBreaker().isEnabled()) {
+            Heartbeat heartbeat = new Heartbeat(europa);
+            long probeInterval = Duration.parse(config.getEuropaCircuitBreaker().getOpenDuration()).toMillis();
+            scheduledExecutorService.scheduleWithFixedDelay(
+                    heartbeat::probeIfOpen, probeInterval, probeInterval, TimeUnit.MILLISECONDS);
+        }
+
+        // build or pick up a new address index.  Building one takes a while, so it has a thread of its own.
+        if (postcodeService instanceof IndexedPostcodeService indexed) {
+            long interval = Duration.parse(config.getAddressIndex().getReloadInterval()).toMillis();
+            Executors.newSingleThreadScheduledExecutor(daemon("address-index-%d"))
+                    .scheduleWithFixedDelay(indexed::reload, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static ThreadFactory daemon(String nameFormat) {
+        return new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build();
     }
 
     public static class Server extends UndertowJaxrsServer {
+
+        private final Executor requestExecutor;
+
+        public Server() {
+            this(null);
+        }
+
+        /**
+         * @param requestExecutor executor that requests are handled on, or null to use the Undertow worker threads
+         */
+        public Server(Executor requestExecutor) {
+            this.requestExecutor = requestExecutor;
+        }
+
+        @Override
+        public UndertowJaxrsServer deploy(DeploymentInfo info) {
+            if (requestExecutor != null) {
+                info.setExecutor(requestExecutor);
+                info.setAsyncExecutor(requestExecutor);
+            }
+            return super.deploy(info);
+        }
+
         public int port() {
             InetSocketAddress address = (InetSocketAddress) server
                     .getListenerInfo()
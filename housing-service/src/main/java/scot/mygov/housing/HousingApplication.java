@@ -12,6 +12,7 @@ import scot.mygov.housing.forms.noticetoleave.SubtenantNoticeToLeaveResource;
 import scot.mygov.housing.forms.rentadjudication.RentAdjudicationResource;
 import scot.mygov.housing.forms.rentincreaseforimprovementsnotice.RentIncreaseForImprovementsResource;
 import scot.mygov.housing.forms.rentincreasenotice.RentIncreaseResource;
+import scot.mygov.housing.postcode.PostcodeBatchResource;
 import scot.mygov.housing.postcode.PostcodeResource;
 import scot.mygov.housing.rpz.RentPressureZoneResource;
 
@@ -64,6 +65,9 @@ public class HousingApplication extends Application {
     @Inject
     PostcodeResource postcodeResource;
 
+    @Inject
+    PostcodeBatchResource postcodeBatchResource;
+
     @Inject
     ErrorHandler errorHandler;
 
@@ -75,6 +79,9 @@ public class HousingApplication extends Application {
     @Inject
     NotSupportedExceptionHandler notSupportedExceptionHandler;
 
+    @Inject
+    RenderRejectedExceptionHandler renderRejectedExceptionHandler;
+
     @Inject
     Healthcheck healthcheck;
 
@@ -90,6 +97,12 @@ public class HousingApplication extends Application {
     @Inject
     ConfigResource configResource;
 
+    @Inject
+    ObjectMapperResolver objectMapperResolver;
+
+    @Inject
+    ConditionalCaching conditionalCaching;
+
     @Override
     public Set<Object> getSingletons() {
         return new HashSet<>(asList(
@@ -106,17 +119,21 @@ public class HousingApplication extends Application {
                 rentPressureZone,
                 cpiResource,
                 postcodeResource,
+                postcodeBatchResource,
 
                 errorHandler,
                 notFoundErrorHandler,
                 notAcceptableErrorHandler,
                 notSupportedExceptionHandler,
+                renderRejectedExceptionHandler,
 
                 healthcheck,
                 europa,
                 responseLogger,
                 requestLogger,
-                configResource
+                configResource,
+                objectMapperResolver,
+                conditionalCaching
         ));
     }
 
@@ -18,12 +18,53 @@ public class HousingConfiguration {
     private Recaptcha recaptcha = new Recaptcha();
 
     private FairRentRegister fairRentRegister = new FairRentRegister();
+
+    private Render render = new Render();
+
+    private DocumentCache documentCache = new DocumentCache();
+
+    private PostcodeCache postcodeCache = new PostcodeCache();
+
+    private AddressIndex addressIndex = new AddressIndex();
+
+    private PostcodeBatch postcodeBatch = new PostcodeBatch();
+
+    private EuropaCircuitBreaker europaCircuitBreaker = new EuropaCircuitBreaker();
+
+    private TemplatePool templatePool = new TemplatePool();
+    static final String FAIR_RENT_CONNECT_TIMEOUT = "PT1S";
+
+    static final String FAIR_RENT_READ_TIMEOUT = "PT10S";
+
+    static final String PROBE_WINDOW = "PT5M";
+
     private String europaId;
 
     private URI europaURI = URI.create("https://api.viaeuropa.uk.com/");
 
-    // once per 5 minutes
-    private long heartbeatMonitoringInterval = 5;
+    // parse every document template in parallel at startup rather than on first use
+    private boolean preloadTemplates = true;
+
+    // how long before a legislation change date the new template is prewarmed
+    private String templatePrewarmLead = "PT1H";
+
+    // handle requests, and the blocking calls they make, on virtual threads when the runtime supports them
+    private boolean virtualThreads = false;
+
+    // the client for each upstream, raise their pool sizes along with virtualThreads
+    private Upstream europaClient = new Upstream();
+
+    private Upstream recaptchaClient = new Upstream();
+
+    private Upstream fairRentClient = new Upstream(FAIR_RENT_CONNECT_TIMEOUT, FAIR_RENT_READ_TIMEOUT);
+
+    // bind JSON properties with generated lambdas rather than reflection
+    private boolean acceleratedJson = true;
+
+    private Probes probes = new Probes();
+
+    // deprecated, minutes between Europa heartbeats.  Used as probes.window when that is left at its default
+    private long heartbeatMonitoringInterval = 0;
 
     private String covidChangeDate2022 = "2022-03-30";
 
@@ -70,6 +111,70 @@ public class HousingConfiguration {
         this.fairRentRegister = fairRentRegister;
     }
 
+    public Render getRender() {
+        return render;
+    }
+
+    public DocumentCache getDocumentCache() {
+        return documentCache;
+    }
+
+    public PostcodeCache getPostcodeCache() {
+        return postcodeCache;
+    }
+
+    public AddressIndex getAddressIndex() {
+        return addressIndex;
+    }
+
+    public PostcodeBatch getPostcodeBatch() {
+        return postcodeBatch;
+    }
+
+    public EuropaCircuitBreaker getEuropaCircuitBreaker() {
+        return europaCircuitBreaker;
+    }
+
+    public TemplatePool getTemplatePool() {
+        return templatePool;
+    }
+
+    public boolean isPreloadTemplates() {
+        return preloadTemplates;
+    }
+
+    public String getTemplatePrewarmLead() {
+        return templatePrewarmLead;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Upstream getEuropaClient() {
+        return europaClient;
+    }
+
+    public Upstream getRecaptchaClient() {
+        return recaptchaClient;
+    }
+
+    public Upstream getFairRentClient() {
+        return fairRentClient;
+    }
+
+    public long getHeartbeatMonitoringInterval() {
+        return heartbeatMonitoringInterval;
+    }
+
+    public void setHeartbeatMonitoringInterval(long heartbeatMonitoringInterval) {
+        this.heartbeatMonitoringInterval = heartbeatMonitoringInterval;
+    }
+
+    public boolean isAcceleratedJson() {
+        return acceleratedJson;
+    }
+
     public String getEuropaId() {
         return europaId;
     }
@@ -86,8 +191,8 @@ public class HousingConfiguration {
         this.europaURI = europaURI;
     }
 
-    public long getHeartbeatMonitoringInterval() {
-        return heartbeatMonitoringInterval;
+    public Probes getProbes() {
+        return probes;
     }
 
     public String getCovidChangeDate2022() {
@@ -117,6 +222,8 @@ public class HousingConfiguration {
 
         private String graceperiod = "PT12H";
 
+        private String timeout = "PT10S";
+
         public URI getUrl() {
             return url;
         }
@@ -125,6 +232,10 @@ public class HousingConfiguration {
             return graceperiod;
         }
 
+        public String getTimeout() {
+            return timeout;
+        }
+
     }
 
     public static class Recaptcha {
@@ -149,6 +260,380 @@ public class HousingConfiguration {
         }
     }
 
+    public static class Render {
+
+        // document generation is CPU bound, so by default use one render thread per core
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        private int queueSize = 20;
+
+        private int retryAfterSeconds = 5;
+
+        // threads that complete document requests, most of their time is spent waiting on recaptcha or a render.
+        // With virtualThreads each request has a thread of its own, up to requestThreads + requestQueueSize at once
+        private int requestThreads = 32;
+
+        private int requestQueueSize = 100;
+
+        // requests not completed in this time are answered with a 503
+        private long requestTimeoutSeconds = 30;
+
+        // threads shared by all batch requests, each renders one document of a batch at a time
+        private int batchThreads = 2;
+
+        // documents that may wait for a batch thread across all batches, a batch that does not fit gets a 503
+        private int batchQueueSize = 100;
+
+        private int batchMaxDocuments = 50;
+
+        // documents of one batch that may be rendered but not yet written to the client at once
+        private int batchMaxUnwritten = 4;
+
+        // documents of a batch not rendered this long after the batch started are reported as errors
+        private String batchTimeout = "PT60S";
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public int getRequestThreads() {
+            return requestThreads;
+        }
+
+        public int getRequestQueueSize() {
+            return requestQueueSize;
+        }
+
+        public long getRequestTimeoutSeconds() {
+            return requestTimeoutSeconds;
+        }
+
+        public int getBatchThreads() {
+            return batchThreads;
+        }
+
+        public int getBatchQueueSize() {
+            return batchQueueSize;
+        }
+
+        public int getBatchMaxDocuments() {
+            return batchMaxDocuments;
+        }
+
+        public int getBatchMaxUnwritten() {
+            return batchMaxUnwritten;
+        }
+
+        public String getBatchTimeout() {
+            return batchTimeout;
+        }
+    }
+
+    public static class DocumentCache {
+
+        private boolean enabled = true;
+
+        // total size of the rendered documents held in memory
+        private long maxBytes = 64L * 1024 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+    }
+
+    public static class PostcodeCache {
+
+        private boolean enabled = true;
+
+        private long maxEntries = 10000;
+
+        // how long a lookup is used before it is refreshed
+        private String ttl = "PT6H";
+
+        // how long after the ttl a lookup is still served while it is refreshed in the background
+        private String staleWhileRevalidate = "PT1H";
+
+        // how long a postcode with no addresses is remembered
+        private String negativeTtl = "PT10M";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public String getTtl() {
+            return ttl;
+        }
+
+        public String getStaleWhileRevalidate() {
+            return staleWhileRevalidate;
+        }
+
+        public String getNegativeTtl() {
+            return negativeTtl;
+        }
+    }
+
+    public static class AddressIndex {
+
+        private boolean enabled = false;
+
+        // the memory mapped index file
+        private String path = "address.idx";
+
+        // csv or ndjson address extract that the index is rebuilt from when it is newer, if any
+        private String source;
+
+        // how often to check for a new index or extract
+        private String reloadInterval = "PT5M";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public String getReloadInterval() {
+            return reloadInterval;
+        }
+    }
+
+    public static class PostcodeBatch {
+
+        // lookups made at once across all batches
+        private int concurrency = 8;
+
+        // lookups that may wait for a thread across all batches, those beyond it are reported as errors
+        private int queueSize = 1000;
+
+        // postcodes and uprns allowed in one batch
+        private int maxKeys = 500;
+
+        // lookups not finished this long after the batch started are reported as errors
+        private String timeout = "PT10S";
+
+        // basic authentication credentials of the services allowed to look up batches, none are allowed without them
+        private String username;
+
+        private String password;
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public String getTimeout() {
+            return timeout;
+        }
+
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    public static class Probes {
+
+        private boolean enabled = true;
+
+        // an upstream with no calls for this long is probed
+        private String window = PROBE_WINDOW;
+
+        // fraction of the window that each probe may be made early or late by
+        private double jitter = 0.2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public String getWindow() {
+            return window;
+        }
+
+        public void setWindow(String window) {
+            this.window = window;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+    }
+
+    public static class Upstream {
+
+        // apache for RESTEasy's blocking engine, or java for the JDK HttpClient
+        private String engine = UpstreamClients.APACHE;
+
+        // most connections, or with the java engine requests in flight, to the upstream at once
+        private int poolSize = 10;
+
+        // how long an idle connection is kept open, apache engine only
+        private String keepAlive = "PT1M";
+
+        private String connectTimeout;
+
+        // apache engine: longest wait for data, java engine: longest wait for the response to start
+        private String readTimeout;
+
+        // offer HTTP/2, java engine only
+        private boolean http2 = true;
+
+        public Upstream() {
+            this("PT5S", "PT10S");
+        }
+
+        public Upstream(String connectTimeout, String readTimeout) {
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+        }
+
+        public String getEngine() {
+            return engine;
+        }
+
+        public void setEngine(String engine) {
+            this.engine = engine;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public String getKeepAlive() {
+            return keepAlive;
+        }
+
+        public String getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(String connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public String getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(String readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+    }
+
+    public static class EuropaCircuitBreaker {
+
+        private boolean enabled = true;
+
+        // number of recent calls that the failure and slow call rates are taken over
+        private int windowSize = 20;
+
+        // calls needed in the window before the breaker can open
+        private int minimumCalls = 10;
+
+        // percentage of calls failing that opens the breaker
+        private double failureRateThreshold = 50;
+
+        // percentage of calls slower than slowCallDuration that opens the breaker
+        private double slowCallRateThreshold = 80;
+
+        private String slowCallDuration = "PT2S";
+
+        // how long the breaker stays open before a trial call is made
+        private String openDuration = "PT30S";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public double getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public String getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public String getOpenDuration() {
+            return openDuration;
+        }
+    }
+
+    public static class TemplatePool {
+
+        // comma separated template file names and pool sizes, e.g. model-tenancy-agreement-2024.docx=2
+        private String sizes = "";
+
+        // templates not listed in sizes are cloned on demand
+        private int defaultSize = 0;
+
+        public String getSizes() {
+            return sizes;
+        }
+
+        public int getDefaultSize() {
+            return defaultSize;
+        }
+    }
+
     public static class FairRentRegister {
         private URI uri = URI.create("https://fairrentapi.systems.gov.scot/");
 
@@ -156,9 +641,10 @@ public class HousingConfiguration {
 
         private String password;
 
-        int connectTimeoutSeconds = 1;
+        // deprecated, use fairRentClient.connectTimeout and readTimeout.  Used when those are left at their defaults
+        private int connectTimeoutSeconds = 0;
 
-        int readTimeoutSeconds = 10;
+        private int readTimeoutSeconds = 0;
 
         public URI getUri() {
             return uri;
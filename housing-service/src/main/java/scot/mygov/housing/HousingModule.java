@@ -1,13 +1,12 @@
 package scot.mygov.housing;
 
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Splitter;
 import dagger.Module;
 import dagger.Provides;
 import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.ClientRequestFilter;
 import jakarta.ws.rs.client.WebTarget;
-import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.jboss.resteasy.client.jaxrs.internal.BasicAuthentication;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,16 +14,22 @@ import scot.mygov.config.Configuration;
 import scot.mygov.documents.DateSwitchingDocumentTemplateLoader;
 import scot.mygov.documents.DocumentGenerator;
 import scot.mygov.documents.DocumentTemplateLoader;
-import scot.mygov.documents.DocumentTemplateLoaderBasicImpl;
+import scot.mygov.documents.DocumentTemplateRegistry;
 import scot.mygov.housing.cpi.CPIService;
 import scot.mygov.housing.europa.Europa;
+import scot.mygov.housing.forms.BlankDocuments;
+import scot.mygov.housing.forms.DocumentBatchRenderer;
 import scot.mygov.housing.forms.DocumentGenerationService;
+import scot.mygov.housing.forms.DocumentRequestExecutor;
 import scot.mygov.housing.forms.PlaceholderProvidingMergingCallback;
 import scot.mygov.housing.forms.RecaptchaCheck;
+import scot.mygov.housing.forms.RenderExecutor;
+import scot.mygov.housing.forms.RenderedDocumentCache;
 import scot.mygov.housing.forms.foreigntraveldeclaration.ForeignTravelDeclarationFieldExtractor;
 import scot.mygov.housing.forms.foreigntraveldeclaration.model.ForeignTravelDeclaration;
 import scot.mygov.housing.forms.modeltenancy.ModelTenancyFieldExtractor;
 import scot.mygov.housing.forms.modeltenancy.ModelTenancyMergingCallback;
+import scot.mygov.housing.forms.modeltenancy.model.DepositSchemeAdministrators;
 import scot.mygov.housing.forms.modeltenancy.model.ModelTenancy;
 import scot.mygov.housing.forms.modeltenancy.validation.ModelTenancyValidatorFactory;
 import scot.mygov.housing.forms.nonprovisionofdocumentation.NonProvisionOfDocumentationFieldExtractor;
@@ -40,7 +45,11 @@ import scot.mygov.housing.forms.rentincreaseforimprovementsnotice.model.RentIncr
 import scot.mygov.housing.forms.rentincreasenotice.RentIncreaseFieldExtractor;
 import scot.mygov.housing.forms.rentincreasenotice.RentIncreaseRPZSectionRemovingCallback;
 import scot.mygov.housing.forms.rentincreasenotice.model.RentIncrease;
+import scot.mygov.housing.postcode.AddressIndexBuilder;
 import scot.mygov.housing.postcode.EuropaPostcodeService;
+import scot.mygov.housing.postcode.Heartbeat;
+import scot.mygov.housing.postcode.IndexedPostcodeService;
+import scot.mygov.housing.postcode.PostcodeBatchLookup;
 import scot.mygov.housing.postcode.PostcodeService;
 import scot.mygov.housing.rpz.RPZService;
 import scot.mygov.housing.rpz.StubRPZService;
@@ -53,10 +62,12 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDate;
-
-import static java.util.concurrent.TimeUnit.MINUTES;
-import static java.util.concurrent.TimeUnit.SECONDS;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
 
 @Module
 public class HousingModule {
@@ -66,9 +77,14 @@ public class HousingModule {
     public static final String EUROPA_TARGET = "europaTarget";
     public static final String FAIR_RENT_TARGET = "fairRentTarget";
 
-    public static final String STANDARD_CLIENT = "standardClient";
+    public static final String EUROPA_CLIENT = "europaClient";
+    public static final String RECAPTCHA_CLIENT = "recaptchaClient";
     public static final String FAIR_RENT_CLIENT = "fairRentClient";
 
+    private static final String EUROPA = "europa";
+    private static final String RECAPTCHA = "recaptcha";
+    private static final String FAIR_RENT = "fair-rent";
+
     private static final String APP_NAME = "housing";
 
     @Provides
@@ -78,12 +94,43 @@ public class HousingModule {
                 .load(new HousingConfiguration(), APP_NAME)
                 .validate();
         LOG.info("{}", configuration);
-        return configuration.getConfiguration();
+        HousingConfiguration housingConfiguration = configuration.getConfiguration();
+        applyDeprecatedSettings(housingConfiguration);
+        return housingConfiguration;
+    }
+
+    /**
+     * Carry settings that have been replaced over to their replacements, unless the replacement has been set.
+     */
+    static void applyDeprecatedSettings(HousingConfiguration configuration) {
+        HousingConfiguration.FairRentRegister fairRentRegister = configuration.getFairRentRegister();
+        HousingConfiguration.Upstream fairRentClient = configuration.getFairRentClient();
+        if (fairRentRegister.getConnectTimeoutSeconds() > 0) {
+            LOG.warn("fairRentRegister_connectTimeoutSeconds is deprecated, use fairRentClient_connectTimeout");
+            if (HousingConfiguration.FAIR_RENT_CONNECT_TIMEOUT.equals(fairRentClient.getConnectTimeout())) {
+                fairRentClient.setConnectTimeout(
+                        Duration.ofSeconds(fairRentRegister.getConnectTimeoutSeconds()).toString());
+            }
+        }
+        if (fairRentRegister.getReadTimeoutSeconds() > 0) {
+            LOG.warn("fairRentRegister_readTimeoutSeconds is deprecated, use fairRentClient_readTimeout");
+            if (HousingConfiguration.FAIR_RENT_READ_TIMEOUT.equals(fairRentClient.getReadTimeout())) {
+                fairRentClient.setReadTimeout(Duration.ofSeconds(fairRentRegister.getReadTimeoutSeconds()).toString());
+            }
+        }
+
+        HousingConfiguration.Probes probes = configuration.getProbes();
+        if (configuration.getHeartbeatMonitoringInterval() > 0) {
+            LOG.warn("heartbeatMonitoringInterval is deprecated, use probes_window");
+            if (HousingConfiguration.PROBE_WINDOW.equals(probes.getWindow())) {
+                probes.setWindow(Duration.ofMinutes(configuration.getHeartbeatMonitoringInterval()).toString());
+            }
+        }
     }
 
     @Provides
     @Named(EUROPA_TARGET)
-    WebTarget europaTarget(@Named(STANDARD_CLIENT) Client client, HousingConfiguration configuration) {
+    WebTarget europaTarget(@Named(EUROPA_CLIENT) Client client, HousingConfiguration configuration) {
         String path = String.format("/%s/os/abpr/address", configuration.getEuropaId());
         return client.target(configuration.getEuropaURI()).path(path);
     }
@@ -96,29 +143,46 @@ public class HousingModule {
     }
 
     @Provides
-    @Named(STANDARD_CLIENT)
     @Singleton
-    Client client() {
-        return ((ResteasyClientBuilder) ClientBuilder.newBuilder())
-                .connectionPoolSize(10)
-                .connectionTTL(1, MINUTES)
-                .connectTimeout(5, SECONDS)
-                .readTimeout(10, SECONDS)
+    JsonCodec jsonCodec(HousingConfiguration configuration) {
+        return new JsonCodec(configuration.isAcceleratedJson());
+    }
+
+    @Provides
+    @Singleton
+    UpstreamClients upstreamClients(MetricRegistry registry) {
+        return new UpstreamClients(registry);
+    }
+
+    @Provides
+    @Named(EUROPA_CLIENT)
+    @Singleton
+    Client europaClient(
+            HousingConfiguration configuration,
+            UpstreamClients clients,
+            ObjectMapperResolver objectMapperResolver) {
+        return clients.builder(EUROPA, configuration.getEuropaClient(), false)
+                .register(objectMapperResolver)
+                .build();
+    }
+
+    @Provides
+    @Named(RECAPTCHA_CLIENT)
+    @Singleton
+    Client recaptchaClient(
+            HousingConfiguration configuration,
+            UpstreamClients clients,
+            ObjectMapperResolver objectMapperResolver) {
+        return clients.builder(RECAPTCHA, configuration.getRecaptchaClient(), false)
+                .register(objectMapperResolver)
                 .build();
     }
 
     @Provides
     @Named(FAIR_RENT_CLIENT)
     @Singleton
-    Client fairRentClient(HousingConfiguration config) {
-        int connectTimeout = config.getFairRentRegister().getConnectTimeoutSeconds();
-        int readTimeout = config.getFairRentRegister().getReadTimeoutSeconds();
-        ResteasyClientBuilder builder =
-                (ResteasyClientBuilder) ResteasyClientBuilder.newBuilder()
-                        .connectTimeout(connectTimeout, SECONDS)
-                        .readTimeout(readTimeout, SECONDS);
-        builder.disableTrustManager();
-        Client client = builder.connectionPoolSize(10).build();
+    Client fairRentClient(HousingConfiguration config, UpstreamClients clients) {
+        Client client = clients.builder(FAIR_RENT, config.getFairRentClient(), true).build();
         String username = config.getFairRentRegister().getUsername();
         String password = config.getFairRentRegister().getPassword();
         ClientRequestFilter basicAuthFilter = new BasicAuthentication(username, password);
@@ -126,6 +190,32 @@ public class HousingModule {
         return client;
     }
 
+    @Provides
+    @Singleton
+    ProbeScheduler probeScheduler(
+            HousingConfiguration configuration,
+            MetricRegistry registry,
+            Europa europa,
+            CPIService cpiService,
+            RecaptchaCheck recaptchaCheck,
+            @Named(FAIR_RENT_TARGET) WebTarget fairRentTarget) {
+        HousingConfiguration.Probes probes = configuration.getProbes();
+        ProbeScheduler scheduler = new ProbeScheduler(Duration.parse(probes.getWindow()), probes.getJitter(), registry);
+        scheduler.register(EUROPA,
+                () -> registry.counter(MetricName.REQUESTS.name(europa)).getCount(),
+                new Heartbeat(europa)::probe);
+        scheduler.register("cpi", cpiService::getFetchCount, cpiService::probe);
+        if (recaptchaCheck.isEnabled()) {
+            scheduler.register(RECAPTCHA, upstreamCalls(registry, RECAPTCHA), recaptchaCheck::probe);
+        }
+        scheduler.register(FAIR_RENT, upstreamCalls(registry, FAIR_RENT), ProbeScheduler.get(fairRentTarget));
+        return scheduler;
+    }
+
+    private static LongSupplier upstreamCalls(MetricRegistry registry, String upstream) {
+        return () -> registry.meter(UpstreamMetrics.name(upstream, MetricName.REQUEST_RATE)).getCount();
+    }
+
     @Provides
     RPZService rpzService() {
         return new StubRPZService();
@@ -139,10 +229,10 @@ public class HousingModule {
 
     @Provides
     @Singleton
-    CPIService cpiService(HousingConfiguration configuration) {
+    CPIService cpiService(HousingConfiguration configuration, JsonCodec codec) {
         URI value = configuration.getCpi().getUrl();
         try {
-            return new CPIService(value.toURL());
+            return new CPIService(value.toURL(), codec, Duration.parse(configuration.getCpi().getTimeout()));
         } catch (MalformedURLException e) {
             throw new IllegalStateException("Failed to load CPI data from url" + value, e);
         }
@@ -150,14 +240,71 @@ public class HousingModule {
 
     @Provides
     @Singleton
-    Europa europa(MetricRegistry registry, @Named(EUROPA_TARGET) WebTarget europaTarget) {
-        return new Europa(europaTarget, registry);
+    Europa europa(
+            MetricRegistry registry,
+            @Named(EUROPA_TARGET) WebTarget europaTarget,
+            JsonCodec codec,
+            HousingConfiguration configuration) {
+        HousingConfiguration.EuropaCircuitBreaker breakerConfig = configuration.getEuropaCircuitBreaker();
+        if (!breakerConfig.isEnabled()) {
+            return new Europa(europaTarget, codec, registry);
+        }
+        CircuitBreaker breaker = new CircuitBreaker(
+                breakerConfig.getWindowSize(),
+                breakerConfig.getMinimumCalls(),
+                breakerConfig.getFailureRateThreshold(),
+                breakerConfig.getSlowCallRateThreshold(),
+                Duration.parse(breakerConfig.getSlowCallDuration()),
+                Duration.parse(breakerConfig.getOpenDuration()));
+        return new Europa(europaTarget, codec, registry, breaker);
     }
 
 
     @Provides
-    PostcodeService postcodeService(Europa europa) {
-        return new EuropaPostcodeService(europa);
+    @Singleton
+    PostcodeService postcodeService(
+            Europa europa,
+            HousingConfiguration configuration,
+            MetricRegistry registry,
+            JsonCodec codec) {
+        HousingConfiguration.PostcodeCache cacheConfig = configuration.getPostcodeCache();
+        PostcodeService europaService = cacheConfig.isEnabled()
+                ? new EuropaPostcodeService(europa, cacheConfig, registry)
+                : new EuropaPostcodeService(europa);
+
+        HousingConfiguration.AddressIndex indexConfig = configuration.getAddressIndex();
+        if (!indexConfig.isEnabled()) {
+            return europaService;
+        }
+        return new IndexedPostcodeService(
+                Paths.get(indexConfig.getPath()),
+                indexConfig.getSource() == null ? null : Paths.get(indexConfig.getSource()),
+                new AddressIndexBuilder(codec),
+                europaService,
+                registry);
+    }
+
+    @Provides
+    @Singleton
+    PostcodeBatchLookup postcodeBatchLookup(
+            PostcodeService postcodeService,
+            HousingConfiguration configuration,
+            MetricRegistry registry) {
+        HousingConfiguration.PostcodeBatch batch = configuration.getPostcodeBatch();
+        return new PostcodeBatchLookup(
+                postcodeService,
+                batch.getConcurrency(),
+                batch.getQueueSize(),
+                batch.getMaxKeys(),
+                Duration.parse(batch.getTimeout()),
+                registry);
+    }
+
+    @Provides
+    @Singleton
+    BasicAuthCheck postcodeBatchAuthCheck(HousingConfiguration configuration) {
+        HousingConfiguration.PostcodeBatch batch = configuration.getPostcodeBatch();
+        return new BasicAuthCheck(batch.getUsername(), batch.getPassword());
     }
 
     @Provides
@@ -166,11 +313,94 @@ public class HousingModule {
         return new MetricRegistry();
     }
 
+    @Provides
+    @Singleton
+    DocumentTemplateRegistry templateRegistry(
+            HousingConfiguration configuration,
+            AsposeLicense asposeLicense,
+            MetricRegistry metricRegistry) {
+        HousingConfiguration.TemplatePool pool = configuration.getTemplatePool();
+        Map<String, Integer> sizes = new HashMap<>();
+        Splitter.on(',').trimResults().omitEmptyStrings().withKeyValueSeparator('=').split(pool.getSizes())
+                .forEach((template, size) -> sizes.put(template, Integer.parseInt(size.trim())));
+        return new DocumentTemplateRegistry(
+                asposeLicense,
+                sizes,
+                pool.getDefaultSize(),
+                Duration.parse(configuration.getTemplatePrewarmLead()),
+                metricRegistry);
+    }
+
+    @Provides
+    @Singleton
+    RenderExecutor renderExecutor(HousingConfiguration configuration, MetricRegistry metricRegistry) {
+        HousingConfiguration.Render render = configuration.getRender();
+        return new RenderExecutor(
+                render.getThreads(),
+                render.getQueueSize(),
+                render.getRetryAfterSeconds(),
+                metricRegistry);
+    }
+
+    @Provides
+    @Singleton
+    DocumentRequestExecutor documentRequestExecutor(HousingConfiguration configuration, MetricRegistry metricRegistry) {
+        HousingConfiguration.Render render = configuration.getRender();
+        if (VirtualThreads.enabled(configuration.isVirtualThreads())) {
+            // a thread per request, admitting as many as the pool would have running and queued
+            return new DocumentRequestExecutor(
+                    render.getRequestThreads() + render.getRequestQueueSize(),
+                    render.getRequestTimeoutSeconds(),
+                    render.getRetryAfterSeconds(),
+                    VirtualThreads.executor("document-request-"),
+                    metricRegistry);
+        }
+        return new DocumentRequestExecutor(
+                render.getRequestThreads(),
+                render.getRequestQueueSize(),
+                render.getRequestTimeoutSeconds(),
+                render.getRetryAfterSeconds(),
+                metricRegistry);
+    }
+
+    @Provides
+    @Singleton
+    DocumentBatchRenderer documentBatchRenderer(
+            HousingConfiguration configuration,
+            JsonCodec codec,
+            MetricRegistry metricRegistry) {
+        HousingConfiguration.Render render = configuration.getRender();
+        return new DocumentBatchRenderer(
+                render.getBatchThreads(),
+                render.getBatchQueueSize(),
+                render.getBatchMaxDocuments(),
+                render.getBatchMaxUnwritten(),
+                Duration.parse(render.getBatchTimeout()),
+                render.getRetryAfterSeconds(),
+                codec,
+                metricRegistry);
+    }
+
+    @Provides
+    @Singleton
+    RenderedDocumentCache renderedDocumentCache(
+            HousingConfiguration configuration,
+            JsonCodec codec,
+            MetricRegistry metricRegistry) {
+        HousingConfiguration.DocumentCache cache = configuration.getDocumentCache();
+        long maxBytes = cache.isEnabled() ? cache.getMaxBytes() : 0;
+        return new RenderedDocumentCache(maxBytes, codec, metricRegistry);
+    }
+
     @Provides
     @Singleton
     DocumentGenerationService<ModelTenancy> modelTenancyDocumentGenerationService(
             HousingConfiguration config,
-            AsposeLicense asposeLicense,
+            DocumentTemplateRegistry templateRegistry,
+            RenderExecutor renderExecutor,
+            RenderedDocumentCache renderedDocumentCache,
+            DepositSchemeAdministrators depositSchemeAdministrators,
+            JsonCodec codec,
             MetricRegistry metricRegistry) {
 
         DateSwitchingDocumentTemplateLoader templateLoader = new DateSwitchingDocumentTemplateLoader();
@@ -178,44 +408,72 @@ public class HousingModule {
 
         templateLoader.addDocument(
             LocalDate.of(2010, 1, 1),
-            new DocumentTemplateLoaderBasicImpl("/templates/model-tenancy-agreement.docx", asposeLicense));
+            templateRegistry.loader("/templates/model-tenancy-agreement.docx"));
         templateLoader.addDocument(
             legislationChangeDate2024,
-            new DocumentTemplateLoaderBasicImpl("/templates/model-tenancy-agreement-2024.docx", asposeLicense));
+            templateRegistry.loader("/templates/model-tenancy-agreement-2024.docx"));
+        templateRegistry.schedule(templateLoader);
 
         return  new DocumentGenerationService<>(
                 new DocumentGenerator(templateLoader),
-                new ModelTenancyFieldExtractor(),
+                new ModelTenancyFieldExtractor(depositSchemeAdministrators),
                 ModelTenancyMergingCallback::new,
+                renderExecutor,
+                renderedDocumentCache,
+                new BlankDocuments<>("modelTenancy", ModelTenancy::new, codec, metricRegistry),
+                "modelTenancy",
                 metricRegistry);
     }
 
     @Provides
+    @Singleton
     DocumentGenerationService<RentAdjudication> rentAdjudicationDocumentGenerationService(
-            AsposeLicense asposeLicense,
+            DocumentTemplateRegistry templateRegistry,
+            RenderExecutor renderExecutor,
+            RenderedDocumentCache renderedDocumentCache,
             MetricRegistry metricRegistry) {
 
         DocumentTemplateLoader templateLoader
-                = new DocumentTemplateLoaderBasicImpl("/templates/rent-adjudication.docx", asposeLicense);
+                = templateRegistry.loader("/templates/rent-adjudication.docx");
         return new DocumentGenerationService<>(
-                new DocumentGenerator(templateLoader), new RentAdjudicationFieldExtractor(),metricRegistry);
+                new DocumentGenerator(templateLoader),
+                new RentAdjudicationFieldExtractor(),
+                null,
+                renderExecutor,
+                renderedDocumentCache,
+                null,
+                "rentAdjudication",
+                metricRegistry);
     }
 
     @Provides
+    @Singleton
     DocumentGenerationService<ForeignTravelDeclaration> foreignTravelDeclarationDocumentGenerationService(
-            AsposeLicense asposeLicense,
+            DocumentTemplateRegistry templateRegistry,
+            RenderExecutor renderExecutor,
+            RenderedDocumentCache renderedDocumentCache,
             MetricRegistry metricRegistry) {
 
         DocumentTemplateLoader templateLoader
-                = new DocumentTemplateLoaderBasicImpl("/templates/travel-declaration.docx", asposeLicense);
+                = templateRegistry.loader("/templates/travel-declaration.docx");
         return new DocumentGenerationService<>(
-                new DocumentGenerator(templateLoader), new ForeignTravelDeclarationFieldExtractor(), metricRegistry);
+                new DocumentGenerator(templateLoader),
+                new ForeignTravelDeclarationFieldExtractor(),
+                null,
+                renderExecutor,
+                renderedDocumentCache,
+                null,
+                "foreignTravelDeclaration",
+                metricRegistry);
     }
 
     @Provides
+    @Singleton
     DocumentGenerationService<RentIncrease> rentIncreaseDocumentGenerationService(
             HousingConfiguration config,
-            AsposeLicense asposeLicense,
+            DocumentTemplateRegistry templateRegistry,
+            RenderExecutor renderExecutor,
+            RenderedDocumentCache renderedDocumentCache,
             MetricRegistry metricRegistry) {
 
         DateSwitchingDocumentTemplateLoader templateLoader = new DateSwitchingDocumentTemplateLoader();
@@ -224,52 +482,78 @@ public class HousingModule {
 
         templateLoader.addDocument(
             LocalDate.of(2010, 1, 1),
-            new DocumentTemplateLoaderBasicImpl("/templates/rent-increase.docx", asposeLicense));
+            templateRegistry.loader("/templates/rent-increase.docx"));
         templateLoader.addDocument(
             legislationChangeDate2023,
-            new DocumentTemplateLoaderBasicImpl("/templates/rent-increase-2023.docx", asposeLicense));
+            templateRegistry.loader("/templates/rent-increase-2023.docx"));
         templateLoader.addDocument(
             legislationChangeDate2024,
-            new DocumentTemplateLoaderBasicImpl("/templates/rent-increase-2024.docx", asposeLicense));
+            templateRegistry.loader("/templates/rent-increase-2024.docx"));
+        templateRegistry.schedule(templateLoader);
 
         return  new DocumentGenerationService<>(
                 new DocumentGenerator(templateLoader),
                 new RentIncreaseFieldExtractor(),
                 form -> new RentIncreaseRPZSectionRemovingCallback(),
+                renderExecutor,
+                renderedDocumentCache,
+                null,
+                "rentIncrease",
                 metricRegistry);
     }
 
     @Provides
+    @Singleton
     DocumentGenerationService<RentIncreaseForImprovements> rentIncreaseForImprovementsDocumentGenerationService(
-            AsposeLicense asposeLicense,
+            DocumentTemplateRegistry templateRegistry,
+            RenderExecutor renderExecutor,
+            RenderedDocumentCache renderedDocumentCache,
+            JsonCodec codec,
             MetricRegistry metricRegistry) {
 
         DocumentTemplateLoader templateLoader
-                = new DocumentTemplateLoaderBasicImpl("/templates/rent-increase-for-improvements.docx", asposeLicense);
+                = templateRegistry.loader("/templates/rent-increase-for-improvements.docx");
         return  new DocumentGenerationService<>(
                 new DocumentGenerator(templateLoader),
                 new RentIncreaseForImprovementsFieldExtractor(),
-                form -> new PlaceholderProvidingMergingCallback(RentIncreaseForImprovementsPlaceholders.placeholders()),
+                PlaceholderProvidingMergingCallback.shared(RentIncreaseForImprovementsPlaceholders.placeholders()),
+                renderExecutor,
+                renderedDocumentCache,
+                new BlankDocuments<>(
+                        "rentIncreaseForImprovements", RentIncreaseForImprovements::new, codec, metricRegistry),
+                "rentIncreaseForImprovements",
                 metricRegistry);
     }
 
     @Provides
+    @Singleton
     DocumentGenerationService<NonProvisionOfDocumentation> nonProvisionOfDocumentationDocumentGenerationService(
-            AsposeLicense asposeLicense,
+            DocumentTemplateRegistry templateRegistry,
+            RenderExecutor renderExecutor,
+            RenderedDocumentCache renderedDocumentCache,
             MetricRegistry metricRegistry) {
 
         DocumentTemplateLoader templateLoader
-                = new DocumentTemplateLoaderBasicImpl("/templates/non-provision-of-documentation.docx", asposeLicense);
+                = templateRegistry.loader("/templates/non-provision-of-documentation.docx");
         return  new DocumentGenerationService<>(
                     new DocumentGenerator(templateLoader),
                     new NonProvisionOfDocumentationFieldExtractor(),
+                    null,
+                    renderExecutor,
+                    renderedDocumentCache,
+                    null,
+                    "nonProvisionOfDocumentation",
                     metricRegistry);
     }
 
     @Provides
+    @Singleton
     DocumentGenerationService<NoticeToLeave> noticeToLeaveDocumentGenerationService(
             HousingConfiguration config,
-            AsposeLicense asposeLicense,
+            DocumentTemplateRegistry templateRegistry,
+            RenderExecutor renderExecutor,
+            RenderedDocumentCache renderedDocumentCache,
+            JsonCodec codec,
             MetricRegistry metricRegistry) {
 
         DateSwitchingDocumentTemplateLoader templateLoader = new DateSwitchingDocumentTemplateLoader();
@@ -277,23 +561,32 @@ public class HousingModule {
 
         templateLoader.addDocument(
             LocalDate.of(2010, 1, 1),
-            new DocumentTemplateLoaderBasicImpl("/templates/notice-to-leave.docx", asposeLicense));
+            templateRegistry.loader("/templates/notice-to-leave.docx"));
         templateLoader.addDocument(
             legislationChangeDate2024,
-            new DocumentTemplateLoaderBasicImpl("/templates/notice-to-leave-2024.docx", asposeLicense));
+            templateRegistry.loader("/templates/notice-to-leave-2024.docx"));
+        templateRegistry.schedule(templateLoader);
 
         return  new DocumentGenerationService<>(
                 new DocumentGenerator(templateLoader),
                 new NoticeToLeaveFieldExtractor(),
-                form -> new PlaceholderProvidingMergingCallback(NoticeToLeavePlaceholders.placeholders()),
+                PlaceholderProvidingMergingCallback.shared(NoticeToLeavePlaceholders.placeholders()),
+                renderExecutor,
+                renderedDocumentCache,
+                new BlankDocuments<>("noticeToLeave", NoticeToLeave::new, codec, metricRegistry),
+                "noticeToLeave",
                 metricRegistry);
     }
 
     @Named("subtenantNoticeToLeaveDocumentGenerationService")
     @Provides
+    @Singleton
     DocumentGenerationService<NoticeToLeave> subtenantNoticeToLeaveDocumentGenerationService(
             HousingConfiguration config,
-            AsposeLicense asposeLicense,
+            DocumentTemplateRegistry templateRegistry,
+            RenderExecutor renderExecutor,
+            RenderedDocumentCache renderedDocumentCache,
+            JsonCodec codec,
             MetricRegistry metricRegistry) {
 
         DateSwitchingDocumentTemplateLoader templateLoader = new DateSwitchingDocumentTemplateLoader();
@@ -301,20 +594,25 @@ public class HousingModule {
 
         templateLoader.addDocument(
             LocalDate.of(2010, 1, 1),
-            new DocumentTemplateLoaderBasicImpl("/templates/subtenant-notice-to-leave.docx", asposeLicense));
+            templateRegistry.loader("/templates/subtenant-notice-to-leave.docx"));
         templateLoader.addDocument(
             legislationChangeDate2024,
-            new DocumentTemplateLoaderBasicImpl("/templates/subtenant-notice-to-leave-2024.docx", asposeLicense));
+            templateRegistry.loader("/templates/subtenant-notice-to-leave-2024.docx"));
+        templateRegistry.schedule(templateLoader);
 
         return  new DocumentGenerationService<>(
                 new DocumentGenerator(templateLoader),
                 new NoticeToLeaveFieldExtractor(),
-                form -> new PlaceholderProvidingMergingCallback(NoticeToLeavePlaceholders.placeholders()),
+                PlaceholderProvidingMergingCallback.shared(NoticeToLeavePlaceholders.placeholders()),
+                renderExecutor,
+                renderedDocumentCache,
+                new BlankDocuments<>("subtenantNoticeToLeave", NoticeToLeave::new, codec, metricRegistry),
+                "subtenantNoticeToLeave",
                 metricRegistry);
     }
 
     @Provides
-    RecaptchaCheck recaptchaCheck(HousingConfiguration configuration, @Named(STANDARD_CLIENT) Client client) {
+    RecaptchaCheck recaptchaCheck(HousingConfiguration configuration, @Named(RECAPTCHA_CLIENT) Client client) {
         HousingConfiguration.Recaptcha recaptchaConfig = configuration.getRecaptcha();
         WebTarget verifyTarget = client.target(HousingConfiguration.Recaptcha.RECAPTCHA_VERIFY_URL);
         return new RecaptchaCheck(
@@ -324,8 +622,14 @@ public class HousingModule {
     }
 
     @Provides
-    Validator<ModelTenancy> modelTenancyValidator() {
-        return new ModelTenancyValidatorFactory().validator(false);
+    @Singleton
+    DepositSchemeAdministrators depositSchemeAdministrators(JsonCodec codec) {
+        return new DepositSchemeAdministrators(codec);
+    }
+
+    @Provides
+    Validator<ModelTenancy> modelTenancyValidator(DepositSchemeAdministrators depositSchemeAdministrators) {
+        return new ModelTenancyValidatorFactory(depositSchemeAdministrators).validator(false);
     }
 
     @Provides
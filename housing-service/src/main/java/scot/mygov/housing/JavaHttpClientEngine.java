@@ -0,0 +1,512 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.Meter;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.client.InvocationCallback;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.client.jaxrs.engines.AsyncClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.internal.ClientConfiguration;
+import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
+import org.jboss.resteasy.client.jaxrs.internal.ClientResponse;
+import org.jboss.resteasy.tracing.RESTEasyTracingLogger;
+import org.jboss.resteasy.util.CaseInsensitiveMap;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RESTEasy client engine on the JDK HttpClient, which uses HTTP/2 where the upstream offers it and does its I/O
+ * asynchronously, so an async invocation does not hold a thread while it waits for the upstream.
+ *
+ * The JDK client does not limit its connections, so at most maxConcurrent requests are in flight at once.  A blocking
+ * request waits up to acquireTimeout for another to finish and otherwise fails.  An async request fails straight away
+ * if there is no free place, so that it never holds the calling thread.  Each request keeps its place until its
+ * response is closed or its body has been read or closed.  readTimeout is how long to wait for the response headers,
+ * and then how long the whole body may take once they have arrived: a read still waiting at that deadline fails and
+ * the request gives up its place, however the upstream stalls.
+ */
+public class JavaHttpClientEngine implements AsyncClientHttpEngine {
+
+    // headers the JDK client sets itself and will not accept from the caller
+    private static final Set<String> RESTRICTED_HEADERS =
+            Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient client;
+
+    private final ExecutorService executor;
+
+    private final int maxConcurrent;
+
+    private final Semaphore permits;
+
+    private final Duration readTimeout;
+
+    private final Duration acquireTimeout;
+
+    private final Meter rejectionMeter;
+
+    private final Meter errorMeter;
+
+    /**
+     * @param executor the executor the client was built with, used to read async responses and shut down on close
+     */
+    public JavaHttpClientEngine(
+            HttpClient client,
+            ExecutorService executor,
+            int maxConcurrent,
+            Duration readTimeout,
+            Duration acquireTimeout,
+            Meter rejectionMeter,
+            Meter errorMeter) {
+        this.client = client;
+        this.executor = executor;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.readTimeout = readTimeout;
+        this.acquireTimeout = acquireTimeout;
+        this.rejectionMeter = rejectionMeter;
+        this.errorMeter = errorMeter;
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    @Override
+    public Response invoke(Invocation invocation) {
+        ClientInvocation request = (ClientInvocation) invocation;
+        HttpRequest httpRequest = httpRequest(request);
+        Permit permit = acquire();
+        try {
+            return response(request, client.send(httpRequest, bodyHandler()), permit);
+        } catch (IOException e) {
+            throw failed(permit, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failed(permit, e);
+        }
+    }
+
+    @Override
+    public <T> Future<T> submit(
+            ClientInvocation request,
+            boolean buffered,
+            InvocationCallback<T> callback,
+            ResultExtractor<T> extractor) {
+        CompletableFuture<T> future = submit(request, buffered, extractor, null);
+        if (callback != null) {
+            future.whenComplete((result, failure) -> {
+                if (failure == null) {
+                    callback.completed(result);
+                } else {
+                    callback.failed(unwrap(failure));
+                }
+            });
+        }
+        return future;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(
+            ClientInvocation request,
+            boolean buffered,
+            ResultExtractor<T> extractor,
+            ExecutorService executorService) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = httpRequest(request);
+        } catch (ProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!permits.tryAcquire()) {
+            rejectionMeter.mark();
+            return CompletableFuture.failedFuture(new ProcessingException("No connection available"));
+        }
+        Permit permit = new Permit();
+
+        // the result is extracted on another thread as reading the body blocks until it arrives
+        return client.sendAsync(httpRequest, bodyHandler())
+                .handleAsync((httpResponse, failure) -> {
+                    if (failure != null) {
+                        throw failed(permit, unwrap(failure));
+                    }
+                    ClientResponse response = response(request, httpResponse, permit);
+                    if (buffered) {
+                        response.bufferEntity();
+                    }
+                    return extractor.extractResult(response);
+                }, executorService != null ? executorService : executor);
+    }
+
+    @Override
+    public SSLContext getSslContext() {
+        return client.sslContext();
+    }
+
+    @Override
+    public HostnameVerifier getHostnameVerifier() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private HttpRequest httpRequest(ClientInvocation request) {
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+        if (request.getEntity() != null) {
+            // written first as the writer may add headers
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                request.writeRequestBody(out);
+            } catch (IOException e) {
+                throw new ProcessingException("Failed to write request body", e);
+            }
+            body = HttpRequest.BodyPublishers.ofByteArray(out.toByteArray());
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri()).timeout(readTimeout);
+        request.getHeaders().asMap().forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        return builder.method(request.getMethod(), body).build();
+    }
+
+    private HttpResponse.BodyHandler<InputStream> bodyHandler() {
+        // called once the headers have arrived, so the body's deadline starts from then
+        return responseInfo -> new DeadlineBodyStream(readTimeout);
+    }
+
+    private Permit acquire() {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException(e);
+        }
+        if (!acquired) {
+            rejectionMeter.mark();
+            throw new ProcessingException("No connection available within " + acquireTimeout);
+        }
+        return new Permit();
+    }
+
+    private ProcessingException failed(Permit permit, Throwable cause) {
+        permit.release();
+        errorMeter.mark();
+        return cause instanceof ProcessingException
+                ? (ProcessingException) cause
+                : new ProcessingException("Unable to invoke request: " + cause, cause);
+    }
+
+    private ClientResponse response(ClientInvocation request, HttpResponse<InputStream> httpResponse, Permit permit) {
+        MultivaluedMap<String, String> headers = new CaseInsensitiveMap<>();
+        httpResponse.headers().map().forEach((name, values) -> {
+            // leave out HTTP/2 pseudo headers
+            if (!name.startsWith(":")) {
+                headers.addAll(name, values);
+            }
+        });
+
+        JavaHttpClientResponse response =
+                new JavaHttpClientResponse(request.getClientConfiguration(), request.getTracingLogger(), permit);
+        response.setProperties(request.getMutableProperties());
+        response.setStatus(httpResponse.statusCode());
+        response.setHeaders(headers);
+        response.setInputStream(new PermitReleasingInputStream(httpResponse.body(), permit));
+        return response;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * A request's place, given up once only however many times release is called.
+     */
+    private class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Gives up the request's place once the body has been closed, which RESTEasy does after reading an entity and
+     * callers do for an InputStream entity, or once a read has failed, as nothing more will come of the body then.
+     */
+    private static class PermitReleasingInputStream extends FilterInputStream {
+
+        private final Permit permit;
+
+        PermitReleasingInputStream(InputStream in, Permit permit) {
+            super(in);
+            this.permit = permit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                permit.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                permit.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                permit.release();
+            }
+        }
+    }
+
+    /**
+     * The response body as a stream whose reads fail once the deadline has passed.  The JDK's own body stream blocks
+     * for as long as the upstream keeps the connection open, and closing it does not wake a read that is waiting.
+     * One list of buffers is requested at a time, so an unread body is held back by the connection's flow control.
+     */
+    private static class DeadlineBodyStream extends InputStream implements HttpResponse.BodySubscriber<InputStream> {
+
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+
+        private final CompletableFuture<InputStream> body = CompletableFuture.completedFuture(this);
+
+        private final Duration timeout;
+
+        private final long deadline;
+
+        private volatile Flow.Subscription subscription;
+
+        private volatile boolean closed;
+
+        private Iterator<ByteBuffer> buffers = List.<ByteBuffer>of().iterator();
+
+        private ByteBuffer current;
+
+        private boolean ended;
+
+        DeadlineBodyStream(Duration timeout) {
+            this.timeout = timeout;
+            this.deadline = System.nanoTime() + timeout.toNanos();
+        }
+
+        @Override
+        public CompletableFuture<InputStream> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (closed) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            received.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            received.add(END);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? current.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, current.remaining());
+            current.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return current == null ? 0 : current.remaining();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            Flow.Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+        }
+
+        /**
+         * Waits until there is something to read, returning false at the end of the body.
+         */
+        @SuppressWarnings("unchecked")
+        private boolean fill() throws IOException {
+            while (current == null || !current.hasRemaining()) {
+                if (closed) {
+                    throw new IOException("Response body closed");
+                }
+                if (buffers.hasNext()) {
+                    current = buffers.next();
+                    continue;
+                }
+                if (ended) {
+                    return false;
+                }
+                Object item = poll();
+                if (item == null) {
+                    close();
+                    throw new HttpTimeoutException("Response body not read within " + timeout);
+                }
+                if (item == END) {
+                    ended = true;
+                } else if (item instanceof Throwable) {
+                    ended = true;
+                    throw new IOException("Failed to read response body", (Throwable) item);
+                } else {
+                    buffers = ((List<ByteBuffer>) item).iterator();
+                    subscription.request(1);
+                }
+            }
+            return true;
+        }
+
+        private Object poll() throws InterruptedIOException {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return received.poll();
+            }
+            try {
+                return received.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted reading response body");
+            }
+        }
+    }
+
+    /**
+     * Gives up the request's place when the response is closed, whether or not its body was ever read.
+     */
+    private static class JavaHttpClientResponse extends ClientResponse {
+
+        private final Permit permit;
+
+        private InputStream stream;
+
+        JavaHttpClientResponse(
+                ClientConfiguration configuration,
+                RESTEasyTracingLogger tracingLogger,
+                Permit permit) {
+            super(configuration, tracingLogger);
+            this.permit = permit;
+        }
+
+        @Override
+        protected InputStream getInputStream() {
+            return stream;
+        }
+
+        @Override
+        protected void setInputStream(InputStream stream) {
+            this.stream = stream;
+            resetEntity();
+        }
+
+        @Override
+        public void releaseConnection() throws IOException {
+            releaseConnection(false);
+        }
+
+        @Override
+        public void releaseConnection(boolean consumeInputStream) throws IOException {
+            try {
+                if (stream == null) {
+                    return;
+                }
+                if (consumeInputStream) {
+                    // read to the end so that an HTTP/1.1 connection can be used again
+                    stream.transferTo(OutputStream.nullOutputStream());
+                }
+                stream.close();
+            } finally {
+                permit.release();
+            }
+        }
+    }
+}
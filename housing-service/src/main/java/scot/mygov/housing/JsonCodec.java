@@ -0,0 +1,119 @@
+package scot.mygov.housing;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The one ObjectMapper used by the service, for request bodies, responses and upstream data alike.
+ *
+ * Readers are built once for each type and reused, since an ObjectReader is immutable and cheap to share between
+ * threads.  When accelerated, the Blackbird module replaces reflective property access with generated lambdas.
+ *
+ * The canonical form of a value is written with its properties and map entries sorted, so that equal values always
+ * give the same bytes.  It is made from the same mapper, so dates and numbers are handled as they are when parsing.
+ */
+public class JsonCodec {
+
+    private static final JsonCodec DEFAULT = new JsonCodec(false);
+
+    private final ObjectMapper mapper;
+
+    private final ObjectWriter writer;
+
+    private final ObjectMapper canonicalMapper;
+
+    private final ObjectWriter canonicalWriter;
+
+    private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public JsonCodec(boolean accelerated) {
+        JsonMapper.Builder builder = JsonMapper.builder().addModule(new JavaTimeModule());
+        if (accelerated) {
+            builder.addModule(new BlackbirdModule());
+        }
+        JsonMapper jsonMapper = builder.build();
+        this.mapper = jsonMapper;
+        this.writer = mapper.writer();
+        this.canonicalMapper = jsonMapper.rebuild()
+                .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .build();
+        this.canonicalWriter = canonicalMapper.writer();
+    }
+
+    /**
+     * A plain codec for code that is constructed without one, such as in tests.
+     */
+    public static JsonCodec defaultCodec() {
+        return DEFAULT;
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    public ObjectWriter writer() {
+        return writer;
+    }
+
+    /**
+     * Writes values, including trees from {@link #canonicalTree}, in their canonical form.
+     */
+    public ObjectWriter canonicalWriter() {
+        return canonicalWriter;
+    }
+
+    /**
+     * The value as a JSON tree with its properties and map entries sorted.
+     */
+    public JsonNode canonicalTree(Object value) {
+        return canonicalMapper.valueToTree(value);
+    }
+
+    public ObjectReader reader(Class<?> type) {
+        return reader(mapper.constructType(type));
+    }
+
+    public ObjectReader listReader(Class<?> elementType) {
+        return reader(mapper.getTypeFactory().constructCollectionType(List.class, elementType));
+    }
+
+    private ObjectReader reader(JavaType type) {
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    public <T> T read(InputStream in, Class<T> type) throws IOException {
+        return reader(type).readValue(in);
+    }
+
+    public <T> T read(URL url, Class<T> type) throws IOException {
+        return reader(type).readValue(url);
+    }
+
+    public <T> List<T> readList(String json, Class<T> elementType) throws IOException {
+        return listReader(elementType).readValue(json);
+    }
+
+    public <T> List<T> readList(InputStream in, Class<T> elementType) throws IOException {
+        return listReader(elementType).readValue(in);
+    }
+
+    public <T> T treeToValue(JsonNode node, Class<T> type) throws IOException {
+        return reader(type).readValue(node);
+    }
+}
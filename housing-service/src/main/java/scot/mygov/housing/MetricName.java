@@ -8,7 +8,27 @@ public enum MetricName {
     REQUESTS("requests"),
     ERRORS("errors"),
     REQUEST_RATE("request-rate"),
-    ERROR_RATE("error-rate");
+    ERROR_RATE("error-rate"),
+    QUEUE_DEPTH("queue-depth"),
+    QUEUE_WAIT_TIMES("queue-wait-times"),
+    REJECTIONS("rejections"),
+    HITS("hits"),
+    MISSES("misses"),
+    EVICTIONS("evictions"),
+    SIZE_BYTES("size-bytes"),
+    SIZE("size"),
+    REFILL_LAG("refill-lag"),
+    LOAD_TIME("load-time"),
+    ALLOCATED_BYTES("allocated-bytes"),
+    STAGE_TIMES("stage-times"),
+    TIMEOUTS("timeouts"),
+    HIT_RATIO("hit-ratio"),
+    COALESCED("coalesced"),
+    CIRCUIT_STATE("circuit-state"),
+    IN_FLIGHT("in-flight"),
+    PROBE_TIMES("probe-times"),
+    PROBE_ERRORS("probe-errors"),
+    SKIPPED("skipped");
 
     private final String metricName;
 
@@ -0,0 +1,26 @@
+package scot.mygov.housing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.ext.ContextResolver;
+import jakarta.ws.rs.ext.Provider;
+
+import javax.inject.Inject;
+
+/**
+ * Gives the JAX-RS Jackson provider, on the server and on the upstream clients, the mapper from the JsonCodec.
+ */
+@Provider
+public class ObjectMapperResolver implements ContextResolver<ObjectMapper> {
+
+    private final ObjectMapper mapper;
+
+    @Inject
+    public ObjectMapperResolver(JsonCodec codec) {
+        this.mapper = codec.getMapper();
+    }
+
+    @Override
+    public ObjectMapper getContext(Class<?> type) {
+        return mapper;
+    }
+}
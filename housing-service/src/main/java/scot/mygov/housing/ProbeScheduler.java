@@ -0,0 +1,163 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Calls each upstream service now and then so that its metrics stay fresh, but only when nothing else has called it.
+ *
+ * Each upstream is checked once a window, give or take a random jitter so that the probes from several instances do
+ * not line up.  If the upstream has been called since the last check the probe is skipped, so an upstream with real
+ * traffic is never probed.  Probe response times go in a timer of their own, named after the upstream, e.g.
+ * scot.mygov.housing.ProbeScheduler.europa.probe-times, and failed probes are counted in probe-errors.
+ */
+public class ProbeScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProbeScheduler.class);
+
+    @FunctionalInterface
+    public interface Probe {
+        void probe() throws Exception;
+    }
+
+    private final long windowNanos;
+
+    private final double jitter;
+
+    private final MetricRegistry registry;
+
+    private final Random random;
+
+    private final List<Target> targets = new ArrayList<>();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param jitter fraction of the window that each check may be made early or late by
+     */
+    public ProbeScheduler(Duration window, double jitter, MetricRegistry registry) {
+        this(window, jitter, registry, new Random());
+    }
+
+    ProbeScheduler(Duration window, double jitter, MetricRegistry registry, Random random) {
+        this.windowNanos = window.toNanos();
+        this.jitter = jitter;
+        this.registry = registry;
+        this.random = random;
+    }
+
+    /**
+     * @param calls the number of calls made to the upstream so far, probes included
+     */
+    public void register(String upstream, LongSupplier calls, Probe probe) {
+        targets.add(new Target(upstream, calls, probe));
+    }
+
+    public void start(ScheduledExecutorService executor) {
+        this.executor = executor;
+        targets.forEach(this::schedule);
+    }
+
+    /**
+     * Probes an upstream with a GET, taking any response other than a server error to mean that it is up.
+     */
+    public static Probe get(WebTarget target) {
+        return () -> {
+            try (Response response = target.request().get()) {
+                if (response.getStatus() >= 500) {
+                    throw new IOException("Probe of " + target.getUri() + " returned " + response.getStatus());
+                }
+            }
+        };
+    }
+
+    public static String name(String upstream, MetricName metric) {
+        return MetricRegistry.name(ProbeScheduler.class, upstream, metric.getMetricName());
+    }
+
+    List<Target> getTargets() {
+        return targets;
+    }
+
+    long nextDelay() {
+        double offset = (random.nextDouble() * 2 - 1) * jitter;
+        return Math.max(0, (long) (windowNanos * (1 + offset)));
+    }
+
+    private void schedule(Target target) {
+        executor.schedule(() -> {
+            try {
+                target.check();
+            } finally {
+                schedule(target);
+            }
+        }, nextDelay(), TimeUnit.NANOSECONDS);
+    }
+
+    class Target {
+
+        private final String upstream;
+
+        private final LongSupplier calls;
+
+        private final Probe probe;
+
+        private final Timer probeTimes;
+
+        private final Meter probeErrors;
+
+        private final Meter skipped;
+
+        private long lastCalls;
+
+        Target(String upstream, LongSupplier calls, Probe probe) {
+            this.upstream = upstream;
+            this.calls = calls;
+            this.probe = probe;
+            this.probeTimes = registry.timer(name(upstream, MetricName.PROBE_TIMES));
+            this.probeErrors = registry.meter(name(upstream, MetricName.PROBE_ERRORS));
+            this.skipped = registry.meter(name(upstream, MetricName.SKIPPED));
+            this.lastCalls = calls.getAsLong();
+        }
+
+        /**
+         * @return true if the upstream was probed
+         */
+        boolean check() {
+            long current = calls.getAsLong();
+            if (current != lastCalls) {
+                lastCalls = current;
+                skipped.mark();
+                return false;
+            }
+
+            Timer.Context timer = probeTimes.time();
+            try {
+                probe.probe();
+            } catch (Exception e) {
+                probeErrors.mark();
+                LOG.warn("Probe of {} failed", upstream, e);
+            } finally {
+                timer.stop();
+            }
+
+            // the probe's own calls are not traffic
+            lastCalls = calls.getAsLong();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package scot.mygov.housing;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import scot.mygov.housing.forms.RenderRejectedException;
+
+import javax.inject.Inject;
+
+public class RenderRejectedExceptionHandler implements ExceptionMapper<RenderRejectedException> {
+
+    @Inject
+    public RenderRejectedExceptionHandler() {
+        // Default constructor
+    }
+
+    @Override
+    public Response toResponse(RenderRejectedException e) {
+        return Response
+                .status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds())
+                .type(MediaType.TEXT_PLAIN_TYPE)
+                .entity("Too many documents are being generated, please try again shortly")
+                .build();
+    }
+
+}
@@ -0,0 +1,73 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.Meter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent calls for the same key into one.
+ *
+ * The first caller for a key makes the call; any caller that arrives for the same key while it is in flight waits for
+ * it and receives the same result, or the same exception.  Nothing is kept once the call completes, so this is not a
+ * cache: the next caller after completion makes a fresh call.  Each call that was shared rather than made is marked on
+ * the given meter.
+ */
+public class SingleFlight<K, V, E extends Exception> {
+
+    @FunctionalInterface
+    public interface Call<V, E extends Exception> {
+        V call() throws E;
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Meter savedMeter;
+
+    public SingleFlight(Meter savedMeter) {
+        this.savedMeter = savedMeter;
+    }
+
+    public V execute(K key, Call<V, E> call) throws E {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            savedMeter.mark();
+            return await(existing);
+        }
+
+        try {
+            V value = call.call();
+            flight.complete(value);
+            return value;
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V await(CompletableFuture<V> flight) throws E {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // the cause was thrown by a Call<V, E>, so it is either an E or unchecked
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (E) cause;
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
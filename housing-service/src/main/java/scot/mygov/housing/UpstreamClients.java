@@ -0,0 +1,120 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.ws.rs.client.ClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.http.HttpClient;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Builds the client for each upstream service from its own HousingConfiguration.Upstream, so each has its own
+ * connections, timeouts and metrics and one slow upstream cannot use up the connections of another.
+ *
+ * The apache engine is RESTEasy's default blocking engine.  The java engine is JavaHttpClientEngine.
+ */
+public class UpstreamClients {
+
+    public static final String APACHE = "apache";
+
+    public static final String JAVA = "java";
+
+    private final MetricRegistry registry;
+
+    public UpstreamClients(MetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param upstream name used for the upstream's metrics and threads
+     * @param trustAll accept any certificate.  The java engine still checks the host name.
+     */
+    public ResteasyClientBuilder builder(String upstream, HousingConfiguration.Upstream config, boolean trustAll) {
+        Duration connectTimeout = Duration.parse(config.getConnectTimeout());
+        Duration readTimeout = Duration.parse(config.getReadTimeout());
+        ResteasyClientBuilder builder = (ResteasyClientBuilder) ClientBuilder.newBuilder();
+        if (JAVA.equals(config.getEngine())) {
+            builder.httpEngine(javaEngine(upstream, config, connectTimeout, readTimeout, trustAll));
+        } else if (APACHE.equals(config.getEngine())) {
+            builder.connectionPoolSize(config.getPoolSize())
+                    .maxPooledPerRoute(config.getPoolSize())
+                    .connectionTTL(Duration.parse(config.getKeepAlive()).toMillis(), MILLISECONDS)
+                    .connectTimeout(connectTimeout.toMillis(), MILLISECONDS)
+                    .readTimeout(readTimeout.toMillis(), MILLISECONDS);
+            if (trustAll) {
+                builder.disableTrustManager();
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown client engine for " + upstream + ": " + config.getEngine());
+        }
+        builder.register(new UpstreamMetrics(upstream, registry));
+        return builder;
+    }
+
+    private JavaHttpClientEngine javaEngine(
+            String upstream,
+            HousingConfiguration.Upstream config,
+            Duration connectTimeout,
+            Duration readTimeout,
+            boolean trustAll) {
+        ExecutorService executor = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("upstream-" + upstream + "-%d").setDaemon(true).build());
+        HttpClient.Builder client = HttpClient.newBuilder()
+                .version(config.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor);
+        if (trustAll) {
+            client.sslContext(trustAllContext());
+        }
+
+        // waiting for a free place counts against the connect timeout, as waiting for a pooled connection does
+        JavaHttpClientEngine engine = new JavaHttpClientEngine(
+                client.build(),
+                executor,
+                config.getPoolSize(),
+                readTimeout,
+                connectTimeout,
+                registry.meter(UpstreamMetrics.name(upstream, MetricName.REJECTIONS)),
+                registry.meter(UpstreamMetrics.name(upstream, MetricName.ERROR_RATE)));
+        registry.register(UpstreamMetrics.name(upstream, MetricName.IN_FLIGHT), (Gauge<Integer>) engine::inFlight);
+        return engine;
+    }
+
+    private static SSLContext trustAllContext() {
+        TrustManager trustAll = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                // trust everything
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                // trust everything
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[] { trustAll }, null);
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to create SSL context", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+
+/**
+ * Times the requests made to one upstream service and counts those it answers with a server error.  The metrics are
+ * named after the upstream, e.g. scot.mygov.housing.UpstreamMetrics.europa.response-times.
+ */
+public class UpstreamMetrics implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final String TIMER_PROPERTY = UpstreamMetrics.class.getName() + ".timer";
+
+    private final Timer responseTimes;
+
+    private final Meter requestMeter;
+
+    private final Meter errorMeter;
+
+    public UpstreamMetrics(String upstream, MetricRegistry registry) {
+        this.responseTimes = registry.timer(name(upstream, MetricName.RESPONSE_TIMES));
+        this.requestMeter = registry.meter(name(upstream, MetricName.REQUEST_RATE));
+        this.errorMeter = registry.meter(name(upstream, MetricName.ERROR_RATE));
+    }
+
+    public static String name(String upstream, MetricName metric) {
+        return MetricRegistry.name(UpstreamMetrics.class, upstream, metric.getMetricName());
+    }
+
+    @Override
+    public void filter(ClientRequestContext request) {
+        requestMeter.mark();
+        request.setProperty(TIMER_PROPERTY, responseTimes.time());
+    }
+
+    @Override
+    public void filter(ClientRequestContext request, ClientResponseContext response) {
+        Object timer = request.getProperty(TIMER_PROPERTY);
+        if (timer instanceof Timer.Context) {
+            ((Timer.Context) timer).stop();
+        }
+        if (response.getStatus() >= 500) {
+            errorMeter.mark();
+        }
+    }
+}
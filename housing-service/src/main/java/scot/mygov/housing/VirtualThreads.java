@@ -0,0 +1,86 @@
+package scot.mygov.housing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads, on a runtime that has them.
+ *
+ * The service is built for Java 17, so virtual threads are looked up reflectively.  When they are not available
+ * callers carry on with platform threads, so turning them on in the configuration is always safe.
+ */
+public class VirtualThreads {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL = method(Thread.class, "ofVirtual");
+
+    private static final Method NAME = method("java.lang.Thread$Builder", "name", String.class, long.class);
+
+    private static final Method FACTORY = method("java.lang.Thread$Builder", "factory");
+
+    private VirtualThreads() {
+        // prevent instantiation
+    }
+
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null && NAME != null && FACTORY != null;
+    }
+
+    /**
+     * Whether virtual threads should be used, warning if they have been asked for but the runtime does not have them.
+     */
+    public static boolean enabled(boolean configured) {
+        if (configured && !isAvailable()) {
+            LOG.warn("Virtual threads are not available on Java {}, using platform threads",
+                    Runtime.version().feature());
+            return false;
+        }
+        return configured;
+    }
+
+    /**
+     * Factory for virtual threads named with the prefix followed by a counter.
+     */
+    public static ThreadFactory factory(String prefix) {
+        if (!isAvailable()) {
+            throw new IllegalStateException("Virtual threads are not available");
+        }
+
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            NAME.invoke(builder, prefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread factory", e);
+        }
+    }
+
+    /**
+     * Executor that runs each task on a new virtual thread.
+     */
+    public static Executor executor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        return task -> factory.newThread(task).start();
+    }
+
+    private static Method method(String className, String name, Class<?>... parameterTypes) {
+        try {
+            return method(Class.forName(className), name, parameterTypes);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method method(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
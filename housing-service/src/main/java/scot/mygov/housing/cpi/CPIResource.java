@@ -9,6 +9,7 @@ import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scot.mygov.housing.Cached;
 import scot.mygov.validation.ValidationResults;
 import scot.mygov.validation.ValidationResultsBuilder;
 
@@ -44,6 +45,7 @@ public class CPIResource {
 
     @GET
     @Path("cpi-delta")
+    @Cached(maxAge = 3600)
     @Produces("application/json")
     public Response cpiDelta(@Context UriInfo uriInfo) throws CPIServiceException {
         MultivaluedMap<String, String> params = uriInfo.getQueryParameters();
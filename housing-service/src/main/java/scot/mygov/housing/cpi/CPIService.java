@@ -1,31 +1,57 @@
 package scot.mygov.housing.cpi;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import scot.mygov.housing.JsonCodec;
 import scot.mygov.housing.cpi.model.CPIData;
 import scot.mygov.housing.cpi.model.CPIDataPoint;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.URL;
+import java.net.URLConnection;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import static com.google.common.base.Suppliers.memoizeWithExpiration;
 
 public class CPIService {
 
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
     private final URL dataURL;
 
+    private final JsonCodec codec;
+
+    private final Duration timeout;
+
+    private final AtomicLong fetches = new AtomicLong();
+
     private final Supplier<CPIData> cpiDataSupplier = memoizeWithExpiration(this::fetchCPIData, 5, TimeUnit.MINUTES);
 
     public CPIService(URL dataURI) {
+        this(dataURI, JsonCodec.defaultCodec());
+    }
+
+    public CPIService(URL dataURI, JsonCodec codec) {
+        this(dataURI, codec, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param timeout connect and read timeout for fetching the data, so that a hung data source fails rather than
+     *                holding the thread that asked for it
+     */
+    public CPIService(URL dataURI, JsonCodec codec, Duration timeout) {
         this.dataURL = dataURI;
+        this.codec = codec;
+        this.timeout = timeout;
     }
 
     public double cpiDelta(LocalDate fromDate, LocalDate toDate) throws CPIServiceException {
@@ -44,9 +70,33 @@ public class CPIService {
         }
     }
 
+    /**
+     * Fetches the CPI data without caching it, to check that it is available.
+     */
+    public void probe() throws CPIServiceException {
+        try {
+            fetchCPIData();
+        } catch (UncheckedIOException e) {
+            throw new CPIServiceException("Unable to fetch CPI data", e);
+        }
+    }
+
+    /**
+     * @return the number of times the CPI data has been fetched
+     */
+    public long getFetchCount() {
+        return fetches.get();
+    }
+
     private CPIData fetchCPIData() {
-        try{
-            return new ObjectMapper().readValue(dataURL, CPIData.class);
+        fetches.incrementAndGet();
+        try {
+            URLConnection connection = dataURL.openConnection();
+            connection.setConnectTimeout((int) timeout.toMillis());
+            connection.setReadTimeout((int) timeout.toMillis());
+            try (InputStream in = connection.getInputStream()) {
+                return codec.read(in, CPIData.class);
+            }
         } catch (IOException e) {
             throw new UncheckedIOException("Unable to fetch CPI data", e);
         }
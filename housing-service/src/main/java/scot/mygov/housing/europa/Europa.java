@@ -1,23 +1,32 @@
 package scot.mygov.housing.europa;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
 import jakarta.ws.rs.ProcessingException;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.Response;
+import scot.mygov.housing.CircuitBreaker;
+import scot.mygov.housing.JsonCodec;
 import scot.mygov.housing.MetricName;
+import scot.mygov.housing.SingleFlight;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 public class Europa {
 
     private WebTarget target;
 
+    private final JsonCodec codec;
+
     private final Timer responseTimes;
 
     private final Counter requestCounter;
@@ -28,51 +37,132 @@ public class Europa {
 
     private final Meter errorMeter;
 
+    private final SingleFlight<List<Object>, Object, EuropaException> inFlight;
+
+    private final EuropaResponseReader<EuropaResults> resultsReader;
+
+    private final CircuitBreaker breaker;
+
+    private final Meter rejectionMeter;
+
     public Europa(WebTarget target, MetricRegistry registry) {
+        this(target, JsonCodec.defaultCodec(), registry);
+    }
+
+    public Europa(WebTarget target, JsonCodec codec, MetricRegistry registry) {
+        this(target, codec, registry, null);
+    }
+
+    /**
+     * @param breaker stops calls to Europa while it is failing or slow, or null to always call it
+     */
+    public Europa(WebTarget target, JsonCodec codec, MetricRegistry registry, CircuitBreaker breaker) {
         this.target = target;
+        this.codec = codec;
+        this.breaker = breaker;
+        this.resultsReader = this::readResults;
 
         this.responseTimes = registry.timer(MetricName.RESPONSE_TIMES.name(this));
         this.requestCounter = registry.counter(MetricName.REQUESTS.name(this));
         this.errorCounter = registry.counter(MetricName.ERRORS.name(this));
         this.requestMeter = registry.meter(MetricName.REQUEST_RATE.name(this));
         this.errorMeter = registry.meter(MetricName.ERROR_RATE.name(this));
+        this.inFlight = new SingleFlight<>(registry.meter(MetricName.COALESCED.name(this)));
+        this.rejectionMeter = registry.meter(MetricName.REJECTIONS.name(this));
+        if (breaker != null) {
+            registry.register(MetricName.CIRCUIT_STATE.name(this), (Gauge<String>) () -> breaker.getState().name());
+        }
     }
 
     public EuropaResults lookupPostcode(String postcode) throws EuropaException {
-        return lookup("postcode", postcode);
+        return lookup("postcode", postcode, resultsReader);
     }
 
     public EuropaResults lookupUprn(String uprn) throws EuropaException {
-        return lookup("uprn", uprn);
+        return lookup("uprn", uprn, resultsReader);
+    }
+
+    public <T> T lookupPostcode(String postcode, EuropaResponseReader<T> reader) throws EuropaException {
+        return lookup("postcode", postcode, reader);
+    }
+
+    public <T> T lookupUprn(String uprn, EuropaResponseReader<T> reader) throws EuropaException {
+        return lookup("uprn", uprn, reader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(String paramName, String paramValue, EuropaResponseReader<T> reader) throws EuropaException {
+        // concurrent lookups of the same postcode or uprn with the same reader share one request to Europa
+        List<Object> key = Arrays.asList(paramName, paramValue, reader);
+        return (T) inFlight.execute(key, () -> fetch(paramName, paramValue, reader));
     }
 
-    private EuropaResults lookup(String paramName, String paramValue) throws EuropaException {
+    public CircuitBreaker.State getCircuitState() {
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.getState();
+    }
+
+    private <T> T fetch(String paramName, String paramValue, EuropaResponseReader<T> reader) throws EuropaException {
+        if (breaker == null) {
+            return request(paramName, paramValue, reader);
+        }
+        if (!breaker.tryAcquire()) {
+            // fail now rather than wait for a timeout
+            rejectionMeter.mark();
+            throw new EuropaException("Europa circuit breaker is open", null);
+        }
+
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T results = request(paramName, paramValue, reader);
+            success = true;
+            return results;
+        } catch (EuropaException e) {
+            // Europa refusing a bad request is Europa working, and must not open the circuit for everyone else
+            success = isClientError(e.getCause());
+            throw e;
+        } finally {
+            breaker.record(success, System.nanoTime() - start);
+        }
+    }
+
+    private <T> T request(String paramName, String paramValue, EuropaResponseReader<T> reader)
+            throws EuropaException {
         Timer.Context timer = responseTimes.time();
         requestCounter.inc();
         requestMeter.mark();
-        try {
-
-            JsonNode results = target
+        try (InputStream in = target
                     .queryParam(paramName, paramValue)
                     .queryParam("fieldset", "all")
                     .queryParam("addresstype", "dpa")
                     .request()
-                    .get(JsonNode.class);
+                    .get(InputStream.class);
+             JsonParser parser = codec.getMapper().createParser(in)) {
 
-            ObjectMapper mapper = new ObjectMapper();
-            EuropaMetadata metadata = mapper.treeToValue(results.get("metadata"), EuropaMetadata.class);
-            if (metadata.getCount() == 0) {
-                return emptyResults(metadata);
-            }
+            // the response is parsed as it arrives rather than being read into a tree first
+            T results = reader.read(parser);
             timer.stop();
-            return mapper.treeToValue(results, EuropaResults.class);
-        } catch (JsonProcessingException | ProcessingException | WebApplicationException ex) {
+            return results;
+        } catch (IOException | ProcessingException | WebApplicationException ex) {
             errorCounter.inc();
             errorMeter.mark();
             throw new EuropaException("Failed to lookup postcode", ex);
         }
     }
 
+    private static boolean isClientError(Throwable cause) {
+        return cause instanceof WebApplicationException
+                && ((WebApplicationException) cause).getResponse() != null
+                && ((WebApplicationException) cause).getResponse().getStatusInfo().getFamily()
+                        == Response.Status.Family.CLIENT_ERROR;
+    }
+
+    private EuropaResults readResults(JsonParser parser) throws IOException {
+        EuropaResults results = codec.reader(EuropaResults.class).readValue(parser);
+        EuropaMetadata metadata = results.getMetadata();
+        return metadata.getCount() == 0 ? emptyResults(metadata) : results;
+    }
+
     private EuropaResults emptyResults(EuropaMetadata metadata) {
         EuropaResults results = new EuropaResults();
         results.setResults(Collections.emptyList());
@@ -0,0 +1,17 @@
+package scot.mygov.housing.europa;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * Reads a Europa response as it is streamed, so that callers can take just the fields they use.
+ */
+@FunctionalInterface
+public interface EuropaResponseReader<T> {
+
+    /**
+     * @param parser positioned before the start of the response
+     */
+    T read(JsonParser parser) throws IOException;
+}
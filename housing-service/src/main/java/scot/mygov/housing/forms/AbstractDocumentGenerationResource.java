@@ -1,55 +1,122 @@
 package scot.mygov.housing.forms;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.ws.rs.Consumes;
-import jakarta.ws.rs.Encoded;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.apache.commons.lang3.StringUtils;
-import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
+import org.jboss.resteasy.plugins.providers.multipart.InputPart;
+import org.jboss.resteasy.plugins.providers.multipart.MultipartFormDataInput;
 import scot.mygov.documents.DocumentType;
+import scot.mygov.housing.JsonCodec;
 
 import java.io.IOException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.Callable;
+
+/**
+ * Base class for the form resources that generate a document.
+ *
+ * Requests are suspended and completed by the document request executor, so the container's worker threads are not
+ * held for the recaptcha check, validation and render.  Without an executor requests are completed on the calling
+ * thread.
+ */
 public abstract class AbstractDocumentGenerationResource<T extends AbstractFormModel> {
 
     DocumentGenerationService<T> service;
 
     RecaptchaCheck recaptchaCheck;
 
+    DocumentRequestExecutor requestExecutor;
+
+    DocumentBatchRenderer batchRenderer;
+
+    JsonCodec codec;
+
     public AbstractDocumentGenerationResource(DocumentGenerationService<T> service, RecaptchaCheck recaptchaCheck) {
+        this(service, recaptchaCheck, null, null);
+    }
+
+    public AbstractDocumentGenerationResource(
+            DocumentGenerationService<T> service,
+            RecaptchaCheck recaptchaCheck,
+            DocumentRequestExecutor requestExecutor,
+            DocumentBatchRenderer batchRenderer) {
+        this(service, recaptchaCheck, requestExecutor, batchRenderer, JsonCodec.defaultCodec());
+    }
+
+    public AbstractDocumentGenerationResource(
+            DocumentGenerationService<T> service,
+            RecaptchaCheck recaptchaCheck,
+            DocumentRequestExecutor requestExecutor,
+            DocumentBatchRenderer batchRenderer,
+            JsonCodec codec) {
         this.service = service;
         this.recaptchaCheck = recaptchaCheck;
+        this.requestExecutor = requestExecutor;
+        this.batchRenderer = batchRenderer;
+        this.codec = codec;
     }
 
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response multipart(T model, @QueryParam("type") String typeParam)
-            throws DocumentGenerationServiceException {
-        return response(model, typeParam);
+    public void multipart(
+            @Suspended AsyncResponse asyncResponse,
+            T model,
+            @QueryParam("type") String typeParam) {
+        execute(asyncResponse, () -> response(model, typeParam));
     }
 
+    /**
+     * The data field holds the URL encoded JSON of the model, which is decoded as it is parsed straight from the part.
+     */
     @Path("form")
     @POST
-    @Encoded
     @Consumes(MediaType.MULTIPART_FORM_DATA)
-    public Response multipart(@MultipartForm Map<String, String> params)
-            throws DocumentGenerationServiceException {
+    public void multipart(
+            @Suspended AsyncResponse asyncResponse,
+            MultipartFormDataInput input) {
+        Map<String, List<InputPart>> parts = input.getFormDataMap();
+        try {
+            // open the data before the request is handed off, while the parts are certain to still be there
+            InputStream data = body(parts.get("data"));
+            String type = parts.containsKey("type") ? parts.get("type").get(0).getBodyAsString() : null;
+            execute(asyncResponse, () -> multipart(data, type));
+        } catch (IOException e) {
+            asyncResponse.resume(e);
+        }
+    }
 
-        String data = params.get("data");
-        if (StringUtils.isBlank(data)) {
+    private Response multipart(InputStream data, String typeParam) throws DocumentGenerationServiceException {
+        T model = data == null ? null : parseModel(data);
+        if (model == null) {
             return Response.status(Response.Status.BAD_REQUEST).entity("Submission contained no data").build();
         }
+        return response(model, typeParam);
+    }
 
-        T model = parseModel(params.get("data"));
-        return response(model, params.get("type"));
+    /**
+     * Generate a document for each model in a JSON array and return them in a ZIP, along with a manifest recording
+     * whether each one succeeded.  The batch is submitted by one person, so only the recaptcha of the first model
+     * is checked.
+     */
+    @Path("batch")
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public void batch(
+            @Suspended AsyncResponse asyncResponse,
+            String data,
+            @QueryParam("type") String typeParam) {
+        execute(asyncResponse, () -> batchResponse(data, typeParam));
     }
 
     /**
@@ -67,6 +134,14 @@ public abstract class AbstractDocumentGenerationResource<T extends AbstractFormM
                 .entity(html).build();
     }
 
+    private void execute(AsyncResponse asyncResponse, Callable<Response> task) {
+        if (requestExecutor == null) {
+            DocumentRequestExecutor.complete(asyncResponse, task);
+        } else {
+            requestExecutor.execute(asyncResponse, task);
+        }
+    }
+
     private Response response(T model, String typeParam)
             throws DocumentGenerationServiceException {
 
@@ -76,13 +151,49 @@ public abstract class AbstractDocumentGenerationResource<T extends AbstractFormM
 
         DocumentType type = DocumentType.determineDocumentType(typeParam);
         validate(model);
-        byte[] documentBytes = service.save(model, type);
-        return Response.ok(documentBytes)
+        StreamingOutput document = service.render(model, type);
+        return Response.ok(document)
                 .header("Content-Type", type.getContentType() )
                 .header("Content-Disposition", contentDisposition(type))
                 .build();
     }
 
+    private Response batchResponse(String data, String typeParam) throws DocumentGenerationServiceException {
+        if (batchRenderer == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        List<T> models = StringUtils.isBlank(data) ? null : parseModels(data);
+        if (models == null || models.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Submission contained no data").build();
+        }
+
+        int maxDocuments = batchRenderer.getMaxDocuments();
+        if (models.size() > maxDocuments) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(String.format("Submission contained more than %d documents", maxDocuments))
+                    .build();
+        }
+
+        if (!recaptchaCheck.verify(models.get(0).getRecaptcha())) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Failed recaptcha check").build();
+        }
+
+        DocumentType type = DocumentType.determineDocumentType(typeParam);
+        StreamingOutput zip = batchRenderer.render(
+                models,
+                model -> {
+                    validate(model);
+                    return service.render(model, type);
+                },
+                index -> String.format("%s-%d.%s", contentDispositionFilenameStem(), index + 1, type.getExtension()));
+        return Response.ok(zip)
+                .header("Content-Type", "application/zip")
+                .header("Content-Disposition",
+                        String.format("attachment; filename=\"%s.zip\"", contentDispositionFilenameStem()))
+                .build();
+    }
+
     private String contentDisposition(DocumentType type) {
         return String.format("attachment; filename=\"%s.%s\"", contentDispositionFilenameStem(), type.getExtension());
     }
@@ -95,10 +206,35 @@ public abstract class AbstractDocumentGenerationResource<T extends AbstractFormM
 
     protected abstract Class<T> getModelClass();
 
-    private T parseModel(String data) throws DocumentGenerationServiceException {
+    private static InputStream body(List<InputPart> parts) throws IOException {
+        if (parts == null || parts.isEmpty()) {
+            return null;
+        }
+        return parts.get(0).getBody(InputStream.class, null);
+    }
+
+    /**
+     * @return the model, or null if the data is blank
+     */
+    private T parseModel(InputStream data) throws DocumentGenerationServiceException {
+        try (PushbackInputStream in = new PushbackInputStream(new UrlDecodingInputStream(data))) {
+            int first = in.read();
+            while (first >= 0 && Character.isWhitespace(first)) {
+                first = in.read();
+            }
+            if (first < 0) {
+                return null;
+            }
+            in.unread(first);
+            return codec.read(in, getModelClass());
+        } catch (IOException ex) {
+            throw new DocumentGenerationServiceException("Could not parse model data", ex);
+        }
+    }
+
+    private List<T> parseModels(String data) throws DocumentGenerationServiceException {
         try {
-            final String decoded = URLDecoder.decode(data, StandardCharsets.UTF_8.name());
-            return new ObjectMapper().<T>readValue(decoded, getModelClass());
+            return codec.readList(data, getModelClass());
         } catch (IOException ex) {
             throw new DocumentGenerationServiceException("Could not parse model data", ex);
         }
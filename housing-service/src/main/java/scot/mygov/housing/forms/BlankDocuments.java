@@ -0,0 +1,116 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import scot.mygov.documents.DocumentType;
+import scot.mygov.housing.JsonCodec;
+import scot.mygov.housing.MetricName;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Rendered blank forms, for users who want to print a form and fill it in by hand.
+ *
+ * A submission is blank if, ignoring the recaptcha and values that are null, it is the same as a newly created
+ * model.  Empty strings, lists and objects are not ignored, since the field extractors and merging callbacks treat
+ * them differently from a missing value: a letting agent with no details, for example, still fills its fields with
+ * "n/a".  Every blank submission gets the document rendered from the newly created model.  Blank documents are
+ * rendered the first time they are asked for and are kept for as long as their template version is active.
+ */
+public class BlankDocuments<T> {
+
+    private final Supplier<T> blankModel;
+
+    private final JsonCodec codec;
+
+    private final JsonNode blankTree;
+
+    private final Map<RenderedDocumentCache.Key, byte[]> documents = new ConcurrentHashMap<>();
+
+    private final Meter hitMeter;
+
+    /**
+     * @param form name of the form, used to name its metrics as several forms share a model type
+     */
+    public BlankDocuments(String form, Supplier<T> blankModel, MetricRegistry registry) {
+        this(form, blankModel, JsonCodec.defaultCodec(), registry);
+    }
+
+    /**
+     * @param form name of the form, used to name its metrics as several forms share a model type
+     * @param codec the codec used to compare submissions with the blank model
+     */
+    public BlankDocuments(String form, Supplier<T> blankModel, JsonCodec codec, MetricRegistry registry) {
+        this.blankModel = blankModel;
+        this.codec = codec;
+        this.blankTree = prune(RenderFingerprint.canonicalTree(codec, blankModel.get()));
+        this.hitMeter = registry.meter(name(form, MetricName.HITS));
+    }
+
+    public static String name(String form, MetricName metric) {
+        return MetricRegistry.name(BlankDocuments.class, form, metric.getMetricName());
+    }
+
+    public boolean isBlank(T model) {
+        return blankTree.equals(prune(RenderFingerprint.canonicalTree(codec, model)));
+    }
+
+    /**
+     * The model that blank documents are rendered from.
+     */
+    public T model() {
+        return blankModel.get();
+    }
+
+    public byte[] get(DocumentType type, String templateVersion) {
+        byte[] bytes = documents.get(new RenderedDocumentCache.Key(type, templateVersion, ""));
+        if (bytes != null) {
+            hitMeter.mark();
+        }
+        return bytes;
+    }
+
+    public void put(DocumentType type, String templateVersion, byte[] bytes) {
+        documents.put(new RenderedDocumentCache.Key(type, templateVersion, ""), bytes);
+    }
+
+    /**
+     * Forget the blank documents rendered from a template version that is no longer active.
+     */
+    public void retire(String templateVersion) {
+        documents.keySet().removeIf(key -> templateVersion.equals(key.getTemplateVersion()));
+    }
+
+    /**
+     * Remove null values from the tree, so that a property set to null compares equal to one that is not there.
+     */
+    private static JsonNode prune(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode pruned = JsonNodeFactory.instance.objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!field.getValue().isNull()) {
+                    pruned.set(field.getKey(), prune(field.getValue()));
+                }
+            }
+            return pruned;
+        }
+
+        if (node.isArray()) {
+            ArrayNode pruned = JsonNodeFactory.instance.arrayNode();
+            for (JsonNode element : node) {
+                pruned.add(prune(element));
+            }
+            return pruned;
+        }
+        return node;
+    }
+}
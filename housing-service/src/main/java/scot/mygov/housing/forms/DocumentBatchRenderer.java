@@ -0,0 +1,358 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scot.mygov.housing.JsonCodec;
+import scot.mygov.housing.MetricName;
+import scot.mygov.validation.ValidationException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders a batch of documents in parallel and streams them back as a ZIP.
+ *
+ * Rendering starts as soon as the batch is submitted, and each document is written into the ZIP as soon as it has
+ * completed, so that the response is not held back by the slowest document.  Only a few documents of each batch may
+ * be rendered but not yet written at once: beyond that rendering waits for the client to read what has been written.
+ * The entries are in the order in which the documents completed.  A document that fails does not fail the batch: the
+ * last entry is a manifest recording the outcome of every document in the order they were submitted.
+ *
+ * Each batch has a deadline.  Documents not rendered and written by then are recorded as errors in the manifest, so a
+ * batch always ends with a complete ZIP unless the client goes away.  A document that fails while it is being written
+ * is left truncated in the ZIP and recorded as an error.
+ *
+ * All batches share a fixed number of threads and a bounded queue, so however many are in progress at once they
+ * cannot take over the render pool.  A batch that does not fit in the queue is rejected before the response starts.
+ */
+public class DocumentBatchRenderer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DocumentBatchRenderer.class);
+
+    public static final String MANIFEST = "manifest.json";
+
+    private static final String TIMED_OUT = "Timed out rendering document";
+
+    private final ThreadPoolExecutor executor;
+
+    private final JsonCodec codec;
+
+    private final int maxDocuments;
+
+    private final int maxUnwritten;
+
+    private final long timeoutNanos;
+
+    private final int retryAfterSeconds;
+
+    private final Meter documentMeter;
+
+    private final Meter errorMeter;
+
+    private final Meter timeoutMeter;
+
+    private final Meter rejectionMeter;
+
+    /**
+     * @param threads threads shared by all batches
+     * @param queueSize documents that may wait for a thread across all batches, a batch that does not fit is rejected
+     * @param maxDocuments documents allowed in one batch
+     * @param maxUnwritten documents of a batch that may be rendered but not yet written at once
+     * @param timeout how long a batch may take, after which its outstanding documents are recorded as errors
+     */
+    public DocumentBatchRenderer(
+            int threads,
+            int queueSize,
+            int maxDocuments,
+            int maxUnwritten,
+            Duration timeout,
+            int retryAfterSeconds,
+            JsonCodec codec,
+            MetricRegistry registry) {
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("document-batch-%d").setDaemon(true).build());
+        this.codec = codec;
+        this.maxDocuments = maxDocuments;
+        this.maxUnwritten = maxUnwritten;
+        this.timeoutNanos = timeout.toNanos();
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.documentMeter = registry.meter(MetricName.REQUEST_RATE.name(this));
+        this.errorMeter = registry.meter(MetricName.ERROR_RATE.name(this));
+        this.timeoutMeter = registry.meter(MetricName.TIMEOUTS.name(this));
+        this.rejectionMeter = registry.meter(MetricName.REJECTIONS.name(this));
+        registry.register(MetricName.QUEUE_DEPTH.name(this), (Gauge<Integer>) () -> executor.getQueue().size());
+    }
+
+    public int getMaxDocuments() {
+        return maxDocuments;
+    }
+
+    /**
+     * Start rendering every item and return an output that writes each one to a ZIP as it completes.
+     *
+     * @param items the models to render
+     * @param renderer renders a single model
+     * @param fileNames the name of the ZIP entry for the item at each index
+     * @throws RenderRejectedException if the batch does not fit in the queue
+     */
+    public <M> StreamingOutput render(List<M> items, Renderer<M> renderer, IntFunction<String> fileNames) {
+        Batch batch = new Batch(items.size());
+        try {
+            for (int i = 0; i < items.size(); i++) {
+                Item item = new Item(i, fileNames.apply(i));
+                M model = items.get(i);
+                batch.files.add(item.file);
+                batch.futures.add(batch.completions.submit(() -> render(batch, item, model, renderer)));
+            }
+        } catch (RejectedExecutionException e) {
+            batch.cancel();
+            rejectionMeter.mark();
+            throw new RenderRejectedException("Batch render queue is full", retryAfterSeconds, e);
+        }
+        return out -> {
+            try {
+                write(batch, out);
+            } finally {
+                // stop rendering the rest of the batch if it has failed, timed out or the client has gone
+                batch.cancel();
+            }
+        };
+    }
+
+    private void write(Batch batch, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Item[] manifest = new Item[batch.size];
+        for (int i = 0; i < batch.size; i++) {
+            Future<Item> future = poll(batch);
+            if (future == null) {
+                break;
+            }
+            Item item = completed(batch, future);
+            manifest[item.index] = item;
+            if (item.rendered) {
+                try {
+                    writeEntry(zip, item);
+                } finally {
+                    batch.unwritten.release();
+                }
+                zip.flush();
+            }
+        }
+
+        for (int i = 0; i < manifest.length; i++) {
+            if (manifest[i] == null) {
+                manifest[i] = timedOut(new Item(i, batch.files.get(i)));
+            }
+        }
+        zip.putNextEntry(new ZipEntry(MANIFEST));
+        zip.write(codec.writer().writeValueAsBytes(Arrays.asList(manifest)));
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private void writeEntry(ZipOutputStream zip, Item item) throws IOException {
+        zip.putNextEntry(new ZipEntry(item.file));
+        try {
+            item.output.write(zip);
+        } catch (IOException e) {
+            // anything other than a failure to save the document means the ZIP itself can no longer be written
+            if (!(e.getCause() instanceof DocumentGenerationServiceException)) {
+                throw e;
+            }
+            failed(item, e);
+        } catch (RuntimeException e) {
+            failed(item, e);
+        } finally {
+            item.output = null;
+        }
+        zip.closeEntry();
+    }
+
+    /**
+     * Render the item once the batch has room for another unwritten document.  The permit taken is released by the
+     * writer once a rendered document has been written, or here if nothing was rendered.
+     */
+    private <M> Item render(Batch batch, Item item, M model, Renderer<M> renderer) {
+        documentMeter.mark();
+        boolean permitted = false;
+        try {
+            long remaining = batch.deadline - System.nanoTime();
+            if (remaining <= 0 || !batch.unwritten.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                return timedOut(item);
+            }
+            permitted = true;
+            item.output = renderer.render(model);
+            item.rendered = true;
+            item.status = "ok";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timedOut(item);
+        } catch (ValidationException e) {
+            item.status = "invalid";
+            item.error = e.getMessage();
+            item.issues = e.getIssues();
+        } catch (DocumentGenerationServiceException | RuntimeException e) {
+            failed(item, e);
+        } finally {
+            if (permitted && !item.rendered) {
+                batch.unwritten.release();
+            }
+        }
+        return item;
+    }
+
+    private void failed(Item item, Throwable e) {
+        LOG.warn("Failed to render document {} of batch", item.index, e);
+        errorMeter.mark();
+        item.rendered = false;
+        item.status = "error";
+        item.error = e.getMessage();
+    }
+
+    private Item timedOut(Item item) {
+        timeoutMeter.mark();
+        item.rendered = false;
+        item.status = "error";
+        item.error = TIMED_OUT;
+        return item;
+    }
+
+    /**
+     * The next completed document, or null if the batch's deadline has passed.
+     */
+    private static Future<Item> poll(Batch batch) throws IOException {
+        try {
+            return batch.completions.poll(batch.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering batch");
+        }
+    }
+
+    private Item completed(Batch batch, Future<Item> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering batch");
+        } catch (ExecutionException e) {
+            // the renderer threw an error, which is recorded against its document rather than ending the ZIP early
+            int index = batch.futures.indexOf(future);
+            Item item = new Item(index, batch.files.get(index));
+            failed(item, e.getCause());
+            return item;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * The documents of one batch that are being rendered.
+     */
+    private class Batch {
+
+        private final int size;
+
+        private final long deadline = System.nanoTime() + timeoutNanos;
+
+        private final CompletionService<Item> completions = new ExecutorCompletionService<>(executor);
+
+        private final List<Future<Item>> futures = new ArrayList<>();
+
+        private final List<String> files = new ArrayList<>();
+
+        // documents rendered but not yet written hold a merged document each, so only a few are allowed at once
+        private final Semaphore unwritten = new Semaphore(maxUnwritten);
+
+        Batch(int size) {
+            this.size = size;
+        }
+
+        void cancel() {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @FunctionalInterface
+    public interface Renderer<M> {
+        StreamingOutput render(M model) throws DocumentGenerationServiceException;
+    }
+
+    /**
+     * The outcome of rendering one document, as recorded in the manifest.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+
+        private final int index;
+
+        private final String file;
+
+        private String status;
+
+        private String error;
+
+        private Map<String, List<String>> issues;
+
+        private boolean rendered;
+
+        private StreamingOutput output;
+
+        Item(int index, String file) {
+            this.index = index;
+            this.file = file;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * The name of the entry in the ZIP, or null if the document could not be rendered.
+         */
+        public String getFile() {
+            return rendered ? file : null;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public Map<String, List<String>> getIssues() {
+            return issues;
+        }
+    }
+}
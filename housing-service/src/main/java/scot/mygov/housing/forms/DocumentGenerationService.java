@@ -1,16 +1,26 @@
 package scot.mygov.housing.forms;
 
+import com.aspose.words.Document;
 import com.aspose.words.IFieldMergingCallback;
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import jakarta.ws.rs.core.StreamingOutput;
 import scot.mygov.documents.DocumentGenerator;
 import scot.mygov.documents.DocumentGeneratorException;
 import scot.mygov.documents.DocumentType;
+import scot.mygov.documents.RenderStage;
+import scot.mygov.documents.RenderTimer;
 import scot.mygov.housing.MetricName;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public class DocumentGenerationService <T> {
 
@@ -20,6 +30,17 @@ public class DocumentGenerationService <T> {
 
     private final IFieldMergingCallbackFactory<T> fieldMergingCallbackFactory;
 
+    private final RenderExecutor renderExecutor;
+
+    private final RenderedDocumentCache cache;
+
+    private final BlankDocuments<T> blankDocuments;
+
+    private final RenderStageTimers stageTimers;
+
+    // the template version seen by the last render, used to notice when the template switches
+    private final AtomicReference<String> lastTemplateVersion = new AtomicReference<>();
+
     private final Timer responseTimes;
 
     private final Counter requestCounter;
@@ -42,10 +63,32 @@ public class DocumentGenerationService <T> {
             FieldExtractor<T> fieldExtractor,
             IFieldMergingCallbackFactory<T> fieldMergingCallbackFactory,
             MetricRegistry registry) {
+        this(documentGenerator, fieldExtractor, fieldMergingCallbackFactory, null, null, null, null, registry);
+    }
+
+    /**
+     * @param renderExecutor pool to render on, or null to render on the calling thread
+     * @param cache cache of rendered documents, or null if they should not be cached
+     * @param blankDocuments documents rendered from blank submissions, or null if they should not be kept
+     * @param form name used for the per stage timers of this form, or null if the stages should not be timed
+     */
+    public DocumentGenerationService(
+            DocumentGenerator documentGenerator,
+            FieldExtractor<T> fieldExtractor,
+            IFieldMergingCallbackFactory<T> fieldMergingCallbackFactory,
+            RenderExecutor renderExecutor,
+            RenderedDocumentCache cache,
+            BlankDocuments<T> blankDocuments,
+            String form,
+            MetricRegistry registry) {
 
         this.fieldExtractor = fieldExtractor;
         this.documentGenerator = documentGenerator;
         this.fieldMergingCallbackFactory = fieldMergingCallbackFactory;
+        this.renderExecutor = renderExecutor;
+        this.cache = cache;
+        this.blankDocuments = blankDocuments;
+        this.stageTimers = form == null ? null : new RenderStageTimers(form, registry);
         this.responseTimes = registry.timer(MetricName.RESPONSE_TIMES.name(this));
         this.requestCounter = registry.counter(MetricName.REQUESTS.name(this));
         this.errorCounter = registry.counter(MetricName.ERRORS.name(this));
@@ -54,18 +97,163 @@ public class DocumentGenerationService <T> {
     }
 
     public byte[] save(T model, DocumentType type) throws DocumentGenerationServiceException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            render(model, type).write(out);
+        } catch (IOException e) {
+            throw new DocumentGenerationServiceException("Failed to generate document", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Render the model into its template and return an output that saves the finished document as it is written.
+     *
+     * The merge, field update and page layout are done before this method returns, so that any failure in them can
+     * still be reported as an error response.  Only saving the document is deferred until the output is written, and
+     * it is saved straight into the response rather than into a copy held in memory.  If a render executor has been
+     * provided the merge runs on it rather than on the calling thread.  The save runs on the thread writing the
+     * output, so that a render thread is never held while a client is slow to read the response.
+     *
+     * If a cache has been provided then a document that has already been rendered from the same fields and template
+     * version is written straight from the cache.  A newly rendered document that is to be kept is saved in full
+     * before this method returns, and the copy that is kept is what gets written.  Blank submissions are served from
+     * the blank documents in the same way.
+     *
+     * The response timer covers the whole render, including saving the document, and is stopped whether or not the
+     * render succeeds.
+     */
+    public StreamingOutput render(T model, DocumentType type) throws DocumentGenerationServiceException {
         Timer.Context timer = responseTimes.time();
         requestCounter.inc();
         requestMeter.mark();
+        RenderTimer stageTimer = stageTimers == null ? RenderTimer.NONE : stageTimers.forType(type);
+
+        Consumer<byte[]> store = null;
+        long storeLimit = 0;
+        try {
+            String templateVersion = templateVersion();
+            T source = model;
+            if (blankDocuments != null && blankDocuments.isBlank(model)) {
+                byte[] blank = blankDocuments.get(type, templateVersion);
+                if (blank != null) {
+                    return written(blank, timer);
+                }
+                source = blankDocuments.model();
+                store = bytes -> blankDocuments.put(type, templateVersion, bytes);
+                storeLimit = Long.MAX_VALUE;
+            }
+
+            long start = System.nanoTime();
+            Map<String, Object> fields = fieldExtractor.extractFields(source);
+            stageTimer.record(RenderStage.EXTRACT, System.nanoTime() - start);
+            if (store == null && cache != null && cache.isEnabled()) {
+                // merging callbacks are given the model itself, so when there is one the whole model goes into the key
+                Object callbackModel = fieldMergingCallbackFactory == null ? null : source;
+                RenderedDocumentCache.Key key = cache.key(type, templateVersion, fields, callbackModel);
+                byte[] cached = cache.get(key);
+                if (cached != null) {
+                    return written(cached, timer);
+                }
+                store = bytes -> cache.put(key, bytes);
+                storeLimit = cache.getMaxBytes();
+            }
+
+            T merged = source;
+            if (store == null) {
+                Document document = renderExecutor == null
+                        ? merge(merged, fields, type, stageTimer)
+                        : renderExecutor.call(() -> merge(merged, fields, type, stageTimer));
+                return out -> {
+                    try {
+                        save(document, type, out, stageTimer);
+                    } finally {
+                        timer.stop();
+                    }
+                };
+            }
 
-        Map<String, Object> fields = fieldExtractor.extractFields(model);
+            byte[] bytes = renderExecutor == null
+                    ? mergeAndSave(merged, fields, type, stageTimer)
+                    : renderExecutor.call(() -> mergeAndSave(merged, fields, type, stageTimer));
 
+            // do not keep a document rendered from a template that was retired while it was being rendered
+            if (bytes.length <= storeLimit && Objects.equals(templateVersion, lastTemplateVersion.get())) {
+                store.accept(bytes);
+            }
+            return written(bytes, timer);
+        } catch (DocumentGenerationServiceException | RuntimeException e) {
+            timer.stop();
+            throw e;
+        }
+    }
+
+    private static StreamingOutput written(byte[] bytes, Timer.Context timer) {
+        timer.stop();
+        return out -> out.write(bytes);
+    }
+
+    /**
+     * The active template version, or null if nothing is kept that depends on it.  When the version changes
+     * everything rendered from the previous version is dropped.
+     */
+    private String templateVersion() {
+        boolean caching = cache != null && cache.isEnabled();
+        if (!caching && blankDocuments == null) {
+            return null;
+        }
+
+        String templateVersion = documentGenerator.templateVersion();
+        String previous = lastTemplateVersion.getAndSet(templateVersion);
+        if (previous != null && !previous.equals(templateVersion)) {
+            if (caching) {
+                cache.invalidate(previous);
+            }
+            if (blankDocuments != null) {
+                blankDocuments.retire(previous);
+            }
+        }
+        return templateVersion;
+    }
+
+    /**
+     * Save the document to the output on the calling thread.
+     *
+     * @throws IOException wrapping a DocumentGenerationServiceException if the document could not be saved
+     */
+    private void save(Document document, DocumentType type, OutputStream out, RenderTimer stageTimer)
+            throws IOException {
+        try {
+            write(document, type, out, stageTimer);
+        } catch (DocumentGenerationServiceException e) {
+            throw new IOException("Failed to write document", e);
+        }
+    }
+
+    private byte[] mergeAndSave(T model, Map<String, Object> fields, DocumentType type, RenderTimer stageTimer)
+            throws DocumentGenerationServiceException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(merge(model, fields, type, stageTimer), type, out, stageTimer);
+        return out.toByteArray();
+    }
+
+    private void write(Document document, DocumentType type, OutputStream out, RenderTimer stageTimer)
+            throws DocumentGenerationServiceException {
+        try {
+            documentGenerator.write(document, type, out, stageTimer);
+        } catch (DocumentGeneratorException e) {
+            errorCounter.inc();
+            errorMeter.mark();
+            throw new DocumentGenerationServiceException("Failed to generate document", e);
+        }
+    }
+
+    private Document merge(T model, Map<String, Object> fields, DocumentType type, RenderTimer stageTimer)
+            throws DocumentGenerationServiceException {
         try {
             IFieldMergingCallback callback
                     = fieldMergingCallbackFactory == null ? null : fieldMergingCallbackFactory.newCallback(model);
-            byte [] docBytes = documentGenerator.save(fields, type, callback);
-            timer.stop();
-            return docBytes;
+            return documentGenerator.merge(fields, type, callback, stageTimer);
         } catch (DocumentGeneratorException e) {
             errorCounter.inc();
             errorMeter.mark();
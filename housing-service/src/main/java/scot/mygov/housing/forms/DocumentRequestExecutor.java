@@ -0,0 +1,158 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import scot.mygov.housing.MetricName;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completes suspended document requests away from the container's worker threads.
+ *
+ * The recaptcha check, validation and render all block, so rather than holding an Undertow worker for the length of
+ * the request the resource suspends it and the work is done here.  A request that cannot be queued, or that has not
+ * finished within the timeout, is answered with a 503 so that a few slow documents cannot hold up everything else.
+ *
+ * Requests either run on a fixed pool of threads with a bounded queue, or each on a thread of its own, such as a
+ * virtual thread, with a limit on how many are in progress at once.
+ */
+public class DocumentRequestExecutor {
+
+    private final Executor executor;
+
+    // limits the requests in progress when each has a thread of its own, null when they share a pool
+    private final Semaphore admission;
+
+    private final long timeoutSeconds;
+
+    private final int retryAfterSeconds;
+
+    private final Meter timeoutMeter;
+
+    private final Meter rejectionMeter;
+
+    /**
+     * Run requests on a fixed pool of threads, rejecting them once the queue is full.
+     */
+    public DocumentRequestExecutor(
+            int threads,
+            int queueSize,
+            long timeoutSeconds,
+            int retryAfterSeconds,
+            MetricRegistry registry) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("document-request-%d").setDaemon(true).build());
+        this.executor = pool;
+        this.admission = null;
+        this.timeoutSeconds = timeoutSeconds;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timeoutMeter = registry.meter(MetricName.TIMEOUTS.name(this));
+        this.rejectionMeter = registry.meter(MetricName.REJECTIONS.name(this));
+        registry.register(MetricName.QUEUE_DEPTH.name(this), (Gauge<Integer>) () -> pool.getQueue().size());
+    }
+
+    /**
+     * Run each request on a thread of its own from the executor, rejecting them once maxRequests are in progress.
+     */
+    public DocumentRequestExecutor(
+            int maxRequests,
+            long timeoutSeconds,
+            int retryAfterSeconds,
+            Executor threadPerTaskExecutor,
+            MetricRegistry registry) {
+        this.executor = threadPerTaskExecutor;
+        this.admission = new Semaphore(maxRequests);
+        this.timeoutSeconds = timeoutSeconds;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timeoutMeter = registry.meter(MetricName.TIMEOUTS.name(this));
+        this.rejectionMeter = registry.meter(MetricName.REJECTIONS.name(this));
+        registry.register(MetricName.IN_FLIGHT.name(this),
+                (Gauge<Integer>) () -> maxRequests - admission.availablePermits());
+    }
+
+    /**
+     * Run the task and resume the response with its result.  Any exception thrown by the task is passed to the
+     * exception mappers, as it would have been had the request been handled synchronously.
+     */
+    public void execute(AsyncResponse response, Callable<Response> task) {
+        FutureTask<Void> future = new FutureTask<>(() -> complete(response, task), null);
+
+        // set up the timeout before the task is queued, so that it applies however quickly the task is picked up
+        response.setTimeoutHandler(timedOut -> {
+            timeoutMeter.mark();
+            // answer before cancelling, so that the task cannot resume the response with its own result first
+            timedOut.resume(Response
+                    .status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .entity("Timed out generating document, please try again shortly")
+                    .build());
+            future.cancel(true);
+        });
+        response.setTimeout(timeoutSeconds, TimeUnit.SECONDS);
+
+        if (admission == null) {
+            submit(response, future);
+        } else if (admission.tryAcquire()) {
+            submit(response, () -> {
+                try {
+                    future.run();
+                } finally {
+                    admission.release();
+                }
+            });
+        } else {
+            reject(response, "Too many document requests in progress", null);
+        }
+    }
+
+    private void submit(AsyncResponse response, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (admission != null) {
+                admission.release();
+            }
+            reject(response, "Document request queue is full", e);
+        }
+    }
+
+    private void reject(AsyncResponse response, String message, RejectedExecutionException e) {
+        rejectionMeter.mark();
+        response.resume(new RenderRejectedException(message, retryAfterSeconds, e));
+    }
+
+    /**
+     * Run the task on the calling thread and resume the response with its result.
+     */
+    static void complete(AsyncResponse response, Callable<Response> task) {
+        try {
+            response.resume(task.call());
+        } catch (Exception e) {
+            response.resume(e);
+        }
+    }
+
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
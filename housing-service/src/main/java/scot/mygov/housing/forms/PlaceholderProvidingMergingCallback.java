@@ -4,31 +4,47 @@ import com.aspose.words.DocumentBuilder;
 import com.aspose.words.FieldMergingArgs;
 import com.aspose.words.IFieldMergingCallback;
 import com.aspose.words.ImageFieldMergingArgs;
+import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Map;
 import java.util.function.Consumer;
 
+/**
+ * Writes a placeholder in place of any empty field that has one.
+ *
+ * The callback keeps no state between fields, so a single instance can be shared by every render of a form.
+ */
 public class PlaceholderProvidingMergingCallback implements IFieldMergingCallback {
 
     private final Map<String, Consumer<DocumentBuilder>> placeholders;
 
     public PlaceholderProvidingMergingCallback(Map<String, Consumer<DocumentBuilder>> placeholders) {
-        this.placeholders = placeholders;
+        this.placeholders = ImmutableMap.copyOf(placeholders);
+    }
+
+    /**
+     * A factory that hands out the same callback for every render.
+     */
+    public static <T> IFieldMergingCallbackFactory<T> shared(Map<String, Consumer<DocumentBuilder>> placeholders) {
+        PlaceholderProvidingMergingCallback callback = new PlaceholderProvidingMergingCallback(placeholders);
+        return formData -> callback;
     }
 
     @Override
     public void fieldMerging(FieldMergingArgs fieldMergingArgs) throws Exception {
-        String fieldValue = fieldMergingArgs.getFieldValue() == null ?
-                null : fieldMergingArgs.getFieldValue().toString();
         String fieldName = fieldMergingArgs.getFieldName();
+        Consumer<DocumentBuilder> placeholder = placeholders.get(fieldName);
+        if (placeholder == null) {
+            return;
+        }
 
         // do we want to provide a placeholder for an empty value?
-        if (placeholders.containsKey(fieldName) && StringUtils.isEmpty(fieldValue)) {
+        Object fieldValue = fieldMergingArgs.getFieldValue();
+        if (fieldValue == null || StringUtils.isEmpty(fieldValue.toString())) {
             DocumentBuilder builder = new DocumentBuilder(fieldMergingArgs.getDocument());
             builder.moveToMergeField(fieldName);
-            placeholders.get(fieldMergingArgs.getFieldName()).accept(builder);
-            return;
+            placeholder.accept(builder);
         }
     }
 
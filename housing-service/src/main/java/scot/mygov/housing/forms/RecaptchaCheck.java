@@ -8,6 +8,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 /**
  * A client to call the Google Recaptcha service.
  */
@@ -41,25 +43,43 @@ public class RecaptchaCheck {
 
         String payload = String.format("secret=%s&response=%s", secretKey, recaptchaClientResponse);
         Entity entity = Entity.entity(payload, MediaType.APPLICATION_FORM_URLENCODED);
-        Response response = target.request().post(entity);
-        if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
-            return false;
-        }
+        try (Response response = target.request().post(entity)) {
+            if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                return false;
+            }
 
-        // we cod a 200 range response code, read the entity
-        RecaptchaResponse serverResponse = response.readEntity(RecaptchaResponse.class);
-        if (StringUtils.isNotBlank(serverResponse.getMigrationWarning())) {
-            LOG.warn("Migration warning in recaptcha response {}", serverResponse.getMigrationWarning());
+            // we cod a 200 range response code, read the entity
+            RecaptchaResponse serverResponse = response.readEntity(RecaptchaResponse.class);
+            if (StringUtils.isNotBlank(serverResponse.getMigrationWarning())) {
+                LOG.warn("Migration warning in recaptcha response {}", serverResponse.getMigrationWarning());
+            }
+
+            if (serverResponse.isSuccess()) {
+                // they passed
+                return true;
+            }
+
+            // the test failed for some reason
+            LOG.info("Recaptcha check failed {}", serverResponse.getErrorCodes());
+            return false;
         }
+    }
 
-        if (serverResponse.isSuccess()) {
-            // they passed
-            return true;
+    /**
+     * Checks that the Google Recaptcha service answers, without a client response to verify.
+     */
+    public void probe() throws IOException {
+        String payload = String.format("secret=%s&response=", secretKey);
+        Entity entity = Entity.entity(payload, MediaType.APPLICATION_FORM_URLENCODED);
+        try (Response response = target.request().post(entity)) {
+            if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                throw new IOException("Recaptcha service returned " + response.getStatus());
+            }
         }
+    }
 
-        // the test failed for some reason
-        LOG.info("Recaptcha check failed {}", serverResponse.getErrorCodes());
-        return false;
+    public boolean isEnabled() {
+        return enabled;
     }
 
 }
@@ -0,0 +1,87 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import scot.mygov.housing.MetricName;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs document rendering on a dedicated, bounded pool of threads.
+ *
+ * Rendering is CPU bound, so the pool is sized from the number of cores and work beyond the queue size is rejected
+ * straight away rather than being allowed to starve the rest of the service.
+ */
+public class RenderExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    private final int retryAfterSeconds;
+
+    private final Timer waitTimes;
+
+    private final Meter rejectionMeter;
+
+    public RenderExecutor(int threads, int queueSize, int retryAfterSeconds, MetricRegistry registry) {
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("render-%d").setDaemon(true).build());
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.waitTimes = registry.timer(MetricName.QUEUE_WAIT_TIMES.name(this));
+        this.rejectionMeter = registry.meter(MetricName.REJECTIONS.name(this));
+        registry.register(MetricName.QUEUE_DEPTH.name(this), (Gauge<Integer>) () -> executor.getQueue().size());
+    }
+
+    /**
+     * Run the task on the render pool and wait for its result.
+     *
+     * @throws RenderRejectedException if the queue is full
+     */
+    public <V> V call(Callable<V> task) throws DocumentGenerationServiceException {
+        Future<V> future = submit(task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new DocumentGenerationServiceException("Interrupted while waiting for document", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DocumentGenerationServiceException serviceException) {
+                throw serviceException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DocumentGenerationServiceException("Failed to generate document", cause);
+        }
+    }
+
+    private <V> Future<V> submit(Callable<V> task) {
+        Timer.Context waitTimer = waitTimes.time();
+        try {
+            return executor.submit(() -> {
+                waitTimer.stop();
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectionMeter.mark();
+            throw new RenderRejectedException("Render queue is full", retryAfterSeconds, e);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,75 @@
+package scot.mygov.housing.forms;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import scot.mygov.housing.JsonCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Canonical hash of the inputs to a render.
+ *
+ * Two submissions with the same fingerprint produce the same document from the same template.  The recaptcha response
+ * differs on every submission and has no effect on the document, so it is left out.
+ */
+public class RenderFingerprint {
+
+    private static final String RECAPTCHA = "recaptcha";
+
+    private RenderFingerprint() {
+        // prevent instantiation
+    }
+
+    /**
+     * @param codec the codec used to write the model in its canonical form
+     * @param fields the extracted fields
+     * @param model the model, or null if nothing but the fields is used to render the document
+     */
+    public static String of(JsonCodec codec, Map<String, Object> fields, Object model)
+            throws DocumentGenerationServiceException {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (Map.Entry<String, Object> entry : new TreeMap<>(fields).entrySet()) {
+            putString(hasher, entry.getKey());
+            Object value = entry.getValue();
+            if (value == null) {
+                hasher.putByte((byte) 0);
+            } else {
+                hasher.putByte((byte) 1);
+                putString(hasher, value.getClass().getName());
+                putString(hasher, value.toString());
+            }
+        }
+
+        if (model != null) {
+            try {
+                hasher.putBytes(codec.canonicalWriter().writeValueAsBytes(canonicalTree(codec, model)));
+            } catch (JsonProcessingException e) {
+                throw new DocumentGenerationServiceException("Failed to fingerprint model", e);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * The model as a JSON tree, in the same canonical form that is hashed.
+     */
+    static JsonNode canonicalTree(JsonCodec codec, Object model) {
+        JsonNode tree = codec.canonicalTree(model);
+        if (tree instanceof ObjectNode object) {
+            object.remove(RECAPTCHA);
+        }
+        return tree;
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        // prefix with the length so that adjacent values cannot run into each other
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        hasher.putInt(bytes.length);
+        hasher.putBytes(bytes);
+    }
+}
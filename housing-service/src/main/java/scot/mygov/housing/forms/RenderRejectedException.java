@@ -0,0 +1,18 @@
+package scot.mygov.housing.forms;
+
+/**
+ * Thrown when the render queue is full and a document cannot be accepted for generation.
+ */
+public class RenderRejectedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public RenderRejectedException(String msg, int retryAfterSeconds, Throwable cause) {
+        super(msg, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
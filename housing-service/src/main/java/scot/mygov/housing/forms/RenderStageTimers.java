@@ -0,0 +1,43 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import scot.mygov.documents.DocumentType;
+import scot.mygov.documents.RenderStage;
+import scot.mygov.documents.RenderTimer;
+import scot.mygov.housing.MetricName;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timer for each stage of rendering a form, for each type of document.
+ *
+ * Timers are named by form, document type and stage, for example
+ * scot.mygov.housing.forms.DocumentGenerationService.modelTenancy.pdf.layout.stage-times
+ */
+public class RenderStageTimers {
+
+    private final Map<DocumentType, RenderTimer> timers = new EnumMap<>(DocumentType.class);
+
+    public RenderStageTimers(String form, MetricRegistry registry) {
+        for (DocumentType type : DocumentType.values()) {
+            Map<RenderStage, Timer> stages = new EnumMap<>(RenderStage.class);
+            for (RenderStage stage : RenderStage.values()) {
+                String name = MetricRegistry.name(DocumentGenerationService.class,
+                        form,
+                        type.name().toLowerCase(Locale.ROOT),
+                        stage.getStageName(),
+                        MetricName.STAGE_TIMES.getMetricName());
+                stages.put(stage, registry.timer(name));
+            }
+            timers.put(type, (stage, nanos) -> stages.get(stage).update(nanos, TimeUnit.NANOSECONDS));
+        }
+    }
+
+    public RenderTimer forType(DocumentType type) {
+        return timers.get(type);
+    }
+}
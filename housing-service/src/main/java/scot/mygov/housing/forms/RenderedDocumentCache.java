@@ -0,0 +1,165 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import scot.mygov.documents.DocumentType;
+import scot.mygov.housing.JsonCodec;
+import scot.mygov.housing.MetricName;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Least recently used cache of rendered documents, bounded by the total number of bytes it holds.
+ *
+ * Entries are keyed by a hash of everything that goes into a render, so a hit can be returned without touching
+ * Aspose at all.
+ */
+public class RenderedDocumentCache {
+
+    private final long maxBytes;
+
+    private final JsonCodec codec;
+
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long currentBytes;
+
+    private final Meter hitMeter;
+
+    private final Meter missMeter;
+
+    private final Meter evictionMeter;
+
+    public RenderedDocumentCache(long maxBytes, MetricRegistry registry) {
+        this(maxBytes, JsonCodec.defaultCodec(), registry);
+    }
+
+    public RenderedDocumentCache(long maxBytes, JsonCodec codec, MetricRegistry registry) {
+        this.maxBytes = maxBytes;
+        this.codec = codec;
+        this.hitMeter = registry.meter(MetricName.HITS.name(this));
+        this.missMeter = registry.meter(MetricName.MISSES.name(this));
+        this.evictionMeter = registry.meter(MetricName.EVICTIONS.name(this));
+        registry.register(MetricName.SIZE_BYTES.name(this), (Gauge<Long>) this::sizeBytes);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * A cache with no budget is disabled: callers need not spend time computing keys for it.
+     */
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * The key of the document rendered from the fields and model with the given template version.
+     *
+     * @param model the model, or null if nothing but the fields is used to render the document
+     */
+    public Key key(DocumentType type, String templateVersion, Map<String, Object> fields, Object model)
+            throws DocumentGenerationServiceException {
+        return new Key(type, templateVersion, RenderFingerprint.of(codec, fields, model));
+    }
+
+    public synchronized byte[] get(Key key) {
+        byte[] bytes = entries.get(key);
+        if (bytes == null) {
+            missMeter.mark();
+        } else {
+            hitMeter.mark();
+        }
+        return bytes;
+    }
+
+    public synchronized void put(Key key, byte[] bytes) {
+        if (bytes.length > maxBytes) {
+            return;
+        }
+
+        byte[] previous = entries.put(key, bytes);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += bytes.length;
+
+        // evict the least recently used entries until we are back under budget
+        Iterator<Map.Entry<Key, byte[]>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, byte[]> eldest = it.next();
+            currentBytes -= eldest.getValue().length;
+            it.remove();
+            evictionMeter.mark();
+        }
+    }
+
+    /**
+     * Remove every document rendered from the given template version.
+     */
+    public synchronized void invalidate(String templateVersion) {
+        Iterator<Map.Entry<Key, byte[]>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, byte[]> entry = it.next();
+            if (Objects.equals(entry.getKey().templateVersion, templateVersion)) {
+                currentBytes -= entry.getValue().length;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized long sizeBytes() {
+        return currentBytes;
+    }
+
+    public static class Key {
+
+        private final DocumentType type;
+
+        private final String templateVersion;
+
+        private final String hash;
+
+        public Key(DocumentType type, String templateVersion, String hash) {
+            this.type = type;
+            this.templateVersion = templateVersion;
+            this.hash = hash;
+        }
+
+        public DocumentType getType() {
+            return type;
+        }
+
+        public String getTemplateVersion() {
+            return templateVersion;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return type == other.type
+                    && Objects.equals(templateVersion, other.templateVersion)
+                    && hash.equals(other.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, templateVersion, hash);
+        }
+    }
+}
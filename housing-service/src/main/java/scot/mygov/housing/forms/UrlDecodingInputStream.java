@@ -0,0 +1,69 @@
+package scot.mygov.housing.forms;
+
+import java.io.BufferedInputStream;
+import java.io.CharConversionException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes application/x-www-form-urlencoded bytes as they are read, the way URLDecoder decodes a String, so that an
+ * encoded form field can be parsed without first decoding it into a copy.
+ */
+class UrlDecodingInputStream extends FilterInputStream {
+
+    UrlDecodingInputStream(InputStream in) {
+        super(new BufferedInputStream(in));
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b == '+') {
+            return ' ';
+        }
+        if (b != '%') {
+            return b;
+        }
+        int high = Character.digit(in.read(), 16);
+        int low = Character.digit(in.read(), 16);
+        if (high < 0 || low < 0) {
+            throw new CharConversionException("Invalid escape sequence in encoded data");
+        }
+        return (high << 4) | low;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (count < length) {
+            int b = read();
+            if (b < 0) {
+                break;
+            }
+            buffer[offset + count++] = (byte) b;
+            if (in.available() == 0) {
+                // return what we have rather than block for more
+                break;
+            }
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && read() >= 0) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -1,10 +1,8 @@
 package scot.mygov.housing.forms.modeltenancy;
 
-import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import scot.mygov.PropertyAccessors;
 import scot.mygov.housing.forms.FieldExtractor;
 import scot.mygov.housing.forms.modeltenancy.model.AgentOrLandLord;
 import scot.mygov.housing.forms.modeltenancy.model.CommunicationsAgreement;
@@ -35,15 +33,17 @@ import static scot.mygov.housing.forms.FieldExtractorUtils.addressFieldsMultiple
  */
 public class ModelTenancyFieldExtractor implements FieldExtractor<ModelTenancy> {
 
-    private static final Logger LOG = LoggerFactory.getLogger(ModelTenancyFieldExtractor.class);
-
     public static final String NEWLINE = "\n";
 
-    private DepositSchemeAdministrators depositScemeAdministrators = new DepositSchemeAdministrators();
+    private final DepositSchemeAdministrators depositScemeAdministrators;
 
-    @Inject
     public ModelTenancyFieldExtractor() {
-        // Default constructor
+        this(new DepositSchemeAdministrators());
+    }
+
+    @Inject
+    public ModelTenancyFieldExtractor(DepositSchemeAdministrators depositScemeAdministrators) {
+        this.depositScemeAdministrators = depositScemeAdministrators;
     }
 
     public Map<String, Object> extractFields(ModelTenancy tenancy) {
@@ -274,14 +274,8 @@ public class ModelTenancyFieldExtractor implements FieldExtractor<ModelTenancy>
     }
 
     private void extractOptionalTerms(OptionalTerms optionalTerms, Map<String, Object> fields) {
-        try {
-            BeanUtils.describe(optionalTerms)
-                    .entrySet()
-                    .stream()
-                    .forEach(entry -> fields.put(entry.getKey(), entry.getValue()));
-        } catch (Exception e) {
-            LOG.warn("Failed to extract properties", e);
-        }
+        PropertyAccessors.getters(OptionalTerms.class)
+                .forEach((name, getter) -> fields.put(name, getter.apply(optionalTerms)));
     }
 
     private String regNumber(AgentOrLandLord landlord) {
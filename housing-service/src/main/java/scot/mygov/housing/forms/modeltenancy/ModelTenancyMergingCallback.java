@@ -6,11 +6,11 @@ import com.aspose.words.IFieldMergingCallback;
 import com.aspose.words.ImageFieldMergingArgs;
 import com.aspose.words.ParagraphFormat;
 import com.aspose.words.Section;
-import org.apache.commons.beanutils.BeanUtils;
+import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
 
+import scot.mygov.PropertyAccessors;
 import scot.mygov.housing.forms.FieldExtractorUtils;
-import scot.mygov.housing.forms.InitialisationFailedException;
 import scot.mygov.housing.forms.modeltenancy.model.Guarantor;
 import scot.mygov.housing.forms.modeltenancy.model.ModelTenancy;
 import scot.mygov.housing.forms.modeltenancy.model.OptionalTerms;
@@ -18,10 +18,10 @@ import scot.mygov.housing.forms.modeltenancy.model.Person;
 import scot.mygov.housing.forms.modeltenancy.model.Term;
 
 import java.awt.*;
-import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.addAll;
@@ -40,143 +40,171 @@ public class ModelTenancyMergingCallback implements IFieldMergingCallback {
 
     private static final String ALTERATIONS = "alterations";
     private static final String DATE_LABEL = "Date:";
+    private static final String UTILITIES = "utilities";
     private static final String UTILITIES_LIST = "[gas/electricity/telephone/TV licence/internet/broadband]";
-    // the name of fields that will cause their section to be removed if they are empty
-    private static final Set<String> fieldsToRemoveIfEmpty = fieldsToDeleteIfEmpty();
+    private static final String EASYREAD_NOTES = "EasyreadNotes";
     private static final OptionalTerms defaultTerms = TermsUtil.defaultOptionalTerms();
     private static final OptionalTerms defaultNotes = TermsUtil.defaultEasyreadNotes();
+    private static final String defaultNotificationResidents =
+            TermsUtil.defaultMustIncludeTerms().getNotificationResidents();
 
-    private final ModelTenancy tenancy;
+    private static final Map<String, Consumer<DocumentBuilder>> PLACEHOLDERS = placeholders();
 
-    private Map<String, Consumer<DocumentBuilder>> placeholders = new HashMap<>();
+    // the handler for each field name, built once so that merging a field is a single lookup
+    private static final Map<String, FieldHandler> HANDLERS = handlers();
+
+    private final ModelTenancy tenancy;
 
     public ModelTenancyMergingCallback(ModelTenancy tenancy) {
         this.tenancy = tenancy;
-        populatePlaceholders();
     }
 
-    public void populatePlaceholders() {
-        placeholders.put("tenantNamesAndAddresses", numberedDoubleLines(5));
-        placeholders.put("tenantEmails", numberedLines(5));
-        placeholders.put("tenantPhoneNumbers", numberedLines(5));
-        placeholders.put("lettingAgentName", lines(1));
-        placeholders.put("lettingAgentAddress", lines(3));
-        placeholders.put("lettingAgentEmail", lines(1));
-        placeholders.put("lettingAgentPhone", lines(1));
-        placeholders.put("lettingAgentRegistrationNumber", lines(1));
-        placeholders.put("lettingAgentServices", lines(3));
-        placeholders.put("lettingAgentPointOfContactServices", lines(3));
-        placeholders.put("landlordNames", numberedLines("Name ", "\n\n\n", 2));
-        placeholders.put("landlordAddresses", numberedLines("Address ", "\n\n\n", 2));
-        placeholders.put("landlordEmails", numberedLines(2));
-        placeholders.put("landlordPhones", numberedLines(2));
-        placeholders.put("landlordRegNumbers", numberedLinesWithLabel("Landlord Registration number ", 2));
-        placeholders.put("propertyAddress", lines(3));
-        placeholders.put("propertyType", lines(1));
-        placeholders.put("includedAreasOrFacilities",lines(2));
-        placeholders.put("sharedFacilities", lines(2));
-        placeholders.put("excludedAreasFacilities", lines(2));
-        placeholders.put("furnishingType", inline("[Furnished / Unfurnished / Partly furnished]"));
-        placeholders.put("hmoString", inline("[is / is not]"));
-        placeholders.put("hmoContactNumber", lines(2));
-        placeholders.put("hmoExpiryDate", inlineDate());
-        placeholders.put("tenancyStartDate", inlineDate());
-        placeholders.put("depositAmount", inlineMonetaryValue());
-        placeholders.put("depositSchemeAdministrator", inline("______________________________"));
-        placeholders.put("depositSchemeContactDetails", lines(4));
-        placeholders.put("rentAmount", inlineMonetaryValue());
-        placeholders.put("originalRentAmount", inlineMonetaryValue());
-        placeholders.put("rentPressureZoneString", inline("[is / is not]"));
-        placeholders.put("servicesIncludedInRent", lines(3));
-        placeholders.put("firstPaymentDate", inlineDate());
-        placeholders.put("advanceOrArrears", inline("[advance / arears]"));
-        placeholders.put("firstPaymentAmount", inlineMonetaryValue());
-        placeholders.put("firstPaymentPeriodStart", inlineDate());
-        placeholders.put("firstPaymentPeriodEnd", inlineDate());
-        placeholders.put("rentPaymentFrequencyDayOrDate", inline("__________"));
-        placeholders.put("rentPaymentSchedule", inline("[day of each week/fortnight/four weekly period/date each calendar month/date each 3-month period/date each 6-month period]"));
-
-        placeholders.put("rentPaymentMethod", inline("__________"));
-        placeholders.put("rentPaymentFrequency", inline("[week/fortnight/four weeks/calendar month/quarter/six months]"));
+    private static Map<String, Consumer<DocumentBuilder>> placeholders() {
+        return ImmutableMap.<String, Consumer<DocumentBuilder>>builder()
+                .put("tenantNamesAndAddresses", numberedDoubleLines(5))
+                .put("tenantEmails", numberedLines(5))
+                .put("tenantPhoneNumbers", numberedLines(5))
+                .put("lettingAgentName", lines(1))
+                .put("lettingAgentAddress", lines(3))
+                .put("lettingAgentEmail", lines(1))
+                .put("lettingAgentPhone", lines(1))
+                .put("lettingAgentRegistrationNumber", lines(1))
+                .put("lettingAgentServices", lines(3))
+                .put("lettingAgentPointOfContactServices", lines(3))
+                .put("landlordNames", numberedLines("Name ", "\n\n\n", 2))
+                .put("landlordAddresses", numberedLines("Address ", "\n\n\n", 2))
+                .put("landlordEmails", numberedLines(2))
+                .put("landlordPhones", numberedLines(2))
+                .put("landlordRegNumbers", numberedLinesWithLabel("Landlord Registration number ", 2))
+                .put("propertyAddress", lines(3))
+                .put("propertyType", lines(1))
+                .put("includedAreasOrFacilities", lines(2))
+                .put("sharedFacilities", lines(2))
+                .put("excludedAreasFacilities", lines(2))
+                .put("furnishingType", inline("[Furnished / Unfurnished / Partly furnished]"))
+                .put("hmoString", inline("[is / is not]"))
+                .put("hmoContactNumber", lines(2))
+                .put("hmoExpiryDate", inlineDate())
+                .put("tenancyStartDate", inlineDate())
+                .put("depositAmount", inlineMonetaryValue())
+                .put("depositSchemeAdministrator", inline("______________________________"))
+                .put("depositSchemeContactDetails", lines(4))
+                .put("rentAmount", inlineMonetaryValue())
+                .put("originalRentAmount", inlineMonetaryValue())
+                .put("rentPressureZoneString", inline("[is / is not]"))
+                .put("servicesIncludedInRent", lines(3))
+                .put("firstPaymentDate", inlineDate())
+                .put("advanceOrArrears", inline("[advance / arears]"))
+                .put("firstPaymentAmount", inlineMonetaryValue())
+                .put("firstPaymentPeriodStart", inlineDate())
+                .put("firstPaymentPeriodEnd", inlineDate())
+                .put("rentPaymentFrequencyDayOrDate", inline("__________"))
+                .put("rentPaymentSchedule", inline("[day of each week/fortnight/four weekly period/date each calendar month/date each 3-month period/date each 6-month period]"))
+                .put("rentPaymentMethod", inline("__________"))
+                .put("rentPaymentFrequency", inline("[week/fortnight/four weeks/calendar month/quarter/six months]"))
+                .build();
     }
 
-    @Override
-    public void fieldMerging(FieldMergingArgs fieldMergingArgs) throws Exception {
-
-        String fieldValue = fieldMergingArgs.getFieldValue() == null ?
-                null : fieldMergingArgs.getFieldValue().toString();
-        String fieldName = fieldMergingArgs.getFieldName();
+    /**
+     * Builds the chain of handlers for every field that needs special treatment.  The steps for a field run in the
+     * order they are added here, and a step that returns true ends the chain.
+     */
+    private static Map<String, FieldHandler> handlers() {
+        Map<String, List<FieldHandler>> chains = new LinkedHashMap<>();
 
         // do we want to provide a placeholder for an empty value?
-        if (placeholders.containsKey(fieldName) && StringUtils.isEmpty(fieldValue)) {
-            provdePlacholder(fieldMergingArgs);
-            return;
-        }
+        PLACEHOLDERS.forEach((fieldName, placeholder) -> add(chains, fieldName, placeholderIfEmpty(placeholder)));
 
         // handle guarentors section:
-        handleSignatureBlocks(fieldName, fieldMergingArgs);
+        add(chains, "guarentorSignatures", (callback, args, value) -> {
+            callback.writeGuarentorSignaturesSection(args, callback.tenancy);
+            return false;
+        });
+        add(chains, "tenantSignatures", (callback, args, value) -> {
+            callback.writeSignaturesSection(args, nonEmpty(callback.tenancy.getTenants()), "Tenant");
+            return false;
+        });
+        add(chains, "landlordSignatures", (callback, args, value) -> {
+            callback.writeSignaturesSection(args, nonEmpty(callback.tenancy.getLandlords()), "Landlord");
+            return false;
+        });
 
         // special case for additional terms so that we can insert some html...
-        if ("additionalTerms".equals(fieldName)) {
-            handleAdditionalTerms(fieldMergingArgs, fieldName);
-            return;
-        }
+        add(chains, "additionalTerms", (callback, args, value) -> {
+            callback.handleAdditionalTerms(args, args.getFieldName());
+            return true;
+        });
 
         // special case for utilities - give them a grey background if the user has not edited them...
-        if ("utilities".equals(fieldName) && !StringUtils.isEmpty(fieldValue)) {
-            DocumentBuilder builder = new DocumentBuilder(fieldMergingArgs.getDocument());
-            builder.moveToMergeField(fieldName);
-            String withGreyBackground = "<span style=\"background-color:lightgrey\">" + UTILITIES_LIST + "</span>";
-            String val = fieldValue.replace(UTILITIES_LIST, withGreyBackground);
-            insertHtml(val, builder);
-        }
+        add(chains, UTILITIES, (callback, args, value) -> {
+            if (!StringUtils.isEmpty(value)) {
+                DocumentBuilder builder = new DocumentBuilder(args.getDocument());
+                builder.moveToMergeField(args.getFieldName());
+                String withGreyBackground = "<span style=\"background-color:lightgrey\">" + UTILITIES_LIST + "</span>";
+                callback.insertHtml(value.replace(UTILITIES_LIST, withGreyBackground), builder);
+            }
+            return false;
+        });
 
         // if the field is one of the fieldsToRemoveIfEmpty then remove the sections it is contained within from the
         // document.
-        if (shouldRemoveSection(fieldName, fieldValue)) {
-            Section section = (Section) fieldMergingArgs.getField().getStart().getAncestor(Section.class);
-            section.remove();
-            return;
+        for (String fieldName : fieldsToDeleteIfEmpty()) {
+            add(chains, fieldName, (callback, args, value) -> StringUtils.isEmpty(value) && removeSection(args));
         }
 
+        // special case for alterations
+        add(chains, ALTERATIONS, (callback, args, value) ->
+                callback.tenancy.getExcludedTerms().stream().anyMatch(ALTERATIONS::equals) && removeSection(args));
+
         // special case for notificationResidents
-        if ("notificationResidents".equals(fieldName)) {
-            handleNotificationResidents(fieldMergingArgs, fieldName);
+        add(chains, "notificationResidents", (callback, args, value) -> {
+            callback.handleNotificationResidents(args, args.getFieldName());
+            return false;
+        });
+
+        for (String termName : optionalTermNames()) {
+            add(chains, termName + EASYREAD_NOTES, easyreadNotes(termName));
         }
 
-        handleEasyreadNotes(fieldName, fieldMergingArgs);
+        ImmutableMap.Builder<String, FieldHandler> handlers = ImmutableMap.builder();
+        chains.forEach((fieldName, chain) -> handlers.put(fieldName, chain(chain)));
+        return handlers.build();
     }
 
-    @Override
-    public void imageFieldMerging(ImageFieldMergingArgs imageFieldMergingArgs) throws Exception {
-        // no action needed
+    private static void add(Map<String, List<FieldHandler>> chains, String fieldName, FieldHandler handler) {
+        chains.computeIfAbsent(fieldName, name -> new ArrayList<>()).add(handler);
     }
 
-    private void handleAdditionalTerms(FieldMergingArgs fieldMergingArgs, String fieldName) throws Exception {
-        if (tenancy.getAdditionalTerms().isEmpty()) {
-            Section section = (Section) fieldMergingArgs.getField().getStart().getAncestor(Section.class);
-            section.remove();
-        } else {
-            String html = formatAdditionalTerms(tenancy);
-            DocumentBuilder builder = new DocumentBuilder(fieldMergingArgs.getDocument());
-            builder.moveToMergeField(fieldName);
-            insertHtml(html, builder);
+    private static FieldHandler chain(List<FieldHandler> steps) {
+        if (steps.size() == 1) {
+            return steps.get(0);
         }
+
+        FieldHandler[] chain = steps.toArray(new FieldHandler[0]);
+        return (callback, args, value) -> {
+            for (FieldHandler step : chain) {
+                if (step.handle(callback, args, value)) {
+                    return true;
+                }
+            }
+            return false;
+        };
     }
 
-    private void handleNotificationResidents(FieldMergingArgs fieldMergingArgs, String fieldName)  throws Exception {
-        // if they have changed the term from the deault then add a paragraph break before the altered text.
-        String injectValue = tenancy.getMustIncludeTerms().getNotificationResidents();
-        //StringUtils.difference(TermsUtil.defaultMustIncludeTerms().getNotificationResidents(), )
-        if (!TermsUtil.defaultMustIncludeTerms().getNotificationResidents().equals(injectValue)) {
-            injectValue = "</br></br>" + injectValue;
-        }
-        DocumentBuilder builder = new DocumentBuilder(fieldMergingArgs.getDocument());
-        builder.moveToMergeField(fieldName);
-        insertHtml(injectValue, builder);
+    private static FieldHandler placeholderIfEmpty(Consumer<DocumentBuilder> placeholder) {
+        return (callback, args, value) -> {
+            if (!StringUtils.isEmpty(value)) {
+                return false;
+            }
+            DocumentBuilder builder = new DocumentBuilder(args.getDocument());
+            if (builder.moveToMergeField(args.getFieldName())) {
+                placeholder.accept(builder);
+            }
+            return true;
+        };
     }
 
-    private void handleEasyreadNotes(String fieldName, FieldMergingArgs fieldMergingArgs) throws Exception {
+    private static FieldHandler easyreadNotes(String termName) {
         // For any field ending in EasyreadNotes we need to decide wether to :
         //
         // 1/ include the note (if the term has not been changed by the user)
@@ -185,47 +213,77 @@ public class ModelTenancyMergingCallback implements IFieldMergingCallback {
         //
         // In addition the utilities field is handled slightly differently - changes to the list of utilities is not
         // considered a change in the above logic.
-        if (fieldName.endsWith("EasyreadNotes")) {
-            String termName = StringUtils.substringBeforeLast(fieldName, "EasyreadNotes");
-            String value = BeanUtils.getProperty(tenancy.getOptionalTerms(), termName);
-            String defaultValue = BeanUtils.getProperty(defaultTerms, termName);
+        Function<Object, Object> term = PropertyAccessors.getter(OptionalTerms.class, termName);
+        String defaultValue = (String) term.apply(defaultTerms);
+        String defaultNote = (String) term.apply(defaultNotes);
+        return (callback, args, value) -> {
+            String termValue = (String) term.apply(callback.tenancy.getOptionalTerms());
 
-            if (StringUtils.isEmpty(value)) {
+            if (StringUtils.isEmpty(termValue)) {
                 // user removed the term, remove the section
-                Section section = (Section) fieldMergingArgs.getField().getStart().getAncestor(Section.class);
-                section.remove();
-                return;
+                return removeSection(args);
             }
 
-            String html = htmlEasynoteForTerm(termName, value, defaultValue);
+            String html = htmlEasynoteForTerm(termName, termValue, defaultValue, defaultNote);
 
             // insert the relevant content into the document.
-            DocumentBuilder builder = new DocumentBuilder(fieldMergingArgs.getDocument());
-            builder.moveToMergeField(fieldName);
-            insertHtml(html, builder);
-        }
+            DocumentBuilder builder = new DocumentBuilder(args.getDocument());
+            builder.moveToMergeField(args.getFieldName());
+            callback.insertHtml(html, builder);
+            return true;
+        };
+    }
+
+    private static boolean removeSection(FieldMergingArgs fieldMergingArgs) {
+        Section section = (Section) fieldMergingArgs.getField().getStart().getAncestor(Section.class);
+        section.remove();
+        return true;
+    }
+
+    private static <P extends Person> List<Person> nonEmpty(List<P> people) {
+        return people.stream()
+                .filter(person -> !FieldExtractorUtils.isEmpty(person))
+                .collect(Collectors.toList());
     }
 
-    private void handleSignatureBlocks(String fieldName, FieldMergingArgs fieldMergingArgs) throws Exception {
-        if ("guarentorSignatures".equals(fieldName)) {
-            writeGuarentorSignaturesSection(fieldMergingArgs, tenancy);
+    @Override
+    public void fieldMerging(FieldMergingArgs fieldMergingArgs) throws Exception {
+        FieldHandler handler = HANDLERS.get(fieldMergingArgs.getFieldName());
+        if (handler == null) {
             return;
         }
 
-        if ("tenantSignatures".equals(fieldName)) {
-            writeSignaturesSection(fieldMergingArgs,
-                    tenancy.getTenants().stream()
-                            .filter(tenant -> !FieldExtractorUtils.isEmpty(tenant))
-                            .collect(Collectors.toList()), "Tenant");
-            return;
+        String fieldValue = fieldMergingArgs.getFieldValue() == null ?
+                null : fieldMergingArgs.getFieldValue().toString();
+        handler.handle(this, fieldMergingArgs, fieldValue);
+    }
+
+    @Override
+    public void imageFieldMerging(ImageFieldMergingArgs imageFieldMergingArgs) throws Exception {
+        // no action needed
+    }
+
+    private void handleAdditionalTerms(FieldMergingArgs fieldMergingArgs, String fieldName) throws Exception {
+        if (tenancy.getAdditionalTerms().isEmpty()) {
+            Section section = (Section) fieldMergingArgs.getField().getStart().getAncestor(Section.class);
+            section.remove();
+        } else {
+            String html = formatAdditionalTerms(tenancy);
+            DocumentBuilder builder = new DocumentBuilder(fieldMergingArgs.getDocument());
+            builder.moveToMergeField(fieldName);
+            insertHtml(html, builder);
         }
+    }
 
-        if ("landlordSignatures".equals(fieldName)) {
-            List<Person> landlords = tenancy.getLandlords().stream()
-                    .filter(landlord -> !FieldExtractorUtils.isEmpty(landlord))
-                    .collect(Collectors.toList());
-            writeSignaturesSection(fieldMergingArgs, landlords, "Landlord");
+    private void handleNotificationResidents(FieldMergingArgs fieldMergingArgs, String fieldName)  throws Exception {
+        // if they have changed the term from the deault then add a paragraph break before the altered text.
+        String injectValue = tenancy.getMustIncludeTerms().getNotificationResidents();
+        if (!defaultNotificationResidents.equals(injectValue)) {
+            injectValue = "</br></br>" + injectValue;
         }
+        DocumentBuilder builder = new DocumentBuilder(fieldMergingArgs.getDocument());
+        builder.moveToMergeField(fieldName);
+        insertHtml(injectValue, builder);
     }
 
     private void writeGuarentorSignaturesSection(FieldMergingArgs fieldMergingArgs, ModelTenancy tenancy) throws Exception {
@@ -365,20 +423,10 @@ public class ModelTenancyMergingCallback implements IFieldMergingCallback {
     }
 
 
-    private boolean shouldRemoveSection(String fieldName, String fieldValue) {
-        if (fieldsToRemoveIfEmpty.contains(fieldName) && StringUtils.isEmpty(fieldValue)){
-            return true;
-        }
-
-        // special case for alterations
-        return ALTERATIONS.equals(fieldName) && tenancy.getExcludedTerms().stream().anyMatch(ALTERATIONS::equals);
-    }
-
-    private String htmlEasynoteForTerm(String termName, String value, String defaultValue)
-            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-        if ("utilities".equals(termName)) {
+    private static String htmlEasynoteForTerm(String termName, String value, String defaultValue, String defaultNote) {
+        if (UTILITIES.equals(termName)) {
             // special case for utilities field.
-            return easyreadNotesForUtilities(value, BeanUtils.getProperty(defaultNotes, termName));
+            return easyreadNotesForUtilities(value, defaultNote);
         }
 
         if (!value.equals(defaultValue)) {
@@ -387,7 +435,7 @@ public class ModelTenancyMergingCallback implements IFieldMergingCallback {
         }
 
         // default to using the easytread notes for this field.
-        return BeanUtils.getProperty(defaultNotes, termName);
+        return defaultNote;
     }
 
     private String formatAdditionalTerms(ModelTenancy tenancy) {
@@ -402,18 +450,11 @@ public class ModelTenancyMergingCallback implements IFieldMergingCallback {
         return String.format("<div><strong>%s</strong></div><p>%s</p>", term.getTitle(), term.getContent());
     }
 
-    private void provdePlacholder(FieldMergingArgs fieldMergingArgs) throws Exception {
-        DocumentBuilder builder = new DocumentBuilder(fieldMergingArgs.getDocument());
-        if (builder.moveToMergeField(fieldMergingArgs.getFieldName())) {
-            placeholders.get(fieldMergingArgs.getFieldName()).accept(builder);
-        }
-    }
-
     /**
      * The utilities term contains a placeholder within []'s.
      */
     private static String easyreadNotesForUtilities(String utilitiesTerm, String defaultTerm) {
-        String defaultUtilitiesTerm = TermsUtil.defaultOptionalTerms().getUtilities();
+        String defaultUtilitiesTerm = defaultTerms.getUtilities();
         String prefix = org.apache.commons.lang3.StringUtils.substringBefore(defaultUtilitiesTerm, UTILITIES_LIST);
         String postfix = org.apache.commons.lang3.StringUtils.substringAfter(defaultUtilitiesTerm, UTILITIES_LIST);
         if (utilitiesTerm.startsWith(prefix) && utilitiesTerm.endsWith(postfix)) {
@@ -425,23 +466,24 @@ public class ModelTenancyMergingCallback implements IFieldMergingCallback {
         return EASYREAD_PLACEHOLDER_HTML;
     }
 
-    private static final Set<String> fieldsToDeleteIfEmpty() {
-        Set<String> fields = new HashSet<>();
+    // the name of fields that will cause their section to be removed if they are empty
+    private static Set<String> fieldsToDeleteIfEmpty() {
+        Set<String> fields = new LinkedHashSet<>();
         // add al of the optional sections.
-        try {
-            fields.addAll(BeanUtils.describe(new OptionalTerms()).keySet());
-            fields.remove(ALTERATIONS);
-            // other fields with sections
-            addAll(fields,
-                    "communicationsAgreementType",
-                    "showHmoNotification",
-                    "showHmoFields",
-                    "showEmailParagraphs",
-                    "showLettingAgentService");
-            return fields;
-        } catch (Exception e) {
-            throw new InitialisationFailedException("Failed to extract optional section fields", e);
-        }
+        fields.addAll(optionalTermNames());
+        fields.remove(ALTERATIONS);
+        // other fields with sections
+        addAll(fields,
+                "communicationsAgreementType",
+                "showHmoNotification",
+                "showHmoFields",
+                "showEmailParagraphs",
+                "showLettingAgentService");
+        return fields;
+    }
+
+    private static Set<String> optionalTermNames() {
+        return PropertyAccessors.getters(OptionalTerms.class).keySet();
     }
 
     private void insertHtml(String html, DocumentBuilder builder) throws Exception {
@@ -453,4 +495,13 @@ public class ModelTenancyMergingCallback implements IFieldMergingCallback {
         String htmlWithFont = String.format("<font face=\"arial\">%s</font>", htmlWithBreaks);
         builder.insertHtml(htmlWithFont);
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface FieldHandler {
+
+        /**
+         * @return true if the field has been dealt with and no further handling should be done
+         */
+        boolean handle(ModelTenancyMergingCallback callback, FieldMergingArgs args, String value) throws Exception;
+    }
+}
@@ -4,8 +4,12 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
+import scot.mygov.housing.Cached;
+import scot.mygov.housing.JsonCodec;
 import scot.mygov.housing.forms.AbstractDocumentGenerationResource;
+import scot.mygov.housing.forms.DocumentBatchRenderer;
 import scot.mygov.housing.forms.DocumentGenerationService;
+import scot.mygov.housing.forms.DocumentRequestExecutor;
 import scot.mygov.housing.forms.RecaptchaCheck;
 import scot.mygov.housing.forms.modeltenancy.model.ModelTenancy;
 import scot.mygov.validation.Validator;
@@ -24,14 +28,18 @@ public class ModelTenancyResource extends AbstractDocumentGenerationResource<Mod
             DocumentGenerationService<ModelTenancy> service,
             Validator<ModelTenancy> validator,
             RecaptchaCheck recaptchaCheck,
+            DocumentRequestExecutor requestExecutor,
+            DocumentBatchRenderer batchRenderer,
+            JsonCodec codec,
             ModelTenancyJsonTemplateLoader jsonTemplateLoader) {
-        super(service, recaptchaCheck);
+        super(service, recaptchaCheck, requestExecutor, batchRenderer, codec);
         this.validator = validator;
         this.jsonTemplateLoader = jsonTemplateLoader;
     }
 
     @GET
     @Path("template")
+    @Cached(maxAge = 3600)
     @Produces(MediaType.APPLICATION_JSON)
     public ModelTenancy modelTenancyTemplate() throws ModelTenancyServiceException {
         try {
@@ -1,8 +1,7 @@
 package scot.mygov.housing.forms.modeltenancy.model;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import scot.mygov.UnavailableResourceException;
+import scot.mygov.housing.JsonCodec;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -17,12 +16,15 @@ public class DepositSchemeAdministrators {
     private final Map<String, DepositSchemeAdministrator> depositScemeAdministrators;
 
     public DepositSchemeAdministrators() {
+        this(JsonCodec.defaultCodec());
+    }
+
+    public DepositSchemeAdministrators(JsonCodec codec) {
         // load the data
         InputStream in = DepositSchemeAdministrators.class.getResourceAsStream("/depositSchemeAdministrators.json");
 
         try {
-            List<DepositSchemeAdministrator> administrators = new ObjectMapper()
-                    .readValue(in, new TypeReference<List<DepositSchemeAdministrator>>(){});
+            List<DepositSchemeAdministrator> administrators = codec.readList(in, DepositSchemeAdministrator.class);
             depositScemeAdministrators = administrators
                     .stream()
                     .collect(toMap(admin -> admin.getName().toLowerCase(), identity()));
@@ -8,7 +8,11 @@ import scot.mygov.validation.ValidationRule;
 
 public class DepositSchemeAdministratorRule implements ValidationRule<ModelTenancy> {
 
-    private final DepositSchemeAdministrators administrators = new DepositSchemeAdministrators();
+    private final DepositSchemeAdministrators administrators;
+
+    public DepositSchemeAdministratorRule(DepositSchemeAdministrators administrators) {
+        this.administrators = administrators;
+    }
 
     public void validate(ModelTenancy modelTenancy, ValidationResultsBuilder resultsBuilder) {
 
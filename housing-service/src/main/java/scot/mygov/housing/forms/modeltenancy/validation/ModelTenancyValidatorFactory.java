@@ -1,5 +1,6 @@
 package scot.mygov.housing.forms.modeltenancy.validation;
 
+import scot.mygov.housing.forms.modeltenancy.model.DepositSchemeAdministrators;
 import scot.mygov.housing.forms.modeltenancy.model.ModelTenancy;
 import scot.mygov.validation.MandatoryFieldsRule;
 import scot.mygov.validation.MoneyFieldsRule;
@@ -31,12 +32,22 @@ public class ModelTenancyValidatorFactory {
         "depositAmount"
     };
 
+    private final DepositSchemeAdministrators administrators;
+
+    public ModelTenancyValidatorFactory() {
+        this(new DepositSchemeAdministrators());
+    }
+
+    public ModelTenancyValidatorFactory(DepositSchemeAdministrators administrators) {
+        this.administrators = administrators;
+    }
+
     /**
      * Compose the validation rules used to validate ModelTenancy objects.
      */
     public Validator<ModelTenancy> validator(boolean validationEnabled) {
         List<ValidationRule> rules = new ArrayList<>();
-        addAll(rules, new DepositSchemeAdministratorRule());
+        addAll(rules, new DepositSchemeAdministratorRule(administrators));
 
         if (validationEnabled) {
             addAll(rules,
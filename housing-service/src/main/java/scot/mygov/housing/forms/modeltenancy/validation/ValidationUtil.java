@@ -1,10 +1,10 @@
 package scot.mygov.housing.forms.modeltenancy.validation;
 
-import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scot.mygov.PropertyAccessors;
 import scot.mygov.housing.forms.modeltenancy.model.Person;
 import scot.mygov.validation.ValidationResultsBuilder;
 
@@ -45,7 +45,7 @@ public class ValidationUtil {
             String specificFeild = field + "-" + requiredField;
             String value = null;
             try {
-                value = BeanUtils.getProperty(bean, requiredField);
+                value = PropertyAccessors.getProperty(bean, requiredField);
                 if (StringUtils.isEmpty(value)) {
                     resultsBuilder.issue(specificFeild, "Required");
                 }
@@ -1,8 +1,11 @@
 package scot.mygov.housing.forms.nonprovisionofdocumentation;
 
 import jakarta.ws.rs.Path;
+import scot.mygov.housing.JsonCodec;
 import scot.mygov.housing.forms.AbstractDocumentGenerationResource;
+import scot.mygov.housing.forms.DocumentBatchRenderer;
 import scot.mygov.housing.forms.DocumentGenerationService;
+import scot.mygov.housing.forms.DocumentRequestExecutor;
 import scot.mygov.housing.forms.RecaptchaCheck;
 import scot.mygov.housing.forms.nonprovisionofdocumentation.model.NonProvisionOfDocumentation;
 
@@ -14,8 +17,11 @@ public class NonProvisionOfDocumentationResource extends AbstractDocumentGenerat
     @Inject
     public NonProvisionOfDocumentationResource(
             DocumentGenerationService<NonProvisionOfDocumentation> service,
-            RecaptchaCheck recaptchaCheck) {
-        super(service, recaptchaCheck);
+            RecaptchaCheck recaptchaCheck,
+            DocumentRequestExecutor requestExecutor,
+            DocumentBatchRenderer batchRenderer,
+            JsonCodec codec) {
+        super(service, recaptchaCheck, requestExecutor, batchRenderer, codec);
     }
 
     protected String contentDispositionFilenameStem() {
@@ -1,7 +1,8 @@
 package scot.mygov.housing.forms.noticetoleave;
 
 import com.aspose.words.DocumentBuilder;
-import java.util.HashMap;
+import com.google.common.collect.ImmutableMap;
+
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -10,18 +11,21 @@ import static scot.mygov.documents.PlaceholderUtils.lines;
 
 public class NoticeToLeavePlaceholders {
 
+    private static final Map<String, Consumer<DocumentBuilder>> PLACEHOLDERS =
+            ImmutableMap.<String, Consumer<DocumentBuilder>>builder()
+                    .put("tenantNames", lines(1))
+                    .put("address", lines(5))
+                    .put("reasonDetails", lines(6))
+                    .put("supportingEvidence", lines(6))
+                    .put("earliestTribunualDate", inlineDate())
+                    .build();
+
     private NoticeToLeavePlaceholders() {
         // do not instantiate
     }
 
     public static Map<String, Consumer<DocumentBuilder>> placeholders() {
-        Map<String, Consumer<DocumentBuilder>> placeholders = new HashMap<>();
-        placeholders.put("tenantNames", lines(1));
-        placeholders.put("address", lines(5));
-        placeholders.put("reasonDetails", lines(6));
-        placeholders.put("supportingEvidence", lines(6));
-        placeholders.put("earliestTribunualDate", inlineDate());
-        return placeholders;
+        return PLACEHOLDERS;
     }
 
 }
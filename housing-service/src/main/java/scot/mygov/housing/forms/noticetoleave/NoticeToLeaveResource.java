@@ -1,8 +1,11 @@
 package scot.mygov.housing.forms.noticetoleave;
 
 import jakarta.ws.rs.Path;
+import scot.mygov.housing.JsonCodec;
 import scot.mygov.housing.forms.AbstractDocumentGenerationResource;
+import scot.mygov.housing.forms.DocumentBatchRenderer;
 import scot.mygov.housing.forms.DocumentGenerationService;
+import scot.mygov.housing.forms.DocumentRequestExecutor;
 import scot.mygov.housing.forms.RecaptchaCheck;
 import scot.mygov.housing.forms.noticetoleave.model.NoticeToLeave;
 
@@ -12,8 +15,13 @@ import javax.inject.Inject;
 public class NoticeToLeaveResource extends AbstractDocumentGenerationResource<NoticeToLeave> {
 
     @Inject
-    public NoticeToLeaveResource(DocumentGenerationService<NoticeToLeave> service, RecaptchaCheck recaptchaCheck) {
-        super(service, recaptchaCheck);
+    public NoticeToLeaveResource(
+            DocumentGenerationService<NoticeToLeave> service,
+            RecaptchaCheck recaptchaCheck,
+            DocumentRequestExecutor requestExecutor,
+            DocumentBatchRenderer batchRenderer,
+            JsonCodec codec) {
+        super(service, recaptchaCheck, requestExecutor, batchRenderer, codec);
     }
 
     protected String contentDispositionFilenameStem() {
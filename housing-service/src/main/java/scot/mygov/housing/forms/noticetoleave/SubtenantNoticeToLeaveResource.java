@@ -1,8 +1,11 @@
 package scot.mygov.housing.forms.noticetoleave;
 
 import jakarta.ws.rs.Path;
+import scot.mygov.housing.JsonCodec;
 import scot.mygov.housing.forms.AbstractDocumentGenerationResource;
+import scot.mygov.housing.forms.DocumentBatchRenderer;
 import scot.mygov.housing.forms.DocumentGenerationService;
+import scot.mygov.housing.forms.DocumentRequestExecutor;
 import scot.mygov.housing.forms.RecaptchaCheck;
 import scot.mygov.housing.forms.noticetoleave.model.NoticeToLeave;
 
@@ -16,8 +19,11 @@ public class SubtenantNoticeToLeaveResource extends AbstractDocumentGenerationRe
     public SubtenantNoticeToLeaveResource(
             @Named("subtenantNoticeToLeaveDocumentGenerationService")
             DocumentGenerationService<NoticeToLeave> service,
-            RecaptchaCheck recaptchaCheck) {
-        super(service, recaptchaCheck);
+            RecaptchaCheck recaptchaCheck,
+            DocumentRequestExecutor requestExecutor,
+            DocumentBatchRenderer batchRenderer,
+            JsonCodec codec) {
+        super(service, recaptchaCheck, requestExecutor, batchRenderer, codec);
     }
 
     protected String contentDispositionFilenameStem() {
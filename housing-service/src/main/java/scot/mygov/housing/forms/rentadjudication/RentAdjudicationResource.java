@@ -1,8 +1,11 @@
 package scot.mygov.housing.forms.rentadjudication;
 
 import jakarta.ws.rs.Path;
+import scot.mygov.housing.JsonCodec;
 import scot.mygov.housing.forms.AbstractDocumentGenerationResource;
+import scot.mygov.housing.forms.DocumentBatchRenderer;
 import scot.mygov.housing.forms.DocumentGenerationService;
+import scot.mygov.housing.forms.DocumentRequestExecutor;
 import scot.mygov.housing.forms.RecaptchaCheck;
 import scot.mygov.housing.forms.rentadjudication.model.RentAdjudication;
 
@@ -12,8 +15,13 @@ import javax.inject.Inject;
 public class RentAdjudicationResource extends AbstractDocumentGenerationResource<RentAdjudication> {
 
     @Inject
-    public RentAdjudicationResource(DocumentGenerationService<RentAdjudication> service, RecaptchaCheck recaptchaCheck) {
-        super(service, recaptchaCheck);
+    public RentAdjudicationResource(
+            DocumentGenerationService<RentAdjudication> service,
+            RecaptchaCheck recaptchaCheck,
+            DocumentRequestExecutor requestExecutor,
+            DocumentBatchRenderer batchRenderer,
+            JsonCodec codec) {
+        super(service, recaptchaCheck, requestExecutor, batchRenderer, codec);
     }
 
     protected String contentDispositionFilenameStem() {
@@ -1,8 +1,11 @@
 package scot.mygov.housing.forms.rentincreasenotice;
 
 import jakarta.ws.rs.Path;
+import scot.mygov.housing.JsonCodec;
 import scot.mygov.housing.forms.AbstractDocumentGenerationResource;
+import scot.mygov.housing.forms.DocumentBatchRenderer;
 import scot.mygov.housing.forms.DocumentGenerationService;
+import scot.mygov.housing.forms.DocumentRequestExecutor;
 import scot.mygov.housing.forms.RecaptchaCheck;
 import scot.mygov.housing.forms.rentincreasenotice.model.RentIncrease;
 
@@ -12,8 +15,13 @@ import javax.inject.Inject;
 public class RentIncreaseResource extends AbstractDocumentGenerationResource<RentIncrease> {
 
     @Inject
-    public RentIncreaseResource(DocumentGenerationService<RentIncrease> service, RecaptchaCheck recaptchaCheck) {
-        super(service, recaptchaCheck);
+    public RentIncreaseResource(
+            DocumentGenerationService<RentIncrease> service,
+            RecaptchaCheck recaptchaCheck,
+            DocumentRequestExecutor requestExecutor,
+            DocumentBatchRenderer batchRenderer,
+            JsonCodec codec) {
+        super(service, recaptchaCheck, requestExecutor, batchRenderer, codec);
     }
     protected String contentDispositionFilenameStem() {
         return "rent-increase";
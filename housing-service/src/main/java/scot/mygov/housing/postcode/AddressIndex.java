@@ -0,0 +1,217 @@
+package scot.mygov.housing.postcode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Read only view of an address index file, memory mapped so that lookups do no I/O of their own.
+ *
+ * The file is written by AddressIndexBuilder and is laid out as:
+ * <ul>
+ *     <li>a header: magic, version, address count, postcode count, uprn count and the offsets of the two tables</li>
+ *     <li>the address records, grouped by postcode in display order, each as eight length prefixed UTF-8 fields</li>
+ *     <li>the postcode table: postcode packed into a long, offset of its first record and its record count</li>
+ *     <li>the uprn table: uprn and the offset of its record</li>
+ * </ul>
+ * Both tables are sorted by key and searched with a binary search.  All reads are absolute, so one instance can be
+ * shared between threads.
+ */
+public class AddressIndex {
+
+    static final int MAGIC = 0x48494458;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 28;
+
+    static final int POSTCODE_ENTRY_BYTES = 16;
+
+    static final int UPRN_ENTRY_BYTES = 12;
+
+    static final int NULL_FIELD = 0xFFFF;
+
+    private final ByteBuffer buffer;
+
+    private final int addressCount;
+
+    private final int postcodeCount;
+
+    private final int uprnCount;
+
+    private final int postcodeTable;
+
+    private final int uprnTable;
+
+    AddressIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an address index");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported address index version " + buffer.getInt(4));
+        }
+        this.addressCount = buffer.getInt(8);
+        this.postcodeCount = buffer.getInt(12);
+        this.uprnCount = buffer.getInt(16);
+        this.postcodeTable = buffer.getInt(20);
+        this.uprnTable = buffer.getInt(24);
+        if ((long) uprnTable + (long) uprnCount * UPRN_ENTRY_BYTES > buffer.limit()) {
+            throw new IOException("Truncated address index");
+        }
+    }
+
+    public static AddressIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new AddressIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getAddressCount() {
+        return addressCount;
+    }
+
+    public int getPostcodeCount() {
+        return postcodeCount;
+    }
+
+    /**
+     * The addresses for a postcode, or null if the postcode is not in the index.
+     */
+    public PostcodeServiceResults lookupPostcode(String postcode) {
+        long key = postcodeKey(postcode);
+        if (key == 0) {
+            return null;
+        }
+
+        int entry = find(postcodeTable, postcodeCount, POSTCODE_ENTRY_BYTES, key, true);
+        if (entry < 0) {
+            return null;
+        }
+
+        Cursor cursor = new Cursor(buffer.getInt(entry + 8));
+        int count = buffer.getInt(entry + 12);
+        List<PostcodeServiceResult> addresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            addresses.add(cursor.nextRecord());
+        }
+        PostcodeServiceResults results = new PostcodeServiceResults();
+        results.setResults(addresses);
+        return results;
+    }
+
+    /**
+     * The address with a uprn, or null if the uprn is not in the index.
+     */
+    public PostcodeServiceResult lookupUprn(String uprn) {
+        long key = uprnKey(uprn);
+        if (key < 0) {
+            return null;
+        }
+
+        int entry = find(uprnTable, uprnCount, UPRN_ENTRY_BYTES, key, false);
+        return entry < 0 ? null : new Cursor(buffer.getInt(entry + 8)).nextRecord();
+    }
+
+    private int find(int table, int count, int entryBytes, long key, boolean unsigned) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = table + mid * entryBytes;
+            long midKey = buffer.getLong(entry);
+            int compare = unsigned ? Long.compareUnsigned(midKey, key) : Long.compare(midKey, key);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Packs a postcode, ignoring case and spaces, into the eight bytes of a long so that keys compare as numbers.
+     *
+     * @return the key, or 0 if the string cannot be a postcode
+     */
+    static long postcodeKey(String postcode) {
+        if (postcode == null) {
+            return 0;
+        }
+        long key = 0;
+        int length = 0;
+        for (int i = 0; i < postcode.length(); i++) {
+            char c = postcode.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c > 127 || ++length > Long.BYTES) {
+                return 0;
+            }
+            key = (key << 8) | Character.toUpperCase(c);
+        }
+        return length == 0 ? 0 : key << (8 * (Long.BYTES - length));
+    }
+
+    /**
+     * @return the uprn as a number, or -1 if it is not one
+     */
+    static long uprnKey(String uprn) {
+        if (uprn == null || uprn.isEmpty() || uprn.length() > 18) {
+            return -1;
+        }
+        long key = 0;
+        for (int i = 0; i < uprn.length(); i++) {
+            int digit = Character.digit(uprn.charAt(i), 10);
+            if (digit < 0) {
+                return -1;
+            }
+            key = key * 10 + digit;
+        }
+        return key;
+    }
+
+    private class Cursor {
+
+        private int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+
+        PostcodeServiceResult nextRecord() {
+            PostcodeServiceResult result = new PostcodeServiceResult();
+            result.setUprn(nextField());
+            result.setBuilding(nextField());
+            result.setOrg(nextField());
+            result.setStreet(nextField());
+            result.setLocality(nextField());
+            result.setTown(nextField());
+            result.setPostcode(nextField());
+            result.setCountry(nextField());
+            return result;
+        }
+
+        private String nextField() {
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            position += Short.BYTES;
+            if (length == NULL_FIELD) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, UTF_8);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package scot.mygov.housing.postcode;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import scot.mygov.housing.JsonCodec;
+import scot.mygov.housing.europa.EuropaAddress;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Builds an AddressIndex file from an extract of addresses.
+ *
+ * The extract is either newline delimited JSON, one Europa address per line, or CSV with a header row.  CSV columns
+ * are matched to the Europa address fields by name, ignoring case and the dpa_ prefix, so an AddressBase Plus extract
+ * with columns such as UPRN, BUILDING_NUMBER, THOROUGHFARE, POST_TOWN and POSTCODE can be used as it is.  Other
+ * columns are ignored.  Addresses are formatted the same way as Europa results, so the index answers exactly as
+ * Europa would.
+ *
+ * The extract is sorted in runs of at most runSize addresses, which are spilled to temporary files alongside the target
+ * and merged as the index is written, so memory use does not grow with the size of the extract.  The index is written
+ * alongside the target and moved into place, so a running service never sees a partly written file.
+ *
+ * Can be run on its own: {@code java -cp housing.jar scot.mygov.housing.postcode.AddressIndexBuilder extract.csv
+ * address.idx}
+ */
+public class AddressIndexBuilder {
+
+    static final int RUN_SIZE = 100_000;
+
+    private static final Comparator<PostcodeServiceResult> ADDRESS_ORDER = Comparator
+            .comparing((PostcodeServiceResult address) -> AddressIndex.postcodeKey(address.getPostcode()),
+                    Long::compareUnsigned)
+            .thenComparing(PostcodeServiceResult.comparator());
+
+    // by uprn and then latest record first
+    private static final Comparator<long[]> UPRN_ORDER = Comparator
+            .comparingLong((long[] entry) -> entry[0])
+            .thenComparing(entry -> entry[1], Comparator.reverseOrder());
+
+    private static final SortedRuns.Format<PostcodeServiceResult> ADDRESS_FORMAT =
+            new SortedRuns.Format<PostcodeServiceResult>() {
+                @Override
+                public void write(DataOutputStream out, PostcodeServiceResult address) throws IOException {
+                    writeRecord(out, address);
+                }
+
+                @Override
+                public PostcodeServiceResult read(DataInputStream in) throws IOException {
+                    return readRecord(in);
+                }
+            };
+
+    private static final SortedRuns.Format<long[]> UPRN_FORMAT = new SortedRuns.Format<long[]>() {
+        @Override
+        public void write(DataOutputStream out, long[] entry) throws IOException {
+            out.writeLong(entry[0]);
+            out.writeInt((int) entry[1]);
+        }
+
+        @Override
+        public long[] read(DataInputStream in) throws IOException {
+            return new long[] { in.readLong(), in.readInt() };
+        }
+    };
+
+    private final ObjectReader addressReader;
+
+    private final JsonCodec codec;
+
+    private final int runSize;
+
+    public AddressIndexBuilder(JsonCodec codec) {
+        this(codec, RUN_SIZE);
+    }
+
+    /**
+     * @param runSize the most addresses to hold in memory while sorting
+     */
+    AddressIndexBuilder(JsonCodec codec, int runSize) {
+        this.codec = codec;
+        this.runSize = runSize;
+        this.addressReader = codec.reader(EuropaAddress.class);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: AddressIndexBuilder <extract.csv|extract.ndjson> <index>");
+            System.exit(1);
+        }
+        int count = new AddressIndexBuilder(JsonCodec.defaultCodec()).build(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Indexed " + count + " addresses");
+    }
+
+    /**
+     * @return the number of addresses indexed
+     */
+    public int build(Path source, Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        int count;
+        try (SortedRuns<PostcodeServiceResult> addresses =
+                     new SortedRuns<>(directory, runSize, ADDRESS_ORDER, ADDRESS_FORMAT)) {
+            read(source, addresses);
+            count = write(addresses, temp, directory, runSize);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    private void read(Path source, SortedRuns<PostcodeServiceResult> addresses) throws IOException {
+        String name = source.getFileName().toString();
+        boolean json = name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json");
+        try (BufferedReader reader = Files.newBufferedReader(source, UTF_8)) {
+            List<String> header = json ? null : columns(reader.readLine());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                EuropaAddress address = json ? addressReader.readValue(line) : csvAddress(header, line);
+                PostcodeServiceResult result = EuropaPostcodeService.toResult(address);
+                if (AddressIndex.postcodeKey(result.getPostcode()) != 0) {
+                    addresses.add(result);
+                }
+            }
+        }
+    }
+
+    private List<String> columns(String headerLine) throws IOException {
+        if (headerLine == null) {
+            throw new IOException("Address extract has no header row");
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : parseCsvLine(headerLine)) {
+            String property = column.trim().toLowerCase();
+            if (!"uprn".equals(property) && !"country".equals(property) && !property.startsWith("dpa_")) {
+                property = "dpa_" + property;
+            }
+            columns.add(property);
+        }
+        return columns;
+    }
+
+    private EuropaAddress csvAddress(List<String> columns, String line) {
+        List<String> values = parseCsvLine(line);
+        Map<String, String> properties = new HashMap<>();
+        for (int i = 0; i < columns.size() && i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                properties.put(columns.get(i), values.get(i));
+            }
+        }
+        return codec.getMapper().convertValue(properties, EuropaAddress.class);
+    }
+
+    /**
+     * Splits a line of CSV, allowing for quoted values with embedded commas and doubled quotes.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * @return the number of addresses written
+     */
+    private static int write(SortedRuns<PostcodeServiceResult> addresses, Path target, Path directory, int runSize)
+            throws IOException {
+        // the addresses arrive grouped by postcode, in key order, with each postcode's addresses in display order
+        List<long[]> postcodeEntries = new ArrayList<>();
+        int addressCount = 0;
+        int uprnCount = 0;
+        int postcodeTable;
+        int uprnTable;
+        try (SortedRuns<long[]> uprnEntries = new SortedRuns<>(directory, runSize, UPRN_ORDER, UPRN_FORMAT);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            out.write(new byte[AddressIndex.HEADER_BYTES]);
+            try (SortedRuns.Merge<PostcodeServiceResult> merge = addresses.merge()) {
+                long[] group = null;
+                PostcodeServiceResult address;
+                while ((address = merge.next()) != null) {
+                    long key = AddressIndex.postcodeKey(address.getPostcode());
+                    if (group == null || group[0] != key) {
+                        group = new long[] { key, out.size(), 0 };
+                        postcodeEntries.add(group);
+                    }
+                    group[2]++;
+                    long uprn = AddressIndex.uprnKey(address.getUprn());
+                    if (uprn >= 0) {
+                        uprnEntries.add(new long[] { uprn, out.size() });
+                    }
+                    writeRecord(out, address);
+                    addressCount++;
+                }
+            }
+
+            postcodeTable = out.size();
+            for (long[] entry : postcodeEntries) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+                out.writeInt((int) entry[2]);
+            }
+            uprnTable = out.size();
+            try (SortedRuns.Merge<long[]> merge = uprnEntries.merge()) {
+                // a uprn that appears more than once points at its last record
+                long previous = -1;
+                long[] entry;
+                while ((entry = merge.next()) != null) {
+                    if (entry[0] != previous) {
+                        previous = entry[0];
+                        out.writeLong(entry[0]);
+                        out.writeInt((int) entry[1]);
+                        uprnCount++;
+                    }
+                }
+            }
+            if (out.size() == Integer.MAX_VALUE) {
+                throw new IOException("Address index would be larger than 2GB");
+            }
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw")) {
+            file.writeInt(AddressIndex.MAGIC);
+            file.writeInt(AddressIndex.VERSION);
+            file.writeInt(addressCount);
+            file.writeInt(postcodeEntries.size());
+            file.writeInt(uprnCount);
+            file.writeInt(postcodeTable);
+            file.writeInt(uprnTable);
+        }
+        return addressCount;
+    }
+
+    private static void writeRecord(DataOutputStream out, PostcodeServiceResult address) throws IOException {
+        writeField(out, address.getUprn());
+        writeField(out, address.getBuilding());
+        writeField(out, address.getOrg());
+        writeField(out, address.getStreet());
+        writeField(out, address.getLocality());
+        writeField(out, address.getTown());
+        writeField(out, address.getPostcode());
+        writeField(out, address.getCountry());
+    }
+
+    private static PostcodeServiceResult readRecord(DataInputStream in) throws IOException {
+        PostcodeServiceResult address = new PostcodeServiceResult();
+        address.setUprn(readField(in));
+        address.setBuilding(readField(in));
+        address.setOrg(readField(in));
+        address.setStreet(readField(in));
+        address.setLocality(readField(in));
+        address.setTown(readField(in));
+        address.setPostcode(readField(in));
+        address.setCountry(readField(in));
+        return address;
+    }
+
+    private static void writeField(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(AddressIndex.NULL_FIELD);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        if (bytes.length >= AddressIndex.NULL_FIELD) {
+            throw new IOException("Address field too long: " + value.substring(0, 40));
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readField(DataInputStream in) throws IOException {
+        int length = in.readUnsignedShort();
+        if (length == AddressIndex.NULL_FIELD) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+package scot.mygov.housing.postcode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchLookupRequest {
+
+    private List<String> postcodes = new ArrayList<>();
+
+    private List<String> uprns = new ArrayList<>();
+
+    public List<String> getPostcodes() {
+        return postcodes;
+    }
+
+    public void setPostcodes(List<String> postcodes) {
+        this.postcodes = postcodes;
+    }
+
+    public List<String> getUprns() {
+        return uprns;
+    }
+
+    public void setUprns(List<String> uprns) {
+        this.uprns = uprns;
+    }
+}
@@ -0,0 +1,44 @@
+package scot.mygov.housing.postcode;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The outcome of looking up one postcode or uprn in a batch: either its addresses or an error.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchLookupResult {
+
+    private List<PostcodeServiceResult> results;
+
+    private String error;
+
+    public static BatchLookupResult results(List<PostcodeServiceResult> results) {
+        BatchLookupResult result = new BatchLookupResult();
+        result.setResults(results);
+        return result;
+    }
+
+    public static BatchLookupResult error(String error) {
+        BatchLookupResult result = new BatchLookupResult();
+        result.setError(error);
+        return result;
+    }
+
+    public List<PostcodeServiceResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<PostcodeServiceResult> results) {
+        this.results = results;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
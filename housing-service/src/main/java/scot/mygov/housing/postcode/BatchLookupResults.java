@@ -0,0 +1,30 @@
+package scot.mygov.housing.postcode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Results of a batch lookup, keyed by the postcodes and uprns exactly as they were given.
+ */
+public class BatchLookupResults {
+
+    private Map<String, BatchLookupResult> postcodes = new LinkedHashMap<>();
+
+    private Map<String, BatchLookupResult> uprns = new LinkedHashMap<>();
+
+    public Map<String, BatchLookupResult> getPostcodes() {
+        return postcodes;
+    }
+
+    public void setPostcodes(Map<String, BatchLookupResult> postcodes) {
+        this.postcodes = postcodes;
+    }
+
+    public Map<String, BatchLookupResult> getUprns() {
+        return uprns;
+    }
+
+    public void setUprns(Map<String, BatchLookupResult> uprns) {
+        this.uprns = uprns;
+    }
+}
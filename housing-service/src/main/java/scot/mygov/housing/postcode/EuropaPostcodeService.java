@@ -1,12 +1,14 @@
 package scot.mygov.housing.postcode;
 
+import com.codahale.metrics.MetricRegistry;
 import org.apache.commons.lang3.StringUtils;
+import scot.mygov.housing.HousingConfiguration;
 import scot.mygov.housing.europa.Europa;
 import scot.mygov.housing.europa.EuropaAddress;
 import scot.mygov.housing.europa.EuropaException;
-import scot.mygov.housing.europa.EuropaResults;
 
 import javax.inject.Inject;
+import java.time.Duration;
 import java.util.*;
 
 import static java.util.stream.Collectors.joining;
@@ -15,6 +17,7 @@ public class EuropaPostcodeService implements PostcodeService {
 
     private final Europa europa;
 
+    private final PostcodeCache cache;
 
     private static final Map<String, String> COUNTRY_MAP;
 
@@ -28,26 +31,45 @@ public class EuropaPostcodeService implements PostcodeService {
     @Inject
     public EuropaPostcodeService(Europa europa) {
         this.europa = europa;
+        this.cache = null;
+    }
+
+    /**
+     * Cache lookups by postcode, as configured.
+     */
+    public EuropaPostcodeService(Europa europa, HousingConfiguration.PostcodeCache config, MetricRegistry registry) {
+        this.europa = europa;
+        this.cache = new PostcodeCache(
+                this::fetch,
+                Duration.parse(config.getTtl()),
+                Duration.parse(config.getStaleWhileRevalidate()),
+                Duration.parse(config.getNegativeTtl()),
+                config.getMaxEntries(),
+                registry);
     }
 
     public PostcodeServiceResults lookup(String postcode) throws PostcodeServiceException {
+        return cache == null ? fetch(postcode) : cache.get(postcode);
+    }
+
+    public PostcodeServiceResult lookupUprn(String uprn) throws PostcodeServiceException {
         try {
-            return toResults(europa.lookupPostcode(postcode));
+            List<PostcodeServiceResult> results = europa.lookupUprn(uprn, PostcodeResultsReader.INSTANCE).getResults();
+            return results.isEmpty() ? null : results.get(0);
         } catch (EuropaException e) {
-            throw new PostcodeServiceException("Postcode lookup failed.", e);
+            throw new PostcodeServiceException("UPRN lookup failed.", e);
         }
     }
 
-    private PostcodeServiceResults toResults(EuropaResults from) {
-        List<PostcodeServiceResult> to = from.getMetadata().getCount() == 0
-                ? Collections.emptyList()
-                : from.getResults().get(0).getAddress().stream().map(this::toResult).sorted(PostcodeServiceResult.comparator()).toList();
-        PostcodeServiceResults res = new PostcodeServiceResults();
-        res.setResults(to);
-        return res;
+    private PostcodeServiceResults fetch(String postcode) throws PostcodeServiceException {
+        try {
+            return europa.lookupPostcode(postcode, PostcodeResultsReader.INSTANCE);
+        } catch (EuropaException e) {
+            throw new PostcodeServiceException("Postcode lookup failed.", e);
+        }
     }
 
-    private PostcodeServiceResult toResult(EuropaAddress from) {
+    static PostcodeServiceResult toResult(EuropaAddress from) {
         PostcodeServiceResult to = new PostcodeServiceResult();
         to.setUprn(from.getUprn());
         to.setBuilding(building(from));
@@ -60,11 +82,11 @@ public class EuropaPostcodeService implements PostcodeService {
         return to;
     }
 
-    String organisation(EuropaAddress from) {
+    static String organisation(EuropaAddress from) {
         return combineFields(from.getDepartmentName(), from.getOrganisationName());
     }
 
-    String building(EuropaAddress from) {
+    static String building(EuropaAddress from) {
         return combineFields(
                 poBox(from),
                 from.getBuildingNumber(),
@@ -72,25 +94,25 @@ public class EuropaPostcodeService implements PostcodeService {
                 from.getBuildingName());
     }
 
-    String poBox(EuropaAddress from) {
+    static String poBox(EuropaAddress from) {
         return StringUtils.isNotBlank(from.getPobox())
                 ? String.format("PO Box %s", from.getPobox())
                 : null;
     }
 
-    String street(EuropaAddress from) {
+    static String street(EuropaAddress from) {
         return combineFields(
                 from.getThoroughfare(),
                 from.getDependentThoroughfare());
     }
 
-    String locality(EuropaAddress from) {
+    static String locality(EuropaAddress from) {
         return combineFields(
                 from.getDoubleDependentLocality(),
                 from.getDependentLocality());
     }
 
-    String combineFields(String ...fields) {
+    static String combineFields(String ...fields) {
         return Arrays.stream(fields)
                 .filter(StringUtils::isNotBlank)
                 .collect(joining(" "));
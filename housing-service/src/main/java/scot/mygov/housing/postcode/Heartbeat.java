@@ -2,13 +2,16 @@ package scot.mygov.housing.postcode;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scot.mygov.housing.CircuitBreaker;
 import scot.mygov.housing.europa.Europa;
 import scot.mygov.housing.europa.EuropaException;
 
 /**
- * Periodically perform a postcode lookup.
+ * Looks up a known uprn.
  *
- * This is used to ensure that metrics are available to the healthcheck while not calling it too frequently.
+ * The ProbeScheduler uses probe to keep metrics available to the healthcheck while Europa has no other traffic.  While
+ * the Europa circuit breaker is open the lookup is also the trial call that closes it again, so probeIfOpen is
+ * scheduled more often.
  */
 public class Heartbeat implements Runnable {
 
@@ -22,12 +25,22 @@ public class Heartbeat implements Runnable {
         this.europa = europa;
     }
 
+    public void probe() throws EuropaException {
+        europa.lookupUprn(KNOWN_UPRN);
+    }
+
     @Override
     public void run() {
         try {
-            europa.lookupUprn(KNOWN_UPRN);
+            probe();
         } catch (EuropaException e) {
             LOG.error("Failed to lookup know uprn " + KNOWN_UPRN, e);
         }
     }
+
+    public void probeIfOpen() {
+        if (europa.getCircuitState() != CircuitBreaker.State.CLOSED) {
+            run();
+        }
+    }
 }
@@ -0,0 +1,142 @@
+package scot.mygov.housing.postcode;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scot.mygov.housing.MetricName;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Answers postcode lookups from a local AddressIndex, falling back to another PostcodeService for postcodes that are
+ * not in the index or while there is no index.
+ *
+ * reload is called periodically.  It rebuilds the index when the source extract is newer than the index file, and
+ * swaps in the index file whenever it has changed, so either can be replaced without a restart.  Lookups in progress
+ * carry on with the index they started with.
+ */
+public class IndexedPostcodeService implements PostcodeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexedPostcodeService.class);
+
+    private final Path indexPath;
+
+    private final Path sourcePath;
+
+    private final AddressIndexBuilder builder;
+
+    private final PostcodeService fallback;
+
+    private final AtomicReference<Loaded> loaded = new AtomicReference<>();
+
+    private final Meter hitMeter;
+
+    private final Meter missMeter;
+
+    /**
+     * @param sourcePath extract to build the index from, or null if the index file is provided some other way
+     */
+    public IndexedPostcodeService(
+            Path indexPath,
+            Path sourcePath,
+            AddressIndexBuilder builder,
+            PostcodeService fallback,
+            MetricRegistry registry) {
+        this.indexPath = indexPath;
+        this.sourcePath = sourcePath;
+        this.builder = builder;
+        this.fallback = fallback;
+        this.hitMeter = registry.meter(MetricName.HITS.name(this));
+        this.missMeter = registry.meter(MetricName.MISSES.name(this));
+        registry.register(MetricName.SIZE.name(this), (Gauge<Integer>) () -> {
+            Loaded current = loaded.get();
+            return current == null ? 0 : current.index.getAddressCount();
+        });
+
+        // use an existing index straight away, building one is left to the first reload
+        try {
+            swapIfChanged();
+        } catch (IOException e) {
+            LOG.error("Failed to open address index {}", indexPath, e);
+        }
+    }
+
+    @Override
+    public PostcodeServiceResults lookup(String postcode) throws PostcodeServiceException {
+        Loaded current = loaded.get();
+        PostcodeServiceResults results = current == null ? null : current.index.lookupPostcode(postcode);
+        if (results != null) {
+            hitMeter.mark();
+            return results;
+        }
+        missMeter.mark();
+        return fallback.lookup(postcode);
+    }
+
+    @Override
+    public PostcodeServiceResult lookupUprn(String uprn) throws PostcodeServiceException {
+        Loaded current = loaded.get();
+        PostcodeServiceResult result = current == null ? null : current.index.lookupUprn(uprn);
+        return result != null ? result : fallback.lookupUprn(uprn);
+    }
+
+    public synchronized void reload() {
+        try {
+            rebuildIfStale();
+            swapIfChanged();
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Failed to reload address index {}", indexPath, e);
+        }
+    }
+
+    private void rebuildIfStale() throws IOException {
+        if (sourcePath == null || !Files.exists(sourcePath)) {
+            return;
+        }
+        if (Files.exists(indexPath)
+                && Files.getLastModifiedTime(sourcePath).compareTo(Files.getLastModifiedTime(indexPath)) <= 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int count = builder.build(sourcePath, indexPath);
+        LOG.info("Built address index of {} addresses from {} in {}ms",
+                count, sourcePath, System.currentTimeMillis() - start);
+    }
+
+    private void swapIfChanged() throws IOException {
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+        FileTime modified = Files.getLastModifiedTime(indexPath);
+        long size = Files.size(indexPath);
+        Loaded current = loaded.get();
+        if (current != null && current.modified.equals(modified) && current.size == size) {
+            return;
+        }
+        AddressIndex index = AddressIndex.open(indexPath);
+        loaded.set(new Loaded(index, modified, size));
+        LOG.info("Loaded address index of {} addresses in {} postcodes",
+                index.getAddressCount(), index.getPostcodeCount());
+    }
+
+    private static class Loaded {
+
+        private final AddressIndex index;
+
+        private final FileTime modified;
+
+        private final long size;
+
+        Loaded(AddressIndex index, FileTime modified, long size) {
+            this.index = index;
+            this.modified = modified;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package scot.mygov.housing.postcode;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scot.mygov.housing.MetricName;
+import scot.mygov.housing.forms.modeltenancy.validation.ValidationUtil;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Looks up a batch of postcodes and uprns in parallel.
+ *
+ * Inputs that normalise to the same postcode or uprn are looked up once, and every input is given that result.  A
+ * lookup that fails, or an input that is not a valid postcode or uprn, is reported against its own key and does not
+ * fail the batch.  All batches share a fixed number of threads, so however many are in progress at once they cannot
+ * make more than that many concurrent lookups.  Lookups beyond what the queue will hold, and any that have not
+ * finished by the batch's deadline, are reported as errors against their keys.
+ */
+public class PostcodeBatchLookup {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostcodeBatchLookup.class);
+
+    private static final Pattern UPRN_PATTERN = Pattern.compile("[0-9]{1,12}");
+
+    private final PostcodeService postcodeService;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int maxKeys;
+
+    private final long timeoutNanos;
+
+    private final Meter lookupMeter;
+
+    private final Meter errorMeter;
+
+    private final Meter rejectionMeter;
+
+    private final Meter timeoutMeter;
+
+    /**
+     * @param queueSize lookups that may wait for a thread, across all batches
+     * @param timeout how long a batch may take, after which its outstanding lookups are reported as errors
+     */
+    public PostcodeBatchLookup(
+            PostcodeService postcodeService,
+            int concurrency,
+            int queueSize,
+            int maxKeys,
+            Duration timeout,
+            MetricRegistry registry) {
+        this.postcodeService = postcodeService;
+        this.executor = new ThreadPoolExecutor(
+                concurrency, concurrency,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("postcode-batch-%d").setDaemon(true).build());
+        this.maxKeys = maxKeys;
+        this.timeoutNanos = timeout.toNanos();
+        this.lookupMeter = registry.meter(MetricName.REQUEST_RATE.name(this));
+        this.errorMeter = registry.meter(MetricName.ERROR_RATE.name(this));
+        this.rejectionMeter = registry.meter(MetricName.REJECTIONS.name(this));
+        this.timeoutMeter = registry.meter(MetricName.TIMEOUTS.name(this));
+        registry.register(MetricName.QUEUE_DEPTH.name(this), (Gauge<Integer>) () -> executor.getQueue().size());
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public BatchLookupResults lookup(BatchLookupRequest request) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        Map<String, CompletableFuture<BatchLookupResult>> postcodes = new LinkedHashMap<>();
+        Map<String, CompletableFuture<BatchLookupResult>> byPostcode = new HashMap<>();
+        for (String input : inputs(request.getPostcodes())) {
+            if (!ValidationUtil.validPostcode(input)) {
+                postcodes.put(input, CompletableFuture.completedFuture(BatchLookupResult.error("Invalid postcode")));
+                continue;
+            }
+            String postcode = PostcodeResource.normalisePostcode(input.trim());
+            postcodes.put(input, byPostcode.computeIfAbsent(postcode, this::lookupPostcode));
+        }
+
+        Map<String, CompletableFuture<BatchLookupResult>> uprns = new LinkedHashMap<>();
+        Map<String, CompletableFuture<BatchLookupResult>> byUprn = new HashMap<>();
+        for (String input : inputs(request.getUprns())) {
+            String uprn = input.trim();
+            if (!UPRN_PATTERN.matcher(uprn).matches()) {
+                uprns.put(input, CompletableFuture.completedFuture(BatchLookupResult.error("Invalid uprn")));
+                continue;
+            }
+            uprns.put(input, byUprn.computeIfAbsent(uprn, this::lookupUprn));
+        }
+
+        // inputs that share a lookup share its result
+        Map<CompletableFuture<BatchLookupResult>, BatchLookupResult> completed = new IdentityHashMap<>();
+        BatchLookupResults results = new BatchLookupResults();
+        postcodes.forEach((input, result) -> results.getPostcodes().put(input,
+                completed.computeIfAbsent(result, lookup -> await(lookup, input, deadline))));
+        uprns.forEach((input, result) -> results.getUprns().put(input,
+                completed.computeIfAbsent(result, lookup -> await(lookup, input, deadline))));
+        return results;
+    }
+
+    private BatchLookupResult await(CompletableFuture<BatchLookupResult> lookup, String key, long deadline) {
+        try {
+            return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return timedOut(lookup);
+        } catch (TimeoutException e) {
+            return timedOut(lookup);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return BatchLookupResult.error("Too many postcode lookups in progress, please try again shortly");
+            }
+            errorMeter.mark();
+            LOG.error("Failed to look up {}", key, e.getCause());
+            return BatchLookupResult.error("Postcode data not available");
+        }
+    }
+
+    private BatchLookupResult timedOut(CompletableFuture<BatchLookupResult> lookup) {
+        // a lookup that is still queued is dropped rather than run
+        lookup.cancel(false);
+        timeoutMeter.mark();
+        return BatchLookupResult.error("Timed out looking up postcode data");
+    }
+
+    private static List<String> inputs(List<String> inputs) {
+        if (inputs == null) {
+            return Collections.emptyList();
+        }
+        return inputs.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    private CompletableFuture<BatchLookupResult> lookupPostcode(String postcode) {
+        return submit(() -> BatchLookupResult.results(postcodeService.lookup(postcode).getResults()));
+    }
+
+    private CompletableFuture<BatchLookupResult> lookupUprn(String uprn) {
+        return submit(() -> {
+            PostcodeServiceResult result = postcodeService.lookupUprn(uprn);
+            return BatchLookupResult.results(
+                    result == null ? Collections.emptyList() : Collections.singletonList(result));
+        });
+    }
+
+    private CompletableFuture<BatchLookupResult> submit(Lookup lookup) {
+        lookupMeter.mark();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return lookup.lookup();
+                } catch (PostcodeServiceException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectionMeter.mark();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        BatchLookupResult lookup() throws PostcodeServiceException;
+    }
+}
@@ -0,0 +1,78 @@
+package scot.mygov.housing.postcode;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import scot.mygov.housing.BasicAuthCheck;
+import scot.mygov.validation.ValidationResultsBuilder;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * Looks up a batch of postcodes and uprns for back office tools.  It is called by other services rather than from a
+ * browser, so callers authenticate with the configured basic authentication credentials.  The load a batch can cause
+ * is limited by the batch lookup's concurrency, queue and maximum number of keys.
+ */
+@Path("postcode/batch")
+public class PostcodeBatchResource {
+
+    private final PostcodeBatchLookup batchLookup;
+
+    private final BasicAuthCheck authCheck;
+
+    @Inject
+    public PostcodeBatchResource(PostcodeBatchLookup batchLookup, BasicAuthCheck authCheck) {
+        this.batchLookup = batchLookup;
+        this.authCheck = authCheck;
+    }
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response lookup(
+            @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
+            BatchLookupRequest request) {
+        if (!authCheck.verify(authorization)) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"postcode-batch\"")
+                    .build();
+        }
+
+        ValidationResultsBuilder resultBuilder = new ValidationResultsBuilder();
+        validate(request, resultBuilder);
+        if (resultBuilder.hasIssues()) {
+            return Response
+                    .status(400)
+                    .entity(resultBuilder.build())
+                    .build();
+        }
+
+        return Response
+                .status(200)
+                .entity(batchLookup.lookup(request))
+                .build();
+    }
+
+    private void validate(BatchLookupRequest request, ValidationResultsBuilder resultBuilder) {
+        int keys = request == null ? 0 : size(request.getPostcodes()) + size(request.getUprns());
+        if (keys == 0) {
+            resultBuilder.issue("postcodes", "No postcodes or uprns to look up");
+            return;
+        }
+
+        if (keys > batchLookup.getMaxKeys()) {
+            resultBuilder.issue("postcodes",
+                    "Too many postcodes and uprns, the most allowed is " + batchLookup.getMaxKeys());
+        }
+    }
+
+    private static int size(List<String> keys) {
+        return keys == null ? 0 : keys.size();
+    }
+}
@@ -0,0 +1,160 @@
+package scot.mygov.housing.postcode;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import scot.mygov.housing.MetricName;
+import scot.mygov.housing.europa.Europa;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Bounded cache of postcode lookups, keyed by the normalised postcode.
+ *
+ * An entry is fresh for the TTL.  For a further stale window it is still served, while a reload runs in the
+ * background, so a popular postcode never waits on Europa once it is cached.  Postcodes with no addresses are cached
+ * for a shorter time, since they are more likely to be typos or new developments than stable data.  Failed lookups are
+ * not cached, and a failed background reload leaves the stale entry in place.
+ *
+ * Metrics are registered alongside the Europa metrics so that they appear with them in the healthcheck.
+ */
+public class PostcodeCache {
+
+    @FunctionalInterface
+    public interface Loader {
+        PostcodeServiceResults load(String postcode) throws PostcodeServiceException;
+    }
+
+    private final LoadingCache<String, Entry> cache;
+
+    private final Ticker ticker;
+
+    private final long negativeTtlNanos;
+
+    private final Meter hitMeter;
+
+    private final Meter missMeter;
+
+    private final Meter evictionMeter;
+
+    public PostcodeCache(
+            Loader loader,
+            Duration ttl,
+            Duration staleWhileRevalidate,
+            Duration negativeTtl,
+            long maxEntries,
+            MetricRegistry registry) {
+        this(loader, ttl, staleWhileRevalidate, negativeTtl, maxEntries, refreshExecutor(), registry,
+                Ticker.systemTicker());
+    }
+
+    PostcodeCache(
+            Loader loader,
+            Duration ttl,
+            Duration staleWhileRevalidate,
+            Duration negativeTtl,
+            long maxEntries,
+            Executor refreshExecutor,
+            MetricRegistry registry,
+            Ticker ticker) {
+        this.ticker = ticker;
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        CacheLoader<String, Entry> entryLoader = new CacheLoader<String, Entry>() {
+            @Override
+            public Entry load(String postcode) throws PostcodeServiceException {
+                return new Entry(loader.load(postcode), ticker.read());
+            }
+        };
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .refreshAfterWrite(ttl)
+                .expireAfterWrite(ttl.plus(staleWhileRevalidate))
+                .ticker(ticker)
+                .removalListener(this::removed)
+                .build(CacheLoader.asyncReloading(entryLoader, refreshExecutor));
+
+        this.hitMeter = registry.meter(name(MetricName.HITS));
+        this.missMeter = registry.meter(name(MetricName.MISSES));
+        this.evictionMeter = registry.meter(name(MetricName.EVICTIONS));
+        registry.register(name(MetricName.SIZE), (Gauge<Long>) cache::size);
+        registry.register(name(MetricName.HIT_RATIO), new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                double hits = hitMeter.getFifteenMinuteRate();
+                return Ratio.of(hits, hits + missMeter.getFifteenMinuteRate());
+            }
+        });
+    }
+
+    private static Executor refreshExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("postcode-refresh-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    private static String name(MetricName metricName) {
+        return MetricRegistry.name(Europa.class, "postcode-cache", metricName.getMetricName());
+    }
+
+    public PostcodeServiceResults get(String postcode) throws PostcodeServiceException {
+        Entry entry = cache.getIfPresent(postcode);
+        if (entry != null && entry.isNegative() && ticker.read() - entry.loadedAt > negativeTtlNanos) {
+            // an empty result has outlived its shorter TTL, look it up again
+            cache.invalidate(postcode);
+            entry = null;
+        }
+
+        if (entry != null) {
+            hitMeter.mark();
+            return entry.results;
+        }
+
+        missMeter.mark();
+        try {
+            return cache.get(postcode).results;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof PostcodeServiceException) {
+                throw (PostcodeServiceException) e.getCause();
+            }
+            throw new PostcodeServiceException("Postcode lookup failed.", e.getCause());
+        }
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private void removed(RemovalNotification<String, Entry> notification) {
+        if (notification.wasEvicted()) {
+            evictionMeter.mark();
+        }
+    }
+
+    private static class Entry {
+
+        private final PostcodeServiceResults results;
+
+        private final long loadedAt;
+
+        Entry(PostcodeServiceResults results, long loadedAt) {
+            this.results = results;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isNegative() {
+            return results.getResults() == null || results.getResults().isEmpty();
+        }
+    }
+}
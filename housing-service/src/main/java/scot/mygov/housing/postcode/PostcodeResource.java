@@ -11,6 +11,7 @@ import jakarta.ws.rs.core.UriInfo;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scot.mygov.housing.Cached;
 import scot.mygov.housing.forms.modeltenancy.validation.ValidationUtil;
 import scot.mygov.validation.ValidationResultsBuilder;
 
@@ -32,6 +33,7 @@ public class PostcodeResource {
 
     @Path("address-lookup")
     @GET
+    @Cached(maxAge = 3600)
     @Produces(MediaType.APPLICATION_JSON)
     public Response lookup(@Context UriInfo uriInfo) {
 
@@ -71,7 +73,7 @@ public class PostcodeResource {
         }
     }
 
-    private String normalisePostcode(String postcodeIn) {
+    static String normalisePostcode(String postcodeIn) {
         // make it upper case and remove all sapces
         String postcode = postcodeIn.toUpperCase().replace(" ", "");
         int threeFromEnd = postcode.length() - 3;
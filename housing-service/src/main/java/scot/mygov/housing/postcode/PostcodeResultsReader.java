@@ -0,0 +1,125 @@
+package scot.mygov.housing.postcode;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.collect.ImmutableMap;
+import scot.mygov.housing.europa.EuropaAddress;
+import scot.mygov.housing.europa.EuropaResponseReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads a Europa response straight into PostcodeServiceResults.
+ *
+ * Only the address fields that are shown are read, everything else in the response is skipped without being parsed
+ * into objects.  Each address is read into the same EuropaAddress, which is formatted just as EuropaPostcodeService
+ * formats a bound response.
+ */
+class PostcodeResultsReader implements EuropaResponseReader<PostcodeServiceResults> {
+
+    static final PostcodeResultsReader INSTANCE = new PostcodeResultsReader();
+
+    private static final Map<String, BiConsumer<EuropaAddress, String>> FIELDS =
+            ImmutableMap.<String, BiConsumer<EuropaAddress, String>>builder()
+                    .put("uprn", EuropaAddress::setUprn)
+                    .put("dpa_department_name", EuropaAddress::setDepartmentName)
+                    .put("dpa_organisation_name", EuropaAddress::setOrganisationName)
+                    .put("dpa_sub_building_name", EuropaAddress::setSubBuildingName)
+                    .put("dpa_building_name", EuropaAddress::setBuildingName)
+                    .put("dpa_building_number", EuropaAddress::setBuildingNumber)
+                    .put("dpa_po_box_number", EuropaAddress::setPobox)
+                    .put("dpa_dependent_thoroughfare", EuropaAddress::setDependentThoroughfare)
+                    .put("dpa_thoroughfare", EuropaAddress::setThoroughfare)
+                    .put("dpa_double_dependent_locality", EuropaAddress::setDoubleDependentLocality)
+                    .put("dpa_dependent_locality", EuropaAddress::setDependentLocality)
+                    .put("dpa_post_town", EuropaAddress::setTown)
+                    .put("dpa_postcode", EuropaAddress::setPostcode)
+                    .put("country", EuropaAddress::setCountry)
+                    .build();
+
+    @Override
+    public PostcodeServiceResults read(JsonParser parser) throws IOException {
+        List<PostcodeServiceResult> addresses = new ArrayList<>();
+        int count = -1;
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("metadata".equals(name) && value == JsonToken.START_OBJECT) {
+                count = readCount(parser);
+            } else if ("results".equals(name) && value == JsonToken.START_ARRAY) {
+                readResults(parser, addresses);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        PostcodeServiceResults results = new PostcodeServiceResults();
+        if (count == 0) {
+            results.setResults(Collections.emptyList());
+        } else {
+            addresses.sort(PostcodeServiceResult.comparator());
+            results.setResults(addresses);
+        }
+        return results;
+    }
+
+    private static int readCount(JsonParser parser) throws IOException {
+        int count = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if ("count".equals(name)) {
+                count = parser.getValueAsInt();
+            }
+            parser.skipChildren();
+        }
+        return count;
+    }
+
+    private static void readResults(JsonParser parser, List<PostcodeServiceResult> addresses) throws IOException {
+        // the addresses are wrapped in an array with a single element
+        boolean first = true;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (first && "address".equals(name) && value == JsonToken.START_ARRAY) {
+                    readAddresses(parser, addresses);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            first = false;
+        }
+    }
+
+    private static void readAddresses(JsonParser parser, List<PostcodeServiceResult> addresses) throws IOException {
+        EuropaAddress address = new EuropaAddress();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            // start each address afresh
+            FIELDS.values().forEach(setter -> setter.accept(address, null));
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                BiConsumer<EuropaAddress, String> setter = FIELDS.get(name);
+                if (setter != null) {
+                    setter.accept(address, parser.getValueAsString());
+                }
+                parser.skipChildren();
+            }
+            addresses.add(EuropaPostcodeService.toResult(address));
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected Europa response: expected " + expected + " but was " + actual);
+        }
+    }
+}
@@ -4,4 +4,9 @@ public interface PostcodeService {
 
     PostcodeServiceResults lookup(String postcode) throws PostcodeServiceException;
 
+    /**
+     * The address with a uprn, or null if there is none.
+     */
+    PostcodeServiceResult lookupUprn(String uprn) throws PostcodeServiceException;
+
 }
@@ -0,0 +1,178 @@
+package scot.mygov.housing.postcode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts more items than should be held in memory at once.
+ *
+ * Items are collected into runs of at most runSize.  Each full run is sorted and written to a temporary file, and
+ * merge reads the runs back together in order, so only one run and the head of each other run are in memory.  The
+ * temporary files are deleted on close.
+ */
+class SortedRuns<T> implements Closeable {
+
+    interface Format<T> {
+
+        void write(DataOutputStream out, T item) throws IOException;
+
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private final Path directory;
+
+    private final int runSize;
+
+    private final Comparator<T> order;
+
+    private final Format<T> format;
+
+    private final List<T> run = new ArrayList<>();
+
+    private final List<Path> runFiles = new ArrayList<>();
+
+    private final List<Integer> runCounts = new ArrayList<>();
+
+    /**
+     * @param directory where the runs are written
+     */
+    SortedRuns(Path directory, int runSize, Comparator<T> order, Format<T> format) {
+        this.directory = directory;
+        this.runSize = runSize;
+        this.order = order;
+        this.format = format;
+    }
+
+    void add(T item) throws IOException {
+        run.add(item);
+        if (run.size() >= runSize) {
+            spill();
+        }
+    }
+
+    /**
+     * Reads back every item added so far, in order.
+     */
+    Merge<T> merge() throws IOException {
+        spill();
+        Merge<T> merge = new Merge<>(order);
+        try {
+            for (int i = 0; i < runFiles.size(); i++) {
+                merge.add(i, runCounts.get(i), new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(runFiles.get(i)))), format);
+            }
+        } catch (IOException e) {
+            merge.close();
+            throw e;
+        }
+        return merge;
+    }
+
+    private void spill() throws IOException {
+        if (run.isEmpty()) {
+            return;
+        }
+        run.sort(order);
+        Path file = Files.createTempFile(directory, "address", ".run");
+        runFiles.add(file);
+        runCounts.add(run.size());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (T item : run) {
+                format.write(out, item);
+            }
+        }
+        run.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        run.clear();
+        for (Path file : runFiles) {
+            Files.deleteIfExists(file);
+        }
+        runFiles.clear();
+        runCounts.clear();
+    }
+
+    static class Merge<T> implements Closeable {
+
+        private final PriorityQueue<Head<T>> heads;
+
+        private final List<DataInputStream> inputs = new ArrayList<>();
+
+        Merge(Comparator<T> order) {
+            // items that compare equal come out in the order they were added
+            Comparator<Head<T>> byItem = Comparator.comparing(head -> head.item, order);
+            this.heads = new PriorityQueue<>(byItem.thenComparingInt(head -> head.run));
+        }
+
+        private void add(int run, int count, DataInputStream in, Format<T> format) throws IOException {
+            inputs.add(in);
+            Head<T> head = new Head<>(run, count, in, format);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+
+        /**
+         * @return the next item, or null once every run has been read
+         */
+        T next() throws IOException {
+            Head<T> head = heads.poll();
+            if (head == null) {
+                return null;
+            }
+            T item = head.item;
+            if (head.advance()) {
+                heads.add(head);
+            }
+            return item;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DataInputStream in : inputs) {
+                in.close();
+            }
+        }
+    }
+
+    private static class Head<T> {
+
+        private final int run;
+
+        private final DataInputStream in;
+
+        private final Format<T> format;
+
+        private int remaining;
+
+        private T item;
+
+        Head(int run, int count, DataInputStream in, Format<T> format) {
+            this.run = run;
+            this.remaining = count;
+            this.in = in;
+            this.format = format;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            item = format.read(in);
+            return true;
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package scot.mygov.validation;
 
-import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scot.mygov.PropertyAccessors;
 
 import java.util.Arrays;
 import java.util.List;
@@ -24,7 +24,7 @@ public class MandatoryFieldsRule<T> implements ValidationRule<T> {
             String value = null;
             try {
 
-                value = BeanUtils.getProperty(model, mandatoryField);
+                value = PropertyAccessors.getProperty(model, mandatoryField);
                 if (StringUtils.isEmpty(value)) {
                     resultsBuilder.issue(mandatoryField, "Required");
                 }
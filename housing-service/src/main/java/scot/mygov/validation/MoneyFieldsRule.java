@@ -1,9 +1,9 @@
 package scot.mygov.validation;
 
-import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scot.mygov.PropertyAccessors;
 
 import java.util.Arrays;
 import java.util.List;
@@ -29,7 +29,7 @@ public class MoneyFieldsRule<T> implements ValidationRule<T> {
     private void validateField(T model, String field, ValidationResultsBuilder builder) {
         String value = null;
         try {
-            value = BeanUtils.getProperty(model, field);
+            value = PropertyAccessors.getProperty(model, field);
             if (StringUtils.isEmpty(value) || !value.matches(REGEX)) {
                 builder.issue(field, "Invalid monetary value: " + value);
             }
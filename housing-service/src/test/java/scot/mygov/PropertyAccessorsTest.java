@@ -0,0 +1,106 @@
+package scot.mygov;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PropertyAccessorsTest {
+
+    @Test
+    public void readsPropertiesAsStrings() {
+        // ARRANGE
+        Bean bean = new Bean("name", LocalDate.of(2020, 1, 2), true, null);
+
+        // ACT
+        String name = PropertyAccessors.getProperty(bean, "name");
+        String date = PropertyAccessors.getProperty(bean, "date");
+        String flag = PropertyAccessors.getProperty(bean, "flag");
+        String child = PropertyAccessors.getProperty(bean, "child");
+
+        // ASSERT
+        assertEquals("name", name);
+        assertEquals("2020-01-02", date);
+        assertEquals("true", flag);
+        assertNull(child);
+    }
+
+    @Test
+    public void readsNestedProperties() {
+        // ARRANGE
+        Bean bean = new Bean("parent", null, false, new Bean("child", null, false, null));
+
+        // ACT
+        String name = PropertyAccessors.getProperty(bean, "child.name");
+        String missing = PropertyAccessors.getProperty(bean, "child.child.name");
+
+        // ASSERT
+        assertEquals("child", name);
+        assertNull(missing);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownProperty() {
+        PropertyAccessors.getProperty(new Bean("name", null, false, null), "unknown");
+    }
+
+    @Test
+    public void readsPropertiesOfInaccessibleClasses() {
+        // ACT
+        String value = PropertyAccessors.getProperty(new Hidden(), "value");
+
+        // ASSERT
+        assertEquals("hidden", value);
+    }
+
+    @Test
+    public void gettersAreBuiltOncePerClass() {
+        // ACT
+        Object first = PropertyAccessors.getters(Bean.class);
+        Object second = PropertyAccessors.getters(Bean.class);
+
+        // ASSERT
+        assertSame(first, second);
+        assertFalse(PropertyAccessors.getters(Bean.class).containsKey("class"));
+    }
+
+    public static class Bean {
+        private final String name;
+        private final LocalDate date;
+        private final boolean flag;
+        private final Bean child;
+
+        public Bean(String name, LocalDate date, boolean flag, Bean child) {
+            this.name = name;
+            this.date = date;
+            this.flag = flag;
+            this.child = child;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public boolean isFlag() {
+            return flag;
+        }
+
+        public Bean getChild() {
+            return child;
+        }
+    }
+
+    private static class Hidden {
+        public String getValue() {
+            return "hidden";
+        }
+    }
+}
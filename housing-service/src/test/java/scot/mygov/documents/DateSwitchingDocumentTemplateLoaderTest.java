@@ -2,10 +2,21 @@ package scot.mygov.documents;
 
 import com.aspose.words.Document;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -74,4 +85,76 @@ public class DateSwitchingDocumentTemplateLoaderTest {
         // ASSERT
         assertNull(actual);
     }
+
+    @Test
+    public void templateIsOnlyWorkedOutOnceBeforeNextThreshold() {
+        DateSwitchingDocumentTemplateLoader sut = new DateSwitchingDocumentTemplateLoader();
+        DocumentTemplateLoader oldLoader = mock(DocumentTemplateLoader.class);
+        DocumentTemplateLoader newLoader = mock(DocumentTemplateLoader.class);
+        sut.addDocument(LocalDate.of(2009, 01, 01), oldLoader);
+        sut.addDocument(LocalDate.of(2010, 01, 01), newLoader);
+        AtomicInteger dateLookups = new AtomicInteger();
+        sut.localDateSupplier = () -> {
+            dateLookups.incrementAndGet();
+            return LocalDate.of(2009, 10, 01);
+        };
+        sut.millisSupplier = () -> millis(LocalDate.of(2009, 10, 01));
+
+        // ACT
+        sut.loadDocumentTemplate();
+        sut.loadDocumentTemplate();
+
+        // ASSERT
+        assertEquals(1, dateLookups.get());
+        verify(oldLoader, times(2)).loadDocumentTemplate();
+    }
+
+    @Test
+    public void switchesAtThresholdAndReleasesOldTemplate() {
+        DateSwitchingDocumentTemplateLoader sut = new DateSwitchingDocumentTemplateLoader();
+        DocumentTemplateLoader oldLoader = mock(DocumentTemplateLoader.class);
+        DocumentTemplateLoader newLoader = mock(DocumentTemplateLoader.class);
+        sut.addDocument(LocalDate.of(2009, 01, 01), oldLoader);
+        sut.addDocument(LocalDate.of(2010, 01, 01), newLoader);
+        AtomicLong now = new AtomicLong(millis(LocalDate.of(2009, 12, 31)));
+        sut.localDateSupplier = () -> LocalDate.ofInstant(Instant.ofEpochMilli(now.get()), ZoneId.systemDefault());
+        sut.millisSupplier = now::get;
+        sut.loadDocumentTemplate();
+
+        // ACT
+        now.set(millis(LocalDate.of(2010, 01, 01)));
+        sut.loadDocumentTemplate();
+
+        // ASSERT
+        verify(oldLoader, times(1)).loadDocumentTemplate();
+        verify(newLoader, times(1)).loadDocumentTemplate();
+        verify(oldLoader).release();
+    }
+
+    @Test
+    public void startPrewarmsNextTemplateBeforeThreshold() {
+        DateSwitchingDocumentTemplateLoader sut = new DateSwitchingDocumentTemplateLoader();
+        DocumentTemplateLoader oldLoader = mock(DocumentTemplateLoader.class);
+        DocumentTemplateLoader newLoader = mock(DocumentTemplateLoader.class);
+        sut.addDocument(LocalDate.of(2009, 01, 01), oldLoader);
+        sut.addDocument(LocalDate.of(2010, 01, 01), newLoader);
+        sut.localDateSupplier = () -> LocalDate.of(2009, 12, 31);
+        sut.millisSupplier = () -> millis(LocalDate.of(2009, 12, 31));
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+
+        // ACT
+        sut.start(scheduler, Duration.ofHours(1));
+
+        // ASSERT
+        ArgumentCaptor<Runnable> prewarm = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(prewarm.capture(), eq(TimeUnit.HOURS.toMillis(23)), eq(TimeUnit.MILLISECONDS));
+        verify(scheduler).schedule(ArgumentMatchers.<Runnable>any(),
+                eq(TimeUnit.HOURS.toMillis(24)), eq(TimeUnit.MILLISECONDS));
+        prewarm.getValue().run();
+        verify(newLoader).prewarm();
+    }
+
+    private static long millis(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
@@ -6,6 +6,7 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -44,6 +45,22 @@ public class DocumentGeneratorTest {
         new Document(new ByteArrayInputStream(result));
     }
 
+    @Test
+    public void canGeneratePDFIntoStream() throws Exception {
+
+        // ARRANGE
+        DocumentTemplateLoader templateLoader = templateLoader();
+        DocumentGenerator sut = new DocumentGenerator(templateLoader);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // ACT
+        sut.save(fieldMap(), DocumentType.PDF, null, out);
+
+        // ASSERT - can parse it as a pdf
+        PDDocument document = Loader.loadPDF(out.toByteArray());
+        document.close();
+    }
+
     @Test(expected = RuntimeException.class)
     public void loaderThrowsExceptionOnSave() throws DocumentGeneratorException {
 
@@ -0,0 +1,65 @@
+package scot.mygov.documents;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentTemplateRegistryTest {
+
+    private static final String PATH = "/templates/model-tenancy-agreement.docx";
+
+    MetricRegistry registry = new MetricRegistry();
+
+    DocumentTemplateRegistry sut = new DocumentTemplateRegistry(
+            null, Collections.singletonMap("notice-to-leave.docx", 3), 0, Duration.ofHours(1), registry);
+
+    @Test
+    public void sameLoaderIsReturnedForSamePath() {
+        assertSame(sut.loader(PATH), sut.loader(PATH));
+    }
+
+    @Test
+    public void templateIsParsedOnFirstUse() {
+        // ARRANGE
+        DocumentTemplateLoader loader = sut.loader(PATH);
+        assertEquals(-1L, loadTime());
+
+        // ACT
+        assertNotNull(loader.loadDocumentTemplate());
+
+        // ASSERT
+        assertTrue(loadTime() >= 0);
+    }
+
+    @Test
+    public void preloadParsesTemplatesThatHaveBeenAskedFor() {
+        // ARRANGE
+        sut.loader(PATH);
+
+        // ACT
+        sut.preload();
+
+        // ASSERT
+        assertTrue(loadTime() >= 0);
+    }
+
+    @Test
+    public void poolSizeIsLookedUpByFileName() {
+        assertEquals(3, sut.poolSize("/templates/notice-to-leave.docx"));
+        assertEquals(0, sut.poolSize("/templates/notice-to-leave-2024.docx"));
+    }
+
+    private long loadTime() {
+        String name = MetricRegistry.name(DocumentTemplateRegistry.class, PATH, "load-time");
+        Gauge<?> gauge = registry.getGauges().get(name);
+        return (Long) gauge.getValue();
+    }
+}
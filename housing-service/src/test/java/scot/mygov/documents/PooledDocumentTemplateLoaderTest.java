@@ -0,0 +1,116 @@
+package scot.mygov.documents;
+
+import com.aspose.words.Document;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PooledDocumentTemplateLoaderTest {
+
+    MetricRegistry registry = new MetricRegistry();
+
+    DocumentTemplateLoader loader = mock(DocumentTemplateLoader.class);
+
+    // refills are queued up here and only run when the test says so
+    List<Runnable> refills = new ArrayList<>();
+
+    Executor executor = refills::add;
+
+    Document first = mock(Document.class);
+
+    Document second = mock(Document.class);
+
+    Document third = mock(Document.class);
+
+    @Before
+    public void setUp() {
+        when(loader.templateVersion()).thenReturn("/templates/template.docx");
+        when(loader.loadDocumentTemplate()).thenReturn(first, second, third);
+    }
+
+    @Test
+    public void poolIsFilledInTheBackground() {
+        // ARRANGE
+        PooledDocumentTemplateLoader sut = new PooledDocumentTemplateLoader(loader, 2, executor, registry);
+
+        // ACT
+        runRefills();
+        Document actual = sut.loadDocumentTemplate();
+
+        // ASSERT
+        assertSame(first, actual);
+        assertEquals(1, registry.meter(metric("hits")).getCount());
+        assertEquals(2, registry.timer(metric("refill-lag")).getCount());
+    }
+
+    @Test
+    public void clonesOnRequestThreadWhenPoolIsEmpty() {
+        // ARRANGE
+        PooledDocumentTemplateLoader sut = new PooledDocumentTemplateLoader(loader, 1, executor, registry);
+
+        // ACT
+        Document actual = sut.loadDocumentTemplate();
+
+        // ASSERT
+        assertSame(first, actual);
+        assertEquals(1, registry.meter(metric("misses")).getCount());
+        // the refill asked for by the constructor is still outstanding, so no more are asked for
+        assertEquals(1, refills.size());
+    }
+
+    @Test
+    public void checkedOutCopyIsReplaced() {
+        // ARRANGE
+        PooledDocumentTemplateLoader sut = new PooledDocumentTemplateLoader(loader, 1, executor, registry);
+        runRefills();
+
+        // ACT
+        Document firstCheckout = sut.loadDocumentTemplate();
+        runRefills();
+        Document secondCheckout = sut.loadDocumentTemplate();
+
+        // ASSERT
+        assertSame(first, firstCheckout);
+        assertSame(second, secondCheckout);
+        verify(loader, times(2)).loadDocumentTemplate();
+        assertEquals(2, registry.meter(metric("hits")).getCount());
+    }
+
+    @Test
+    public void copyLoadedWhileReleasingIsDropped() {
+        // ARRANGE
+        PooledDocumentTemplateLoader sut = new PooledDocumentTemplateLoader(loader, 1, executor, registry);
+        when(loader.loadDocumentTemplate()).thenAnswer(invocation -> {
+            sut.release();
+            return first;
+        });
+
+        // ACT
+        runRefills();
+
+        // ASSERT
+        assertEquals(0, registry.getGauges().get(metric("size")).getValue());
+        assertEquals(0, registry.timer(metric("refill-lag")).getCount());
+    }
+
+    private void runRefills() {
+        List<Runnable> toRun = new ArrayList<>(refills);
+        refills.clear();
+        toRun.forEach(Runnable::run);
+    }
+
+    private String metric(String name) {
+        return MetricRegistry.name(PooledDocumentTemplateLoader.class, "/templates/template.docx", name);
+    }
+}
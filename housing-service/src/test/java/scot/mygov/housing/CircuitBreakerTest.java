@@ -0,0 +1,137 @@
+package scot.mygov.housing;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(5);
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final FakeTicker ticker = new FakeTicker();
+
+    private final CircuitBreaker sut = new CircuitBreaker(10, 4, 50, 80, Duration.ofSeconds(2), OPEN_DURATION, ticker);
+
+    @Test
+    public void opensWhenFailureRateReachesThreshold() {
+        // ACT
+        record(true, FAST, 2);
+        record(false, FAST, 2);
+
+        // ASSERT
+        assertEquals(CircuitBreaker.State.OPEN, sut.getState());
+        assertFalse(sut.tryAcquire());
+    }
+
+    @Test
+    public void opensWhenSlowCallRateReachesThreshold() {
+        // ACT
+        record(true, FAST, 1);
+        record(true, SLOW, 4);
+
+        // ASSERT
+        assertEquals(CircuitBreaker.State.OPEN, sut.getState());
+    }
+
+    @Test
+    public void staysClosedUntilMinimumCalls() {
+        // ACT
+        record(false, FAST, 3);
+
+        // ASSERT
+        assertEquals(CircuitBreaker.State.CLOSED, sut.getState());
+        assertTrue(sut.tryAcquire());
+    }
+
+    @Test
+    public void oldCallsLeaveTheWindow() {
+        // ARRANGE
+        record(false, FAST, 1);
+        record(true, FAST, 9);
+
+        // ACT
+        record(false, FAST, 4);
+
+        // ASSERT
+        assertEquals(CircuitBreaker.State.CLOSED, sut.getState());
+    }
+
+    @Test
+    public void oneTrialCallIsAllowedAfterOpenDuration() {
+        // ARRANGE
+        record(false, FAST, 4);
+        ticker.advance(OPEN_DURATION);
+
+        // ACT
+        boolean trial = sut.tryAcquire();
+        boolean concurrent = sut.tryAcquire();
+
+        // ASSERT
+        assertTrue(trial);
+        assertFalse(concurrent);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, sut.getState());
+    }
+
+    @Test
+    public void successfulTrialCloses() {
+        // ARRANGE
+        record(false, FAST, 4);
+        ticker.advance(OPEN_DURATION);
+        sut.tryAcquire();
+
+        // ACT
+        sut.record(true, FAST);
+
+        // ASSERT
+        assertEquals(CircuitBreaker.State.CLOSED, sut.getState());
+        record(false, FAST, 3);
+        assertEquals(CircuitBreaker.State.CLOSED, sut.getState());
+    }
+
+    @Test
+    public void slowTrialOpensAgain() {
+        // ARRANGE
+        record(false, FAST, 4);
+        ticker.advance(OPEN_DURATION);
+        sut.tryAcquire();
+
+        // ACT
+        sut.record(true, SLOW);
+
+        // ASSERT
+        assertEquals(CircuitBreaker.State.OPEN, sut.getState());
+        ticker.advance(OPEN_DURATION.minusSeconds(1));
+        assertFalse(sut.tryAcquire());
+    }
+
+    private void record(boolean success, long nanos, int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(sut.tryAcquire());
+            sut.record(success, nanos);
+        }
+    }
+
+    private static class FakeTicker extends Ticker {
+
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(Duration duration) {
+            nanos += duration.toNanos();
+        }
+    }
+}
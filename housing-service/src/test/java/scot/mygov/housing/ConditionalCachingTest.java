@@ -0,0 +1,135 @@
+package scot.mygov.housing;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ConditionalCachingTest {
+
+    private final ConditionalCaching conditionalCaching = new ConditionalCaching(JsonCodec.defaultCodec());
+
+    private Dispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        dispatcher = MockDispatcherFactory.createDispatcher();
+        dispatcher.getProviderFactory().register(conditionalCaching);
+        dispatcher.getRegistry().addSingletonResource(new TestResource());
+    }
+
+    @Test
+    public void cachedResponseHasETagAndCacheControl() throws Exception {
+        // ACT
+        MockHttpResponse response = get("cached", null);
+
+        // ASSERT
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"name\":\"value\"}", response.getContentAsString());
+        assertNotNull(response.getOutputHeaders().getFirst(HttpHeaders.ETAG));
+        assertEquals("no-transform, max-age=60",
+                String.valueOf(response.getOutputHeaders().getFirst(HttpHeaders.CACHE_CONTROL)));
+    }
+
+    @Test
+    public void matchingIfNoneMatchIsNotModified() throws Exception {
+        // ARRANGE
+        String etag = String.valueOf(get("cached", null).getOutputHeaders().getFirst(HttpHeaders.ETAG));
+
+        // ACT
+        MockHttpResponse response = get("cached", etag);
+
+        // ASSERT
+        assertEquals(304, response.getStatus());
+        assertEquals("", response.getContentAsString());
+        assertEquals(etag, String.valueOf(response.getOutputHeaders().getFirst(HttpHeaders.ETAG)));
+    }
+
+    @Test
+    public void otherIfNoneMatchIsAnsweredInFull() throws Exception {
+        // ACT
+        MockHttpResponse response = get("cached", "\"something-else\"");
+
+        // ASSERT
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"name\":\"value\"}", response.getContentAsString());
+    }
+
+    @Test
+    public void uncachedMethodsAndErrorsAreLeftAlone() throws Exception {
+        // ACT
+        MockHttpResponse uncached = get("uncached", null);
+        MockHttpResponse error = get("error", null);
+
+        // ASSERT
+        assertNull(uncached.getOutputHeaders().getFirst(HttpHeaders.ETAG));
+        assertNull(error.getOutputHeaders().getFirst(HttpHeaders.ETAG));
+        assertEquals(503, error.getStatus());
+    }
+
+    @Test
+    public void sameEntityIsSerialisedOnce() throws Exception {
+        // ARRANGE
+        Object entity = singletonMap("name", "value");
+
+        // ACT
+        ConditionalCaching.Serialised first = conditionalCaching.serialise(entity);
+        ConditionalCaching.Serialised second = conditionalCaching.serialise(entity);
+
+        // ASSERT
+        assertSame(first, second);
+    }
+
+    private MockHttpResponse get(String path, String ifNoneMatch) throws Exception {
+        MockHttpRequest request = MockHttpRequest.get(path);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpResponse response = new MockHttpResponse();
+        dispatcher.invoke(request, response);
+        return response;
+    }
+
+    @Path("/")
+    @Produces(MediaType.APPLICATION_JSON)
+    public static class TestResource {
+
+        private final Map<String, String> entity = singletonMap("name", "value");
+
+        @GET
+        @Path("cached")
+        @Cached(maxAge = 60)
+        public Map<String, String> cached() {
+            return entity;
+        }
+
+        @GET
+        @Path("uncached")
+        public Map<String, String> uncached() {
+            return entity;
+        }
+
+        @GET
+        @Path("error")
+        @Cached(maxAge = 60)
+        public Response error() {
+            return Response.status(503).entity("unavailable").build();
+        }
+    }
+}
@@ -23,6 +23,7 @@ import scot.mygov.housing.europa.Europa;
 import scot.mygov.housing.forms.DocumentGenerationService;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -135,6 +136,21 @@ public class HealthcheckTest {
         assertEquals(503, response.getStatus());
     }
 
+    @Test
+    public void notOkWhenPostcodeCircuitIsOpen() throws IOException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1, 50, 100, Duration.ofSeconds(2), Duration.ofMinutes(1));
+        breaker.tryAcquire();
+        breaker.record(false, 0);
+        healthcheck.europa = new Europa(mock(WebTarget.class), JsonCodec.defaultCodec(), healthcheck.metricRegistry, breaker);
+
+        dispatcher.invoke(request, response);
+
+        JsonNode health = mapper.readTree(response.getContentAsString());
+        assertEquals("postcode not as expected", false, health.get("Postcode lookups").asBoolean());
+        assertEquals("OPEN", health.get("data").get("postcodeLookupCircuit").asText());
+        assertEquals(503, response.getStatus());
+    }
+
     @Test
     public void noWarningAddedIfFairRentResponseRateNotZero() throws IOException {
         this.healthcheck.metricRegistry = mockMetricsRegistryFairRent(0, 0);
@@ -24,4 +24,32 @@ public class HousingModuleTest {
         assertThat(s3).isNull();
     }
 
+    @Test
+    public void deprecatedFairRentTimeoutsAreUsedWhenClientTimeoutsAreNotSet() {
+        HousingConfiguration configuration = new HousingConfiguration();
+        configuration.getFairRentRegister().setConnectTimeoutSeconds(3);
+        configuration.getFairRentRegister().setReadTimeoutSeconds(20);
+        HousingModule.applyDeprecatedSettings(configuration);
+        assertThat(configuration.getFairRentClient().getConnectTimeout()).isEqualTo("PT3S");
+        assertThat(configuration.getFairRentClient().getReadTimeout()).isEqualTo("PT20S");
+    }
+
+    @Test
+    public void fairRentClientTimeoutsTakePrecedenceOverDeprecatedOnes() {
+        HousingConfiguration configuration = new HousingConfiguration();
+        configuration.getFairRentRegister().setConnectTimeoutSeconds(3);
+        configuration.getFairRentClient().setConnectTimeout("PT2S");
+        HousingModule.applyDeprecatedSettings(configuration);
+        assertThat(configuration.getFairRentClient().getConnectTimeout()).isEqualTo("PT2S");
+        assertThat(configuration.getFairRentClient().getReadTimeout()).isEqualTo("PT10S");
+    }
+
+    @Test
+    public void deprecatedHeartbeatIntervalIsUsedAsProbeWindow() {
+        HousingConfiguration configuration = new HousingConfiguration();
+        configuration.setHeartbeatMonitoringInterval(2);
+        HousingModule.applyDeprecatedSettings(configuration);
+        assertThat(configuration.getProbes().getWindow()).isEqualTo("PT2M");
+    }
+
 }
@@ -0,0 +1,248 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.InvocationCallback;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JavaHttpClientEngineTest {
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private HttpServer server;
+
+    private Client client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/json", exchange -> respond(exchange, 200, "{\"postcode\":\"EH6 6QQ\"}"));
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        server.createContext("/stall", exchange -> {
+            // send the headers and part of the body, then stop
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 100);
+            exchange.getResponseBody().write("{\"postcode\":".getBytes(UTF_8));
+            exchange.getResponseBody().flush();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void readsEntityAndGivesUpItsPlace() {
+        // ARRANGE
+        client = javaClient(1);
+
+        // ACT
+        Map<?, ?> first = target("/json").request().get(Map.class);
+        Map<?, ?> second = target("/json").request().get(Map.class);
+
+        // ASSERT
+        assertEquals("EH6 6QQ", first.get("postcode"));
+        assertEquals("EH6 6QQ", second.get("postcode"));
+        assertEquals(0, registry.getGauges().get(UpstreamMetrics.name("test", MetricName.IN_FLIGHT)).getValue());
+        assertEquals(2, registry.timer(UpstreamMetrics.name("test", MetricName.RESPONSE_TIMES)).getCount());
+    }
+
+    @Test
+    public void closingAnInputStreamEntityGivesUpItsPlace() throws IOException {
+        // ARRANGE
+        client = javaClient(1);
+
+        // ACT
+        try (InputStream in = target("/json").request().get(InputStream.class)) {
+            assertEquals("{\"postcode\":\"EH6 6QQ\"}", new String(in.readAllBytes(), UTF_8));
+        }
+
+        // ASSERT
+        assertEquals(0, registry.getGauges().get(UpstreamMetrics.name("test", MetricName.IN_FLIGHT)).getValue());
+    }
+
+    @Test
+    public void asyncCallbackIsCompleted() throws Exception {
+        // ARRANGE
+        client = javaClient(1);
+        CompletableFuture<String> entity = new CompletableFuture<>();
+
+        // ACT
+        target("/json").request().async().get(new InvocationCallback<Response>() {
+            @Override
+            public void completed(Response response) {
+                response.bufferEntity();
+                entity.complete(response.readEntity(String.class));
+            }
+
+            @Override
+            public void failed(Throwable throwable) {
+                entity.completeExceptionally(throwable);
+            }
+        });
+
+        // ASSERT
+        assertEquals("{\"postcode\":\"EH6 6QQ\"}", entity.get(5, TimeUnit.SECONDS));
+        assertEquals(0, registry.getGauges().get(UpstreamMetrics.name("test", MetricName.IN_FLIGHT)).getValue());
+    }
+
+    @Test
+    public void requestBeyondThePoolSizeIsRejected() throws Exception {
+        // ARRANGE
+        client = javaClient(1);
+        Future<Response> slow = target("/slow").request().async().get();
+        while ((Integer) registry.getGauges().get(UpstreamMetrics.name("test", MetricName.IN_FLIGHT)).getValue() == 0) {
+            Thread.sleep(1);
+        }
+
+        // ACT
+        try {
+            target("/json").request().get(Map.class);
+            fail("expected the request to be rejected");
+        } catch (ProcessingException e) {
+            // expected
+        }
+        release.countDown();
+
+        // ASSERT
+        assertEquals(1, registry.meter(UpstreamMetrics.name("test", MetricName.REJECTIONS)).getCount());
+        assertTrue(slow.get(5, TimeUnit.SECONDS).readEntity(String.class).startsWith("{"));
+    }
+
+    @Test
+    public void closingAnUnreadResponseGivesUpItsPlace() {
+        // ARRANGE
+        client = javaClient(1);
+
+        // ACT
+        target("/json").request().get().close();
+
+        // ASSERT
+        assertEquals(0, registry.getGauges().get(UpstreamMetrics.name("test", MetricName.IN_FLIGHT)).getValue());
+        assertEquals("EH6 6QQ", target("/json").request().get(Map.class).get("postcode"));
+    }
+
+    @Test
+    public void asyncRequestBeyondThePoolSizeFailsWithoutWaiting() throws Exception {
+        // ARRANGE
+        client = javaClient(1);
+        Future<Response> slow = target("/slow").request().async().get();
+
+        // ACT
+        Future<Response> rejected = target("/json").request().async().get();
+
+        // ASSERT
+        try {
+            rejected.get(100, TimeUnit.MILLISECONDS);
+            fail("expected the request to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ProcessingException);
+        }
+        release.countDown();
+        assertEquals(1, registry.meter(UpstreamMetrics.name("test", MetricName.REJECTIONS)).getCount());
+        assertTrue(slow.get(5, TimeUnit.SECONDS).readEntity(String.class).startsWith("{"));
+    }
+
+    @Test
+    public void bodyThatStallsPartWayFailsAtTheDeadlineAndGivesUpItsPlace() throws IOException {
+        // ARRANGE
+        client = javaClient(1);
+        long start = System.nanoTime();
+
+        // ACT
+        try (InputStream in = target("/stall").request().get(InputStream.class)) {
+            in.readAllBytes();
+            fail("expected the read to time out");
+        } catch (HttpTimeoutException e) {
+            // expected
+        }
+
+        // ASSERT
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, registry.getGauges().get(UpstreamMetrics.name("test", MetricName.IN_FLIGHT)).getValue());
+        assertEquals("EH6 6QQ", target("/json").request().get(Map.class).get("postcode"));
+    }
+
+    @Test
+    public void bodyThatStallsPartWayFailsAnAsyncRequest() throws Exception {
+        // ARRANGE
+        client = javaClient(1);
+
+        // ACT
+        Future<String> entity = target("/stall").request().async().get(String.class);
+
+        // ASSERT
+        try {
+            entity.get(2, TimeUnit.SECONDS);
+            fail("expected the read to time out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ProcessingException);
+        }
+        assertEquals(0, registry.getGauges().get(UpstreamMetrics.name("test", MetricName.IN_FLIGHT)).getValue());
+    }
+
+    private Client javaClient(int poolSize) {
+        HousingConfiguration.Upstream config = new HousingConfiguration.Upstream("PT0.2S", "PT5S");
+        config.setEngine(UpstreamClients.JAVA);
+        config.setPoolSize(poolSize);
+        return new UpstreamClients(registry).builder("test", config, false).build();
+    }
+
+    private WebTarget target(String path) {
+        return client.target("http://localhost:" + server.getAddress().getPort()).path(path);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,63 @@
+package scot.mygov.housing;
+
+import org.junit.Test;
+import scot.mygov.housing.cpi.model.CPIData;
+import scot.mygov.housing.europa.EuropaMetadata;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class JsonCodecTest {
+
+    @Test
+    public void readersAreBuiltOncePerType() {
+        // ARRANGE
+        JsonCodec sut = new JsonCodec(false);
+
+        // ACT
+        Object first = sut.reader(CPIData.class);
+        Object second = sut.reader(CPIData.class);
+        Object list = sut.listReader(CPIData.class);
+
+        // ASSERT
+        assertSame(first, second);
+        assertSame(list, sut.listReader(CPIData.class));
+    }
+
+    @Test
+    public void acceleratedCodecReadsTheSameValues() throws Exception {
+        // ARRANGE
+        String json = "[{\"count\":3}]";
+
+        // ACT
+        List<EuropaMetadata> plain = new JsonCodec(false).readList(json, EuropaMetadata.class);
+        List<EuropaMetadata> accelerated = new JsonCodec(true)
+                .readList(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), EuropaMetadata.class);
+
+        // ASSERT
+        assertEquals(3, plain.get(0).getCount());
+        assertEquals(3, accelerated.get(0).getCount());
+    }
+
+    @Test
+    public void canonicalFormSortsMapEntriesAndWritesDates() throws Exception {
+        // ARRANGE
+        JsonCodec sut = new JsonCodec(false);
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("b", LocalDate.of(2024, 5, 1));
+        value.put("a", 1);
+
+        // ACT
+        String json = sut.canonicalWriter().writeValueAsString(sut.canonicalTree(value));
+
+        // ASSERT
+        assertEquals("{\"a\":1,\"b\":[2024,5,1]}", json);
+    }
+}
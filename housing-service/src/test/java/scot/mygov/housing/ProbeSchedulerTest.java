@@ -0,0 +1,134 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.MetricRegistry;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.Response;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProbeSchedulerTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(5);
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    private final ProbeScheduler sut = new ProbeScheduler(WINDOW, 0.2, registry, new Random(1));
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final AtomicInteger probes = new AtomicInteger();
+
+    @Test
+    public void idleUpstreamIsProbed() {
+        // ARRANGE
+        sut.register("test", calls::get, probes::incrementAndGet);
+
+        // ACT
+        boolean probed = target().check();
+
+        // ASSERT
+        assertTrue(probed);
+        assertEquals(1, probes.get());
+        assertEquals(1, registry.timer(ProbeScheduler.name("test", MetricName.PROBE_TIMES)).getCount());
+    }
+
+    @Test
+    public void upstreamWithTrafficIsNotProbed() {
+        // ARRANGE
+        sut.register("test", calls::get, probes::incrementAndGet);
+        calls.incrementAndGet();
+
+        // ACT
+        boolean probedWithTraffic = target().check();
+        boolean probedOnceIdle = target().check();
+
+        // ASSERT
+        assertFalse(probedWithTraffic);
+        assertTrue(probedOnceIdle);
+        assertEquals(1, probes.get());
+        assertEquals(1, registry.meter(ProbeScheduler.name("test", MetricName.SKIPPED)).getCount());
+    }
+
+    @Test
+    public void callsMadeByTheProbeAreNotTraffic() {
+        // ARRANGE
+        sut.register("test", calls::get, () -> {
+            probes.incrementAndGet();
+            calls.incrementAndGet();
+        });
+
+        // ACT
+        target().check();
+        target().check();
+
+        // ASSERT
+        assertEquals(2, probes.get());
+        assertEquals(0, registry.meter(ProbeScheduler.name("test", MetricName.SKIPPED)).getCount());
+    }
+
+    @Test
+    public void failedProbeIsCounted() {
+        // ARRANGE
+        sut.register("test", calls::get, () -> {
+            throw new IOException("unavailable");
+        });
+
+        // ACT
+        boolean probed = target().check();
+
+        // ASSERT
+        assertTrue(probed);
+        assertEquals(1, registry.meter(ProbeScheduler.name("test", MetricName.PROBE_ERRORS)).getCount());
+        assertEquals(1, registry.timer(ProbeScheduler.name("test", MetricName.PROBE_TIMES)).getCount());
+    }
+
+    @Test
+    public void delaysAreJitteredAroundTheWindow() {
+        // ACT
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            delays.add(sut.nextDelay());
+        }
+
+        // ASSERT
+        assertTrue(delays.size() > 1);
+        for (long delay : delays) {
+            assertTrue(delay >= WINDOW.toNanos() * 0.8);
+            assertTrue(delay <= WINDOW.toNanos() * 1.2);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void getProbeFailsOnServerError() throws Exception {
+        // ARRANGE
+        WebTarget target = mock(WebTarget.class);
+        Invocation.Builder builder = mock(Invocation.Builder.class);
+        Response response = mock(Response.class);
+        when(target.request()).thenReturn(builder);
+        when(builder.get()).thenReturn(response);
+        when(response.getStatus()).thenReturn(503);
+
+        // ACT
+        ProbeScheduler.get(target).probe();
+
+        // ASSERT -- see expected exception
+    }
+
+    private ProbeScheduler.Target target() {
+        return sut.getTargets().get(0);
+    }
+}
@@ -0,0 +1,136 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.Meter;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final Meter saved = new Meter();
+
+    private final SingleFlight<String, String, Exception> sut = new SingleFlight<>(saved);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallersShareOneCall() throws Exception {
+        // ARRANGE
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> sut.execute("key", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "result";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        // ACT
+        releaseOnceJoined(release);
+        String shared = sut.execute("key", () -> {
+            calls.incrementAndGet();
+            return "not called";
+        });
+
+        // ASSERT
+        assertEquals("result", shared);
+        assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(1, saved.getCount());
+        assertEquals(0, sut.inFlight());
+    }
+
+    @Test
+    public void concurrentCallersShareTheFailure() throws Exception {
+        // ARRANGE
+        IOException failure = new IOException("upstream failed");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> sut.execute("key", () -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw failure;
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        // ACT
+        releaseOnceJoined(release);
+        try {
+            sut.execute("key", () -> "not called");
+            fail("expected the shared failure");
+        } catch (IOException e) {
+
+            // ASSERT
+            assertSame(failure, e);
+        }
+        assertEquals(1, saved.getCount());
+    }
+
+    @Test
+    public void sequentialCallersEachMakeTheCall() throws Exception {
+        // ARRANGE
+        AtomicInteger calls = new AtomicInteger();
+
+        // ACT
+        sut.execute("key", () -> "first" + calls.incrementAndGet());
+        String second = sut.execute("key", () -> "second" + calls.incrementAndGet());
+
+        // ASSERT
+        assertEquals("second2", second);
+        assertEquals(0, saved.getCount());
+    }
+
+    @Test
+    public void differentKeysAreNotCoalesced() throws Exception {
+        // ARRANGE
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> other = executor.submit(() -> sut.execute("one", () -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "one";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        // ACT
+        String result = sut.execute("two", () -> "two");
+        release.countDown();
+
+        // ASSERT
+        assertEquals("two", result);
+        assertEquals("one", other.get(5, TimeUnit.SECONDS));
+        assertEquals(0, saved.getCount());
+    }
+
+    /**
+     * Lets the in-flight call finish once the caller under test has joined it, which is marked before it waits.
+     */
+    private void releaseOnceJoined(CountDownLatch release) {
+        Thread releaser = new Thread(() -> {
+            while (saved.getCount() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+        });
+        releaser.setDaemon(true);
+        releaser.start();
+    }
+}
@@ -0,0 +1,80 @@
+package scot.mygov.housing;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+import static org.junit.Assert.assertEquals;
+
+public class UpstreamClientsTest {
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/error", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void serverErrorsAreCountedForEachEngine() {
+        // ARRANGE
+        Client apache = client("apache", UpstreamClients.APACHE);
+        Client java = client("java", UpstreamClients.JAVA);
+
+        // ACT
+        int apacheStatus = get(apache);
+        int javaStatus = get(java);
+
+        // ASSERT
+        assertEquals(503, apacheStatus);
+        assertEquals(503, javaStatus);
+        assertEquals(1, registry.meter(UpstreamMetrics.name("apache", MetricName.ERROR_RATE)).getCount());
+        assertEquals(1, registry.meter(UpstreamMetrics.name("java", MetricName.ERROR_RATE)).getCount());
+        assertEquals(1, registry.timer(UpstreamMetrics.name("apache", MetricName.RESPONSE_TIMES)).getCount());
+        assertEquals(1, registry.timer(UpstreamMetrics.name("java", MetricName.RESPONSE_TIMES)).getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownEngineIsRejected() {
+        // ACT
+        client("test", "netty");
+
+        // ASSERT -- see expected exception
+    }
+
+    private Client client(String upstream, String engine) {
+        HousingConfiguration.Upstream config = new HousingConfiguration.Upstream("PT1S", "PT5S");
+        config.setEngine(engine);
+        return new UpstreamClients(registry).builder(upstream, config, false).build();
+    }
+
+    private int get(Client client) {
+        try (Response response = client.target("http://localhost:" + server.getAddress().getPort())
+                .path("/error")
+                .request()
+                .get()) {
+            return response.getStatus();
+        } finally {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package scot.mygov.housing;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void availableFromJava21() {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isAvailable());
+    }
+
+    @Test
+    public void disabledUnlessConfigured() {
+        assertFalse(VirtualThreads.enabled(false));
+    }
+
+    @Test
+    public void enabledOnlyWhenAvailable() {
+        assertEquals(VirtualThreads.isAvailable(), VirtualThreads.enabled(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void factoryThrowsWhenNotAvailable() {
+        assumeFalse(VirtualThreads.isAvailable());
+
+        VirtualThreads.factory("test-");
+    }
+
+    @Test
+    public void executorRunsTasksOnNamedThreads() throws Exception {
+        // ARRANGE
+        assumeTrue(VirtualThreads.isAvailable());
+        CompletableFuture<String> name = new CompletableFuture<>();
+
+        // ACT
+        VirtualThreads.executor("test-").execute(() -> name.complete(Thread.currentThread().getName()));
+
+        // ASSERT
+        assertEquals("test-0", name.get(1, TimeUnit.SECONDS));
+    }
+}
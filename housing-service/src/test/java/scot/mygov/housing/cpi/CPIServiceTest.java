@@ -1,16 +1,19 @@
 package scot.mygov.housing.cpi;
 
 import org.junit.Test;
+import scot.mygov.housing.JsonCodec;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.time.Duration;
 import java.time.LocalDate;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class CPIServiceTest {
@@ -86,11 +89,29 @@ public class CPIServiceTest {
         // ASSERT -- see expected exception
     }
 
+    @Test
+    public void fetchIsBoundedByTimeout() throws IOException, CPIServiceException {
+        // ARRANGE
+        URLConnection connection = mock(URLConnection.class);
+        when(connection.getInputStream()).thenReturn(CPIServiceTest.class.getResourceAsStream("sampleData.json"));
+        CPIService sut = new CPIService(url(connection), JsonCodec.defaultCodec(), Duration.ofSeconds(3));
+
+        // ACT
+        sut.probe();
+
+        // ASSERT
+        verify(connection).setConnectTimeout(3000);
+        verify(connection).setReadTimeout(3000);
+    }
+
     public URL sampleDataUrl() throws IOException {
         URLConnection mockConnection = mock(URLConnection.class);
         InputStream in = CPIServiceTest.class.getResourceAsStream("sampleData.json");
         when(mockConnection.getInputStream()).thenReturn(in);
+        return url(mockConnection);
+    }
 
+    private static URL url(URLConnection mockConnection) throws IOException {
         URLStreamHandler handler = new URLStreamHandler() {
             @Override
             protected URLConnection openConnection(final URL arg0)
@@ -1,18 +1,26 @@
 package scot.mygov.housing.europa;
 
 import com.codahale.metrics.MetricRegistry;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.client.Invocation;
 import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.Response;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Test;
+import scot.mygov.housing.CircuitBreaker;
+import scot.mygov.housing.JsonCodec;
+import scot.mygov.housing.MetricName;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.Collections;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 public class EuropaTest {
@@ -85,6 +93,79 @@ public class EuropaTest {
         // ASSERT -- see expected exception
     }
 
+    @Test
+    public void openCircuitFailsWithoutCallingEuropa() throws Exception {
+        // ARRANGE
+        WebTarget target = exceptionThrowingTarget(new ProcessingException(""));
+        MetricRegistry registry = new MetricRegistry();
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 50, 100, Duration.ofSeconds(2), Duration.ofMinutes(1));
+        Europa sut = new Europa(target, JsonCodec.defaultCodec(), registry, breaker);
+        for (int i = 0; i < 2; i++) {
+            try {
+                sut.lookupUprn("uprn");
+            } catch (EuropaException e) {
+                // opens the circuit
+            }
+        }
+
+        // ACT
+        try {
+            sut.lookupUprn("uprn");
+            fail("expected the lookup to fail");
+        } catch (EuropaException e) {
+            // expected
+        }
+
+        // ASSERT
+        verify(target, times(2)).request();
+        assertEquals(CircuitBreaker.State.OPEN, sut.getCircuitState());
+        assertEquals(1, registry.meter(MetricName.REJECTIONS.name(sut)).getCount());
+        assertEquals("OPEN", registry.getGauges().get(MetricName.CIRCUIT_STATE.name(sut)).getValue());
+    }
+
+    @Test
+    public void clientErrorsDoNotOpenTheCircuit() throws Exception {
+        // ARRANGE
+        WebTarget target = exceptionThrowingTarget(new WebApplicationException(404));
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 50, 100, Duration.ofSeconds(2), Duration.ofMinutes(1));
+        Europa sut = new Europa(target, JsonCodec.defaultCodec(), new MetricRegistry(), breaker);
+
+        // ACT
+        for (int i = 0; i < 3; i++) {
+            try {
+                sut.lookupUprn("uprn");
+                fail("expected the lookup to fail");
+            } catch (EuropaException e) {
+                // expected
+            }
+        }
+
+        // ASSERT
+        verify(target, times(3)).request();
+        assertEquals(CircuitBreaker.State.CLOSED, sut.getCircuitState());
+    }
+
+    @Test
+    public void serverErrorsOpenTheCircuit() throws Exception {
+        // ARRANGE
+        WebTarget target = exceptionThrowingTarget(new WebApplicationException(503));
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 50, 100, Duration.ofSeconds(2), Duration.ofMinutes(1));
+        Europa sut = new Europa(target, JsonCodec.defaultCodec(), new MetricRegistry(), breaker);
+
+        // ACT
+        for (int i = 0; i < 2; i++) {
+            try {
+                sut.lookupUprn("uprn");
+                fail("expected the lookup to fail");
+            } catch (EuropaException e) {
+                // expected
+            }
+        }
+
+        // ASSERT
+        assertEquals(CircuitBreaker.State.OPEN, sut.getCircuitState());
+    }
+
     private EuropaResults uprnResults(String uprn) {
         EuropaResults results = new EuropaResults();
         results.setMetadata(new EuropaMetadata());
@@ -155,7 +236,7 @@ public class EuropaTest {
 
         ObjectMapper objectMapper = new ObjectMapper();
         String jsonString = objectMapper.writeValueAsString(results);
-        when(builder.get(JsonNode.class)).thenReturn(objectMapper.readValue(jsonString, JsonNode.class));
+        when(builder.get(InputStream.class)).thenReturn(new ByteArrayInputStream(jsonString.getBytes(UTF_8)));
 
         return target;
     }
@@ -173,7 +254,7 @@ public class EuropaTest {
         Response response = mock(Response.class);
         when(response.getStatus()).thenReturn(200);
         when(builder.header(any(), any())).thenReturn(builder);
-        when(builder.get(JsonNode.class)).thenThrow(t);
+        when(builder.get(InputStream.class)).thenThrow(t);
         return target;
     }
 }
@@ -1,21 +1,44 @@
 package scot.mygov.housing.forms;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.jboss.resteasy.plugins.providers.multipart.InputPart;
+import org.jboss.resteasy.plugins.providers.multipart.MultipartFormDataInput;
 import org.junit.Assert;
 import org.junit.Test;
-
+import org.mockito.ArgumentCaptor;
+import scot.mygov.housing.JsonCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AbstractDocumentGenerationResourceTest {
@@ -45,6 +68,13 @@ public class AbstractDocumentGenerationResourceTest {
             super(service, recaptchaCheck);
         }
 
+        public DummyDocumentationGenarationResource(
+                DocumentGenerationService<DummyFormData> service,
+                RecaptchaCheck recaptchaCheck,
+                DocumentBatchRenderer batchRenderer) {
+            super(service, recaptchaCheck, null, batchRenderer);
+        }
+
         protected String contentDispositionFilenameStem() {
             return "dummy";
         }
@@ -56,8 +86,7 @@ public class AbstractDocumentGenerationResourceTest {
 
 
     @Test
-    public void multipartJSONVersionReturnsPDFForValidTenancyWithNoTypeParam()
-            throws DocumentGenerationServiceException {
+    public void multipartJSONVersionReturnsPDFForValidTenancyWithNoTypeParam() throws Exception {
 
         // ARRANGE
         DummyDocumentationGenarationResource sut
@@ -66,8 +95,8 @@ public class AbstractDocumentGenerationResourceTest {
                         passingRecaptchaCheck());
 
         // ACT
-        Response response = sut.multipart(exampleFormData(), "");
-        byte[] bytes = (byte[]) response.getEntity();
+        Response response = resumed(asyncResponse -> sut.multipart(asyncResponse, exampleFormData(), ""));
+        byte[] bytes = entityBytes(response);
 
         // ASSERT
         assertEquals(1, bytes[0]);
@@ -88,9 +117,11 @@ public class AbstractDocumentGenerationResourceTest {
                 service(new byte[]{1}),
                 passingRecaptchaCheck());
 
+        MultipartFormDataInput input = form(params);
+
         // ACT
-        Response response = sut.multipart(params);
-        byte[] bytes = (byte[]) response.getEntity();
+        Response response = resumed(asyncResponse -> sut.multipart(asyncResponse, input));
+        byte[] bytes = entityBytes(response);
 
         // ASSERT
         assertEquals(1, bytes[0]);
@@ -111,9 +142,11 @@ public class AbstractDocumentGenerationResourceTest {
                 service(new byte[]{1}),
                 passingRecaptchaCheck());
 
+        MultipartFormDataInput input = form(params);
+
         // ACT
-        Response response = sut.multipart(params);
-        byte[] bytes = (byte[]) response.getEntity();
+        Response response = resumed(asyncResponse -> sut.multipart(asyncResponse, input));
+        byte[] bytes = entityBytes(response);
 
         // ASSERT
         assertEquals(1, bytes[0]);
@@ -134,9 +167,11 @@ public class AbstractDocumentGenerationResourceTest {
                 service(new byte[]{1}),
                 passingRecaptchaCheck());
 
+        MultipartFormDataInput input = form(params);
+
         // ACT
-        Response response = sut.multipart(params);
-        byte[] bytes = (byte[]) response.getEntity();
+        Response response = resumed(asyncResponse -> sut.multipart(asyncResponse, input));
+        byte[] bytes = entityBytes(response);
 
         // ASSERT
         assertEquals(1, bytes[0]);
@@ -158,9 +193,11 @@ public class AbstractDocumentGenerationResourceTest {
                 service(new byte[]{1}),
                 passingRecaptchaCheck());
 
+        MultipartFormDataInput input = form(params);
+
         // ACT
-        Response response = sut.multipart(params);
-        byte[] bytes = (byte[]) response.getEntity();
+        Response response = resumed(asyncResponse -> sut.multipart(asyncResponse, input));
+        byte[] bytes = entityBytes(response);
 
         // ASSERT
         assertEquals(1, bytes[0]);
@@ -169,8 +206,51 @@ public class AbstractDocumentGenerationResourceTest {
         assertEquals("attachment; filename=\"dummy.pdf\"", headers.getFirst(HttpHeaders.CONTENT_DISPOSITION));
     }
 
-    @Test(expected = DocumentGenerationServiceException.class)
-    public void shouldReturnErrorIfInvalidJSON() throws DocumentGenerationServiceException {
+    @Test
+    public void multipartPartsAreDecodedAsTheyAreParsed() throws Exception {
+
+        // ARRANGE
+        DummyFormData model = new DummyFormData();
+        model.setName("Mrs O'Brien & son");
+        String encoded = URLEncoder.encode(new ObjectMapper().writeValueAsString(model), StandardCharsets.UTF_8.name());
+        Map<String, List<InputPart>> parts = new HashMap<>();
+        parts.put("data", singletonList(part(encoded)));
+        parts.put("type", singletonList(part("WORD")));
+        MultipartFormDataInput input = mock(MultipartFormDataInput.class);
+        when(input.getFormDataMap()).thenReturn(parts);
+
+        DocumentGenerationService<DummyFormData> service = service(new byte[]{1});
+        DummyDocumentationGenarationResource sut
+                = new DummyDocumentationGenarationResource(service, passingRecaptchaCheck());
+
+        // ACT
+        Response response = resumed(asyncResponse -> sut.multipart(asyncResponse, input));
+
+        // ASSERT
+        ArgumentCaptor<DummyFormData> parsed = ArgumentCaptor.forClass(DummyFormData.class);
+        verify(service).render(parsed.capture(), any());
+        assertEquals("Mrs O'Brien & son", parsed.getValue().getName());
+        assertEquals(WORD_MIME_TYPE, response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    @Test
+    public void multipartWithoutDataIsRejected() throws Exception {
+
+        // ARRANGE
+        MultipartFormDataInput input = mock(MultipartFormDataInput.class);
+        when(input.getFormDataMap()).thenReturn(Collections.emptyMap());
+        DummyDocumentationGenarationResource sut
+                = new DummyDocumentationGenarationResource(service(new byte[]{1}), passingRecaptchaCheck());
+
+        // ACT
+        Response response = resumed(asyncResponse -> sut.multipart(asyncResponse, input));
+
+        // ASSERT
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    public void shouldReturnErrorIfInvalidJSON() throws Exception {
 
         // ARRANGE
         Map<String, String> params = new HashMap<>();
@@ -181,16 +261,36 @@ public class AbstractDocumentGenerationResourceTest {
                 service(new byte[]{1}),
                 passingRecaptchaCheck());
 
+        MultipartFormDataInput input = form(params);
+
         // ACT
-        try (Response response = sut.multipart(params)) {
-            fail("Expected exception");
-        }
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        sut.multipart(asyncResponse, input);
 
-        // ASSERT - see expected exception
+        // ASSERT
+        verify(asyncResponse).resume(any(DocumentGenerationServiceException.class));
     }
 
     @Test
-    public void shouldReturnErrorIfEmptyJSON() throws DocumentGenerationServiceException {
+    public void renderFailureIsThrownBeforeResponseIsBuilt() throws DocumentGenerationServiceException {
+
+        // ARRANGE
+        DocumentGenerationService<DummyFormData> service = mock(DocumentGenerationService.class);
+        when(service.render(any(), any())).thenThrow(new DocumentGenerationServiceException("arg", null));
+        DummyDocumentationGenarationResource sut
+                = new DummyDocumentationGenarationResource(service, passingRecaptchaCheck());
+
+        // ACT
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        sut.multipart(asyncResponse, exampleFormData(), "PDF");
+
+        // ASSERT
+        verify(asyncResponse).resume(any(DocumentGenerationServiceException.class));
+        verify(asyncResponse, never()).resume(any(Response.class));
+    }
+
+    @Test
+    public void shouldReturnErrorIfEmptyJSON() throws Exception {
 
         // ARRANGE
         Map<String, String> params = new HashMap<>();
@@ -201,8 +301,10 @@ public class AbstractDocumentGenerationResourceTest {
                 service(new byte[]{1}),
                 passingRecaptchaCheck());
 
+        MultipartFormDataInput input = form(params);
+
         // ACT
-        Response response = sut.multipart(params);
+        Response response = resumed(asyncResponse -> sut.multipart(asyncResponse, input));
 
         // ASSERT
         Assert.assertEquals(400, response.getStatus());
@@ -220,13 +322,116 @@ public class AbstractDocumentGenerationResourceTest {
                 service(new byte[]{1}),
                 failingRecaptchaCheck());
 
+        MultipartFormDataInput input = form(params);
+
         // ACT
-        Response response = sut.multipart(params);
+        Response response = resumed(asyncResponse -> sut.multipart(asyncResponse, input));
 
         // ASSERT
         assertEquals(400, response.getStatus());
     }
 
+    @Test
+    public void batchReturnsZipOfDocuments() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer batchRenderer =
+                new DocumentBatchRenderer(
+                        1, 10, 2, 2, Duration.ofSeconds(10), 5, JsonCodec.defaultCodec(), new MetricRegistry());
+        DummyDocumentationGenarationResource sut
+                = new DummyDocumentationGenarationResource(
+                service(new byte[]{1}),
+                passingRecaptchaCheck(),
+                batchRenderer);
+        String data = new ObjectMapper().writeValueAsString(Arrays.asList(exampleFormData(), exampleFormData()));
+
+        // ACT
+        Response response = resumed(asyncResponse -> sut.batch(asyncResponse, data, "WORD"));
+        byte[] bytes = entityBytes(response);
+        batchRenderer.shutdown();
+
+        // ASSERT
+        assertEquals(200, response.getStatus());
+        MultivaluedMap<String, Object> headers = response.getHeaders();
+        assertEquals("application/zip", headers.getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals("attachment; filename=\"dummy.zip\"", headers.getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        Set<String> names = new HashSet<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+        assertEquals(new HashSet<>(Arrays.asList("dummy-1.docx", "dummy-2.docx", "manifest.json")), names);
+    }
+
+    @Test
+    public void batchLargerThanLimitReturnsClientError() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer batchRenderer =
+                new DocumentBatchRenderer(
+                        1, 10, 1, 2, Duration.ofSeconds(10), 5, JsonCodec.defaultCodec(), new MetricRegistry());
+        DummyDocumentationGenarationResource sut
+                = new DummyDocumentationGenarationResource(
+                service(new byte[]{1}),
+                passingRecaptchaCheck(),
+                batchRenderer);
+        String data = new ObjectMapper().writeValueAsString(Arrays.asList(exampleFormData(), exampleFormData()));
+
+        // ACT
+        Response response = resumed(asyncResponse -> sut.batch(asyncResponse, data, "PDF"));
+        batchRenderer.shutdown();
+
+        // ASSERT
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    public void batchWithFailingRecaptchaReturnsClientError() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer batchRenderer =
+                new DocumentBatchRenderer(
+                        1, 10, 2, 2, Duration.ofSeconds(10), 5, JsonCodec.defaultCodec(), new MetricRegistry());
+        DummyDocumentationGenarationResource sut
+                = new DummyDocumentationGenarationResource(
+                service(new byte[]{1}),
+                failingRecaptchaCheck(),
+                batchRenderer);
+        String data = new ObjectMapper().writeValueAsString(Collections.singletonList(exampleFormData()));
+
+        // ACT
+        Response response = resumed(asyncResponse -> sut.batch(asyncResponse, data, "PDF"));
+        batchRenderer.shutdown();
+
+        // ASSERT
+        assertEquals(400, response.getStatus());
+    }
+
+    private Response resumed(Consumer<AsyncResponse> request) {
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        request.accept(asyncResponse);
+        ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+        verify(asyncResponse).resume(response.capture());
+        return (Response) response.getValue();
+    }
+
+    private static MultipartFormDataInput form(Map<String, String> params) throws IOException {
+        Map<String, List<InputPart>> parts = new HashMap<>();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            parts.put(param.getKey(), singletonList(part(param.getValue())));
+        }
+        MultipartFormDataInput input = mock(MultipartFormDataInput.class);
+        when(input.getFormDataMap()).thenReturn(parts);
+        return input;
+    }
+
+    private static InputPart part(String body) throws IOException {
+        InputPart part = mock(InputPart.class);
+        when(part.getBody(InputStream.class, null))
+                .thenReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        when(part.getBodyAsString()).thenReturn(body);
+        return part;
+    }
+
     private RecaptchaCheck passingRecaptchaCheck() {
         RecaptchaCheck recaptchaCheck = mock(RecaptchaCheck.class);
         when(recaptchaCheck.verify(any())).thenReturn(true);
@@ -241,10 +446,16 @@ public class AbstractDocumentGenerationResourceTest {
 
     private DocumentGenerationService<DummyFormData> service(byte[] bytes) throws DocumentGenerationServiceException {
         DocumentGenerationService<DummyFormData> service = mock(DocumentGenerationService.class);
-        when(service.save(any(), any())).thenReturn(bytes);
+        when(service.render(any(), any())).thenReturn(out -> out.write(bytes));
         return service;
     }
 
+    private byte[] entityBytes(Response response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+        return out.toByteArray();
+    }
+
     String exampleFormDataString() throws Exception {
         return new ObjectMapper().writeValueAsString(exampleFormData());
     }
@@ -0,0 +1,121 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+import scot.mygov.documents.DocumentType;
+import scot.mygov.housing.JsonCodec;
+import scot.mygov.housing.MetricName;
+import scot.mygov.housing.forms.modeltenancy.model.Address;
+import scot.mygov.housing.forms.modeltenancy.model.ModelTenancy;
+import scot.mygov.housing.forms.noticetoleave.model.NoticeToLeave;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BlankDocumentsTest {
+
+    MetricRegistry registry = new MetricRegistry();
+
+    BlankDocuments<NoticeToLeave> sut = new BlankDocuments<>("noticeToLeave", NoticeToLeave::new, registry);
+
+    @Test
+    public void newModelIsBlank() {
+        assertTrue(sut.isBlank(new NoticeToLeave()));
+    }
+
+    @Test
+    public void modelWithOnlyARecaptchaIsBlank() {
+        // ARRANGE
+        NoticeToLeave model = new NoticeToLeave();
+        model.setRecaptcha("recaptcha-response");
+
+        // ACT
+        boolean actual = sut.isBlank(model);
+
+        // ASSERT
+        assertTrue(actual);
+    }
+
+    @Test
+    public void modelWithEmptyValuesIsNotBlank() {
+        // ARRANGE
+        NoticeToLeave model = new NoticeToLeave();
+        model.setTenantNames(asList("", " "));
+        model.setAddress(new Address());
+
+        // ACT
+        boolean actual = sut.isBlank(model);
+
+        // ASSERT
+        assertFalse(actual);
+    }
+
+    @Test
+    public void emptyLettingAgentIsNotBlank() throws Exception {
+        // ARRANGE
+        BlankDocuments<ModelTenancy> modelTenancy =
+                new BlankDocuments<>("modelTenancy", ModelTenancy::new, registry);
+        ModelTenancy model = JsonCodec.defaultCodec().read(
+                new ByteArrayInputStream("{\"lettingAgent\":{}}".getBytes(StandardCharsets.UTF_8)),
+                ModelTenancy.class);
+
+        // ACT
+        boolean actual = modelTenancy.isBlank(model);
+
+        // ASSERT
+        assertFalse(actual);
+    }
+
+    @Test
+    public void modelWithAValueIsNotBlank() {
+        // ARRANGE
+        NoticeToLeave model = new NoticeToLeave();
+        model.setEntryDate(LocalDate.of(2020, 1, 1));
+
+        // ACT
+        boolean actual = sut.isBlank(model);
+
+        // ASSERT
+        assertFalse(actual);
+    }
+
+    @Test
+    public void retiredTemplateVersionIsForgotten() {
+        // ARRANGE
+        sut.put(DocumentType.PDF, "v1", new byte[] { 1 });
+        sut.put(DocumentType.PDF, "v2", new byte[] { 2 });
+
+        // ACT
+        sut.retire("v1");
+
+        // ASSERT
+        assertNull(sut.get(DocumentType.PDF, "v1"));
+        assertArrayEquals(new byte[] { 2 }, sut.get(DocumentType.PDF, "v2"));
+    }
+
+    @Test
+    public void formsSharingAModelHaveTheirOwnHits() {
+        // ARRANGE
+        BlankDocuments<NoticeToLeave> subtenant =
+                new BlankDocuments<>("subtenantNoticeToLeave", NoticeToLeave::new, registry);
+        sut.put(DocumentType.PDF, "v1", new byte[] { 1 });
+        subtenant.put(DocumentType.PDF, "v1", new byte[] { 2 });
+
+        // ACT
+        sut.get(DocumentType.PDF, "v1");
+        sut.get(DocumentType.PDF, "v1");
+        subtenant.get(DocumentType.PDF, "v1");
+
+        // ASSERT
+        assertEquals(2, registry.meter(BlankDocuments.name("noticeToLeave", MetricName.HITS)).getCount());
+        assertEquals(1, registry.meter(BlankDocuments.name("subtenantNoticeToLeave", MetricName.HITS)).getCount());
+    }
+}
@@ -0,0 +1,244 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.junit.After;
+import org.junit.Test;
+import scot.mygov.housing.JsonCodec;
+import scot.mygov.validation.ValidationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class DocumentBatchRendererTest {
+
+    DocumentBatchRenderer sut = renderer(2, 10, 2, Duration.ofSeconds(10));
+
+    @After
+    public void shutdown() {
+        sut.shutdown();
+    }
+
+    @Test
+    public void zipContainsEachRenderedDocumentAndManifest() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer.Renderer<String> renderer = model -> {
+            if ("fails".equals(model)) {
+                throw new DocumentGenerationServiceException("Failed to generate document", null);
+            }
+            return out -> out.write(model.getBytes(StandardCharsets.UTF_8));
+        };
+
+        // ACT
+        Map<String, byte[]> entries = unzip(
+                sut.render(Arrays.asList("first", "fails", "third"), renderer, index -> "doc-" + (index + 1)));
+
+        // ASSERT
+        assertEquals("first", new String(entries.get("doc-1"), StandardCharsets.UTF_8));
+        assertEquals("third", new String(entries.get("doc-3"), StandardCharsets.UTF_8));
+        assertFalse(entries.containsKey("doc-2"));
+
+        JsonNode manifest = new ObjectMapper().readTree(entries.get(DocumentBatchRenderer.MANIFEST));
+        assertEquals(3, manifest.size());
+        assertEquals("ok", manifest.get(0).get("status").asText());
+        assertEquals("doc-1", manifest.get(0).get("file").asText());
+        assertEquals("error", manifest.get(1).get("status").asText());
+        assertEquals("Failed to generate document", manifest.get(1).get("error").asText());
+        assertFalse(manifest.get(1).has("file"));
+        assertEquals(2, manifest.get(2).get("index").asInt());
+    }
+
+    @Test
+    public void validationIssuesAreRecordedInManifest() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer.Renderer<String> renderer = model -> {
+            throw new ValidationException(Collections.singletonMap("name", Collections.singletonList("required")));
+        };
+
+        // ACT
+        Map<String, byte[]> entries = unzip(
+                sut.render(Collections.singletonList("invalid"), renderer, index -> "doc-" + (index + 1)));
+
+        // ASSERT
+        assertEquals(1, entries.size());
+        JsonNode item = new ObjectMapper().readTree(entries.get(DocumentBatchRenderer.MANIFEST)).get(0);
+        assertEquals("invalid", item.get("status").asText());
+        assertEquals("required", item.get("issues").get("name").get(0).asText());
+    }
+
+    @Test
+    public void documentThatFailsToSaveIsRecordedInManifest() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer.Renderer<String> renderer = model -> out -> {
+            throw new IOException("Failed to write document",
+                    new DocumentGenerationServiceException("Failed to generate document", null));
+        };
+
+        // ACT
+        Map<String, byte[]> entries = unzip(
+                sut.render(Collections.singletonList("fails"), renderer, index -> "doc-" + (index + 1)));
+
+        // ASSERT
+        JsonNode item = new ObjectMapper().readTree(entries.get(DocumentBatchRenderer.MANIFEST)).get(0);
+        assertEquals("error", item.get("status").asText());
+        assertFalse(item.has("file"));
+    }
+
+    @Test
+    public void entriesAreWrittenAsEachDocumentCompletes() throws Exception {
+        // ARRANGE
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        DocumentBatchRenderer.Renderer<String> renderer = model -> {
+            if ("second".equals(model)) {
+                // the second document cannot complete until the first has been written out
+                await(firstWritten);
+            }
+            return out -> {
+                out.write(model.getBytes(StandardCharsets.UTF_8));
+                firstWritten.countDown();
+            };
+        };
+
+        // ACT
+        Map<String, byte[]> entries = unzip(
+                sut.render(Arrays.asList("first", "second"), renderer, index -> "doc-" + (index + 1)));
+
+        // ASSERT
+        assertEquals("first", new String(entries.get("doc-1"), StandardCharsets.UTF_8));
+        assertEquals("second", new String(entries.get("doc-2"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void rendererErrorIsRecordedInManifest() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer.Renderer<String> renderer = model -> {
+            throw new AssertionError("renderer broke");
+        };
+
+        // ACT
+        Map<String, byte[]> entries = unzip(
+                sut.render(Collections.singletonList("broken"), renderer, index -> "doc-" + (index + 1)));
+
+        // ASSERT
+        JsonNode item = new ObjectMapper().readTree(entries.get(DocumentBatchRenderer.MANIFEST)).get(0);
+        assertEquals("error", item.get("status").asText());
+        assertEquals("renderer broke", item.get("error").asText());
+    }
+
+    @Test
+    public void documentsNotRenderedByTheDeadlineAreRecordedAsErrors() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer slow = renderer(1, 10, 2, Duration.ofMillis(200));
+        CountDownLatch never = new CountDownLatch(1);
+        DocumentBatchRenderer.Renderer<String> renderer = model -> {
+            if ("stalls".equals(model)) {
+                await(never);
+            }
+            return out -> out.write(model.getBytes(StandardCharsets.UTF_8));
+        };
+
+        // ACT
+        Map<String, byte[]> entries = unzip(
+                slow.render(Arrays.asList("stalls", "queued"), renderer, index -> "doc-" + (index + 1)));
+        slow.shutdown();
+
+        // ASSERT
+        JsonNode manifest = new ObjectMapper().readTree(entries.get(DocumentBatchRenderer.MANIFEST));
+        assertEquals("error", manifest.get(0).get("status").asText());
+        assertEquals("Timed out rendering document", manifest.get(1).get("error").asText());
+        assertEquals(1, entries.size());
+    }
+
+    @Test
+    public void renderingWaitsForTheWriterOnceTheUnwrittenLimitIsReached() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer limited = renderer(2, 10, 1, Duration.ofSeconds(10));
+        AtomicInteger rendered = new AtomicInteger();
+        DocumentBatchRenderer.Renderer<String> renderer = model -> {
+            rendered.incrementAndGet();
+            return out -> out.write(model.getBytes(StandardCharsets.UTF_8));
+        };
+
+        // ACT
+        StreamingOutput output
+                = limited.render(Arrays.asList("first", "second"), renderer, index -> "doc-" + (index + 1));
+        Thread.sleep(200);
+        int renderedBeforeWriting = rendered.get();
+        Map<String, byte[]> entries = unzip(output);
+        limited.shutdown();
+
+        // ASSERT
+        assertEquals(1, renderedBeforeWriting);
+        assertEquals(3, entries.size());
+    }
+
+    @Test
+    public void batchThatDoesNotFitInTheQueueIsRejected() throws Exception {
+        // ARRANGE
+        DocumentBatchRenderer small = renderer(1, 1, 2, Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        DocumentBatchRenderer.Renderer<String> renderer = model -> {
+            await(release);
+            return out -> out.write(model.getBytes(StandardCharsets.UTF_8));
+        };
+
+        // ACT
+        try {
+            small.render(Arrays.asList("a", "b", "c"), renderer, index -> "doc-" + (index + 1));
+            fail("Expected exception");
+        } catch (RenderRejectedException e) {
+            // ASSERT
+            assertEquals(5, e.getRetryAfterSeconds());
+        } finally {
+            release.countDown();
+            small.shutdown();
+        }
+    }
+
+    private static DocumentBatchRenderer renderer(int threads, int queueSize, int maxUnwritten, Duration timeout) {
+        return new DocumentBatchRenderer(
+                threads, queueSize, 10, maxUnwritten, timeout, 5, JsonCodec.defaultCodec(), new MetricRegistry());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the first document to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, byte[]> unzip(StreamingOutput output) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        output.write(out);
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+}
@@ -1,16 +1,40 @@
 package scot.mygov.housing.forms;
 
 import com.codahale.metrics.MetricRegistry;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.junit.Test;
 import scot.mygov.documents.DocumentGenerator;
+import scot.mygov.documents.DocumentGeneratorException;
 import scot.mygov.documents.DocumentTemplateLoader;
 import scot.mygov.documents.DocumentTemplateLoaderBasicImpl;
 import scot.mygov.documents.DocumentType;
+import scot.mygov.documents.RenderStage;
+import scot.mygov.documents.RenderTimer;
 import scot.mygov.housing.forms.modeltenancy.ModelTenancyFieldExtractor;
 import scot.mygov.housing.forms.modeltenancy.ModelTenancyMergingCallback;
 import scot.mygov.housing.forms.modeltenancy.model.ModelTenancy;
 import scot.mygov.housing.forms.modeltenancy.validation.ModelTenancyObjectMother;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 public class DocumentGenerationServiceTest {
 
     ModelTenancyObjectMother om = new ModelTenancyObjectMother();
@@ -40,4 +64,195 @@ public class DocumentGenerationServiceTest {
 
         sut.save(om.anyTenancy(), DocumentType.PDF);
     }
+
+    @Test
+    public void repeatedRenderIsServedFromCache() throws Exception {
+        // ARRANGE
+        DocumentGenerator generator = generatorWritingBytes("v1");
+        RenderedDocumentCache cache = new RenderedDocumentCache(1024, new MetricRegistry());
+        DocumentGenerationService<ModelTenancy> sut = new DocumentGenerationService<>(
+                generator, new ModelTenancyFieldExtractor(), ModelTenancyMergingCallback::new, null, cache, null,
+                null, new MetricRegistry());
+
+        // ACT
+        byte[] first = sut.save(om.anyTenancy(), DocumentType.PDF);
+        byte[] second = sut.save(om.anyTenancy(), DocumentType.PDF);
+
+        // ASSERT
+        assertArrayEquals(new byte[] { 1, 2, 3 }, first);
+        assertArrayEquals(first, second);
+        verify(generator, times(1)).merge(any(), eq(DocumentType.PDF), any(), any());
+    }
+
+    @Test
+    public void cacheIsInvalidatedWhenTemplateVersionChanges() throws Exception {
+        // ARRANGE
+        DocumentGenerator generator = generatorWritingBytes("v1");
+        RenderedDocumentCache cache = new RenderedDocumentCache(1024, new MetricRegistry());
+        DocumentGenerationService<ModelTenancy> sut = new DocumentGenerationService<>(
+                generator, new ModelTenancyFieldExtractor(), null, null, cache, null, null, new MetricRegistry());
+        sut.save(om.anyTenancy(), DocumentType.PDF);
+        when(generator.templateVersion()).thenReturn("v2");
+
+        // ACT
+        sut.save(om.anyTenancy(), DocumentType.PDF);
+
+        // ASSERT
+        verify(generator, times(2)).merge(any(), eq(DocumentType.PDF), any(), any());
+        assertEquals(3, cache.sizeBytes());
+    }
+
+    @Test
+    public void blankSubmissionsAreServedFromBlankDocuments() throws Exception {
+        // ARRANGE
+        DocumentGenerator generator = generatorWritingBytes("v1");
+        DocumentGenerationService<ModelTenancy> sut = new DocumentGenerationService<>(
+                generator, new ModelTenancyFieldExtractor(), ModelTenancyMergingCallback::new, null, null,
+                new BlankDocuments<>("modelTenancy", ModelTenancy::new, new MetricRegistry()), null,
+                new MetricRegistry());
+        ModelTenancy blank = new ModelTenancy();
+        blank.setRecaptcha("recaptcha-response");
+
+        // ACT
+        sut.save(new ModelTenancy(), DocumentType.PDF);
+        byte[] actual = sut.save(blank, DocumentType.PDF);
+        sut.save(om.anyTenancy(), DocumentType.PDF);
+
+        // ASSERT
+        assertArrayEquals(new byte[] { 1, 2, 3 }, actual);
+        verify(generator, times(2)).merge(any(), eq(DocumentType.PDF), any(), any());
+    }
+
+    @Test
+    public void stagesAreTimedByFormAndType() throws Exception {
+        // ARRANGE
+        DocumentGenerator generator = generatorWritingBytes("v1");
+        when(generator.merge(any(), any(), any(), any())).thenAnswer(invocation -> {
+            RenderTimer timer = invocation.getArgument(3);
+            timer.record(RenderStage.MERGE, 1000);
+            return null;
+        });
+        MetricRegistry registry = new MetricRegistry();
+        DocumentGenerationService<ModelTenancy> sut = new DocumentGenerationService<>(
+                generator, new ModelTenancyFieldExtractor(), null, null, null, null, "modelTenancy", registry);
+
+        // ACT
+        sut.save(om.anyTenancy(), DocumentType.WORD);
+
+        // ASSERT
+        String prefix = "scot.mygov.housing.forms.DocumentGenerationService.modelTenancy.";
+        assertEquals(1, registry.timer(prefix + "word.extract.stage-times").getCount());
+        assertEquals(1, registry.timer(prefix + "word.merge.stage-times").getCount());
+        assertEquals(0, registry.timer(prefix + "pdf.merge.stage-times").getCount());
+        assertEquals(1, registry.timer(
+                "scot.mygov.housing.forms.DocumentGenerationService.response-times").getCount());
+    }
+
+    @Test
+    public void responseTimerIsStoppedWhenRenderFails() throws Exception {
+        // ARRANGE
+        DocumentGenerator generator = generatorWritingBytes("v1");
+        when(generator.merge(any(), any(), any(), any())).thenThrow(new DocumentGeneratorException("arg", null));
+        MetricRegistry registry = new MetricRegistry();
+        DocumentGenerationService<ModelTenancy> sut = new DocumentGenerationService<>(
+                generator, new ModelTenancyFieldExtractor(), null, null, null, null, "modelTenancy", registry);
+
+        // ACT
+        try {
+            sut.save(om.anyTenancy(), DocumentType.PDF);
+            fail("Expected exception");
+        } catch (DocumentGenerationServiceException e) {
+            // expected
+        }
+
+        // ASSERT
+        assertEquals(1, registry.timer(
+                "scot.mygov.housing.forms.DocumentGenerationService.response-times").getCount());
+        assertEquals(1, registry.counter("scot.mygov.housing.forms.DocumentGenerationService.errors").getCount());
+    }
+
+    @Test
+    public void saveFailureIsReportedWhenTheResponseIsWritten() throws Exception {
+        // ARRANGE
+        DocumentGenerator generator = mock(DocumentGenerator.class);
+        when(generator.templateVersion()).thenReturn("v1");
+        doThrow(new DocumentGeneratorException("save", null)).when(generator).write(any(), any(), any(), any());
+        MetricRegistry registry = new MetricRegistry();
+        DocumentGenerationService<ModelTenancy> sut = new DocumentGenerationService<>(
+                generator, new ModelTenancyFieldExtractor(), null, null, null, null, "modelTenancy", registry);
+        StreamingOutput output = sut.render(om.anyTenancy(), DocumentType.PDF);
+
+        // ACT
+        try {
+            output.write(new ByteArrayOutputStream());
+            fail("Expected exception");
+        } catch (IOException e) {
+            // ASSERT
+            assertTrue(e.getCause() instanceof DocumentGenerationServiceException);
+        }
+        assertEquals(1, registry.timer(
+                "scot.mygov.housing.forms.DocumentGenerationService.response-times").getCount());
+        assertEquals(1, registry.counter("scot.mygov.housing.forms.DocumentGenerationService.errors").getCount());
+    }
+
+    @Test
+    public void documentIsSavedStraightIntoTheResponse() throws Exception {
+        // ARRANGE
+        DocumentGenerator generator = mock(DocumentGenerator.class);
+        AtomicReference<OutputStream> savedTo = new AtomicReference<>();
+        doAnswer(invocation -> {
+            savedTo.set(invocation.getArgument(2));
+            return null;
+        }).when(generator).write(any(), any(), any(), any());
+        DocumentGenerationService<ModelTenancy> sut = new DocumentGenerationService<>(
+                generator, new ModelTenancyFieldExtractor(), new MetricRegistry());
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+        // ACT
+        StreamingOutput output = sut.render(om.anyTenancy(), DocumentType.PDF);
+        verify(generator, never()).write(any(), any(), any(), any());
+        output.write(response);
+
+        // ASSERT
+        assertSame(response, savedTo.get());
+    }
+
+    @Test
+    public void documentIsMergedOnTheRenderPoolAndSavedByTheWriter() throws Exception {
+        // ARRANGE
+        DocumentGenerator generator = mock(DocumentGenerator.class);
+        AtomicReference<String> mergeThread = new AtomicReference<>();
+        AtomicReference<String> saveThread = new AtomicReference<>();
+        when(generator.merge(any(), any(), any(), any())).thenAnswer(invocation -> {
+            mergeThread.set(Thread.currentThread().getName());
+            return null;
+        });
+        doAnswer(invocation -> {
+            saveThread.set(Thread.currentThread().getName());
+            return null;
+        }).when(generator).write(any(), any(), any(), any());
+        RenderExecutor renderExecutor = new RenderExecutor(1, 1, 1, new MetricRegistry());
+        DocumentGenerationService<ModelTenancy> sut = new DocumentGenerationService<>(
+                generator, new ModelTenancyFieldExtractor(), null, renderExecutor, null, null, "modelTenancy",
+                new MetricRegistry());
+
+        // ACT
+        sut.save(om.anyTenancy(), DocumentType.PDF);
+
+        // ASSERT
+        assertTrue(mergeThread.get().startsWith("render-"));
+        assertEquals(Thread.currentThread().getName(), saveThread.get());
+        renderExecutor.shutdown();
+    }
+
+    private DocumentGenerator generatorWritingBytes(String templateVersion) throws DocumentGeneratorException {
+        DocumentGenerator generator = mock(DocumentGenerator.class);
+        when(generator.templateVersion()).thenReturn(templateVersion);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write(new byte[] { 1, 2, 3 });
+            return null;
+        }).when(generator).write(any(), any(), any(), any());
+        return generator;
+    }
 }
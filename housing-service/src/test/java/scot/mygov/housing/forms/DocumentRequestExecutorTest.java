@@ -0,0 +1,172 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.MetricRegistry;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.TimeoutHandler;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class DocumentRequestExecutorTest {
+
+    DocumentRequestExecutor sut = new DocumentRequestExecutor(1, 1, 30, 7, new MetricRegistry());
+
+    @After
+    public void shutdown() {
+        sut.shutdown();
+    }
+
+    @Test
+    public void resumesWithResultOfTask() {
+        // ARRANGE
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        Response expected = Response.ok().build();
+
+        // ACT
+        sut.execute(asyncResponse, () -> expected);
+
+        // ASSERT
+        verify(asyncResponse, timeout(1000)).resume(expected);
+        verify(asyncResponse).setTimeout(30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void timeoutIsSetBeforeTaskRuns() {
+        // ARRANGE
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+
+        // ACT
+        sut.execute(asyncResponse, () -> {
+            verify(asyncResponse).setTimeoutHandler(any());
+            verify(asyncResponse).setTimeout(30, TimeUnit.SECONDS);
+            return Response.ok().build();
+        });
+
+        // ASSERT
+        verify(asyncResponse, timeout(1000)).resume(any(Response.class));
+    }
+
+    @Test
+    public void resumesWithExceptionFromTask() {
+        // ARRANGE
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+
+        // ACT
+        sut.execute(asyncResponse, () -> {
+            throw new DocumentGenerationServiceException("arg", null);
+        });
+
+        // ASSERT
+        verify(asyncResponse, timeout(1000)).resume(any(DocumentGenerationServiceException.class));
+    }
+
+    @Test
+    public void rejectsWhenQueueIsFull() throws Exception {
+        // ARRANGE - occupy the only thread and the only queue slot
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        sut.execute(mock(AsyncResponse.class), () -> {
+            started.countDown();
+            release.await();
+            return Response.ok().build();
+        });
+        started.await();
+        sut.execute(mock(AsyncResponse.class), () -> Response.ok().build());
+        AsyncResponse rejected = mock(AsyncResponse.class);
+
+        // ACT
+        sut.execute(rejected, () -> Response.ok().build());
+        release.countDown();
+
+        // ASSERT
+        ArgumentCaptor<Throwable> exception = ArgumentCaptor.forClass(Throwable.class);
+        verify(rejected).resume(exception.capture());
+        assertEquals(7, ((RenderRejectedException) exception.getValue()).getRetryAfterSeconds());
+    }
+
+    @Test
+    public void threadPerTaskRejectsOnceLimitIsInProgress() {
+        // ARRANGE - tasks are held here rather than run
+        List<Runnable> started = new ArrayList<>();
+        DocumentRequestExecutor threadPerTask
+                = new DocumentRequestExecutor(1, 30, 7, started::add, new MetricRegistry());
+        threadPerTask.execute(mock(AsyncResponse.class), () -> Response.ok().build());
+        AsyncResponse rejected = mock(AsyncResponse.class);
+
+        // ACT
+        threadPerTask.execute(rejected, () -> Response.ok().build());
+
+        // ASSERT
+        verify(rejected).resume(any(RenderRejectedException.class));
+        assertEquals(1, started.size());
+    }
+
+    @Test
+    public void threadPerTaskAdmitsAgainOnceTaskCompletes() {
+        // ARRANGE
+        List<Runnable> started = new ArrayList<>();
+        DocumentRequestExecutor threadPerTask
+                = new DocumentRequestExecutor(1, 30, 7, started::add, new MetricRegistry());
+        threadPerTask.execute(mock(AsyncResponse.class), () -> Response.ok().build());
+        started.get(0).run();
+        AsyncResponse admitted = mock(AsyncResponse.class);
+        Response expected = Response.ok().build();
+
+        // ACT
+        threadPerTask.execute(admitted, () -> expected);
+        started.get(1).run();
+
+        // ASSERT
+        verify(admitted).resume(expected);
+    }
+
+    @Test
+    public void timeoutCancelsTaskAndReturnsServiceUnavailable() throws Exception {
+        // ARRANGE
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        sut.execute(asyncResponse, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Response.ok().build();
+        });
+        started.await();
+        ArgumentCaptor<TimeoutHandler> handler = ArgumentCaptor.forClass(TimeoutHandler.class);
+        InOrder order = inOrder(asyncResponse);
+        order.verify(asyncResponse).setTimeoutHandler(handler.capture());
+        order.verify(asyncResponse).setTimeout(30, TimeUnit.SECONDS);
+
+        // ACT
+        handler.getValue().handleTimeout(asyncResponse);
+
+        // ASSERT
+        ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+        verify(asyncResponse, timeout(1000).atLeastOnce()).resume(response.capture());
+        // the timeout answers first, whatever the interrupted task then does
+        Response timedOut = (Response) response.getAllValues().get(0);
+        assertEquals(503, timedOut.getStatus());
+        assertEquals(7, timedOut.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+}
@@ -2,10 +2,12 @@ package scot.mygov.housing.forms;
 
 import com.aspose.words.Document;
 import com.aspose.words.FieldMergingArgs;
+import com.aspose.words.IFieldMergingCallback;
 import org.junit.Test;
 
 import java.util.Collections;
 
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static scot.mygov.documents.PlaceholderUtils.writeLines;
@@ -48,4 +50,18 @@ public class PlaceholderProvidingMergingCallbackTest {
         when(args.getFieldName()).thenReturn("tenantNames");
         sut.fieldMerging(args);
     }
+
+    @Test
+    public void sharedFactoryReturnsTheSameCallbackForEveryRender() {
+        // ARRANGE
+        IFieldMergingCallbackFactory<Object> factory = PlaceholderProvidingMergingCallback.shared(
+                Collections.singletonMap("tenantNames", documentBuilder -> writeLines(documentBuilder, 5)));
+
+        // ACT
+        IFieldMergingCallback first = factory.newCallback(new Object());
+        IFieldMergingCallback second = factory.newCallback(new Object());
+
+        // ASSERT
+        assertSame(first, second);
+    }
 }
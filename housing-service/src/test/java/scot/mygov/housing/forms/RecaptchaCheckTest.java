@@ -8,6 +8,7 @@ import org.junit.Test;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RecaptchaCheckTest {
@@ -81,6 +82,20 @@ public class RecaptchaCheckTest {
         Assert.assertEquals(expected, actual);
     }
 
+    @Test
+    public void badRequestResponseIsClosed() {
+        // ARRANGE
+        WebTarget target = badRequestTarget();
+        Response response = target.request().post(null);
+        RecaptchaCheck sut = new RecaptchaCheck(true, target, secretKey());
+
+        // ACT
+        sut.verify(anyInput());
+
+        // ASSERT
+        verify(response).close();
+    }
+
     private WebTarget badRequestTarget() {
         return target(Response.Status.Family.CLIENT_ERROR, null);
     }
@@ -0,0 +1,75 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Test;
+import scot.mygov.housing.MetricName;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RenderExecutorTest {
+
+    MetricRegistry registry = new MetricRegistry();
+
+    RenderExecutor sut = new RenderExecutor(1, 1, 7, registry);
+
+    ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdown() {
+        callers.shutdownNow();
+        sut.shutdown();
+    }
+
+    @Test
+    public void returnsResultOfTask() throws Exception {
+        assertEquals("result", sut.call(() -> "result"));
+    }
+
+    @Test(expected = DocumentGenerationServiceException.class)
+    public void rethrowsServiceExceptionFromTask() throws Exception {
+        sut.call(() -> {
+            throw new DocumentGenerationServiceException("arg", null);
+        });
+    }
+
+    @Test
+    public void rejectsWhenQueueIsFull() throws Exception {
+        // ARRANGE - occupy the only render thread and the only queue slot
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> sut.call(() -> {
+            started.countDown();
+            release.await();
+            return 1;
+        }));
+        started.await();
+        callers.submit(() -> sut.call(() -> 2));
+        while (queueDepth() == 0) {
+            Thread.sleep(10);
+        }
+
+        // ACT
+        try {
+            sut.call(() -> 3);
+            fail("Expected rejection");
+        } catch (RenderRejectedException e) {
+            // ASSERT
+            assertEquals(7, e.getRetryAfterSeconds());
+        } finally {
+            release.countDown();
+        }
+        assertEquals(1, registry.meter(MetricName.REJECTIONS.name(sut)).getCount());
+    }
+
+    private int queueDepth() {
+        Gauge<?> gauge = registry.getGauges().get(MetricName.QUEUE_DEPTH.name(sut));
+        return (Integer) gauge.getValue();
+    }
+}
@@ -0,0 +1,80 @@
+package scot.mygov.housing.forms;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+import scot.mygov.documents.DocumentType;
+import scot.mygov.housing.MetricName;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RenderedDocumentCacheTest {
+
+    MetricRegistry registry = new MetricRegistry();
+
+    RenderedDocumentCache sut = new RenderedDocumentCache(10, registry);
+
+    @Test
+    public void returnsCachedDocument() {
+        // ARRANGE
+        RenderedDocumentCache.Key key = key("v1", "a");
+        sut.put(key, new byte[] { 1, 2, 3 });
+
+        // ACT
+        byte[] actual = sut.get(key);
+
+        // ASSERT
+        assertArrayEquals(new byte[] { 1, 2, 3 }, actual);
+        assertNull(sut.get(new RenderedDocumentCache.Key(DocumentType.WORD, "v1", "a")));
+        assertEquals(1, registry.meter(MetricName.HITS.name(sut)).getCount());
+        assertEquals(1, registry.meter(MetricName.MISSES.name(sut)).getCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenOverBudget() {
+        // ARRANGE
+        sut.put(key("v1", "a"), new byte[4]);
+        sut.put(key("v1", "b"), new byte[4]);
+        sut.get(key("v1", "a"));
+
+        // ACT
+        sut.put(key("v1", "c"), new byte[4]);
+
+        // ASSERT
+        assertNull(sut.get(key("v1", "b")));
+        assertEquals(4, sut.get(key("v1", "a")).length);
+        assertEquals(4, sut.get(key("v1", "c")).length);
+        assertEquals(8, sut.sizeBytes());
+        assertEquals(1, registry.meter(MetricName.EVICTIONS.name(sut)).getCount());
+    }
+
+    @Test
+    public void doesNotStoreDocumentsLargerThanBudget() {
+        // ACT
+        sut.put(key("v1", "a"), new byte[11]);
+
+        // ASSERT
+        assertNull(sut.get(key("v1", "a")));
+        assertEquals(0, sut.sizeBytes());
+    }
+
+    @Test
+    public void invalidateRemovesOnlyGivenTemplateVersion() {
+        // ARRANGE
+        sut.put(key("v1", "a"), new byte[2]);
+        sut.put(key("v2", "a"), new byte[3]);
+
+        // ACT
+        sut.invalidate("v1");
+
+        // ASSERT
+        assertNull(sut.get(key("v1", "a")));
+        assertEquals(3, sut.get(key("v2", "a")).length);
+        assertEquals(3, sut.sizeBytes());
+    }
+
+    private RenderedDocumentCache.Key key(String templateVersion, String hash) {
+        return new RenderedDocumentCache.Key(DocumentType.PDF, templateVersion, hash);
+    }
+}
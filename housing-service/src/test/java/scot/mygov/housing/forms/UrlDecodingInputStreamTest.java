@@ -0,0 +1,41 @@
+package scot.mygov.housing.forms;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class UrlDecodingInputStreamTest {
+
+    @Test
+    public void decodesTheSameAsUrlDecoder() throws Exception {
+        // ARRANGE
+        String json = "{\"name\":\"Siobhán O'Neill & Zoë\",\"rent\":\"£100.00\",\"notes\":\"50% + more\"}";
+        String encoded = URLEncoder.encode(json, StandardCharsets.UTF_8.name());
+
+        // ACT
+        String decoded = decode(encoded);
+
+        // ASSERT
+        assertEquals(URLDecoder.decode(encoded, StandardCharsets.UTF_8.name()), decoded);
+        assertEquals(json, decoded);
+    }
+
+    @Test(expected = CharConversionException.class)
+    public void rejectsInvalidEscape() throws Exception {
+        decode("{%zz}");
+    }
+
+    private static String decode(String encoded) throws IOException {
+        InputStream in = new UrlDecodingInputStream(new ByteArrayInputStream(encoded.getBytes(StandardCharsets.UTF_8)));
+        return IOUtils.toString(in, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,24 @@
+package scot.mygov.housing.forms.foreigntraveldeclaration;
+
+import scot.mygov.housing.forms.foreigntraveldeclaration.model.ForeignTravelDeclaration;
+import scot.mygov.housing.forms.foreigntraveldeclaration.model.TravelReason;
+import scot.mygov.housing.forms.modeltenancy.validation.ModelTenancyObjectMother;
+
+import java.time.LocalDate;
+
+public class ForeignTravelDeclarationObjectMother {
+
+    public static ForeignTravelDeclaration anyForeignTravelDeclaration() {
+        ForeignTravelDeclaration declaration = new ForeignTravelDeclaration();
+        declaration.setName("name");
+        declaration.setDob(LocalDate.of(1980, 1, 1));
+        declaration.setNationality("nationality");
+        declaration.setAddress(new ModelTenancyObjectMother().validAddress("home"));
+        declaration.setPassportNumber("123456789");
+        declaration.setDestinationCountry("France");
+        declaration.setReason(TravelReason.WORK.name());
+        declaration.setSignedDate(LocalDate.of(2021, 1, 1));
+        declaration.setSignature("signature");
+        return declaration;
+    }
+}
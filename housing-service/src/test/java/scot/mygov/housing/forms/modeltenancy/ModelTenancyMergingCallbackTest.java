@@ -19,6 +19,7 @@ import java.util.Set;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 public class ModelTenancyMergingCallbackTest {
@@ -405,5 +406,21 @@ public class ModelTenancyMergingCallbackTest {
 
 
 
+    }
+
+    @Test
+    public void fieldWithNoHandlerIsLeftAlone() throws Exception {
+
+        // ARRANGE
+        ModelTenancyMergingCallback sut = new ModelTenancyMergingCallback(om.anyTenancy());
+        FieldMergingArgs args = mock(FieldMergingArgs.class);
+        when(args.getFieldName()).thenReturn("tenancyReference");
+
+        //  ACT
+        sut.fieldMerging(args);
+
+        // ASSERT
+        verify(args).getFieldName();
+        verifyNoMoreInteractions(args);
     }
 }
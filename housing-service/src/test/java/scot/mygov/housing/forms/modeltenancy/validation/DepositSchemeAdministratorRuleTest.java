@@ -1,6 +1,7 @@
 package scot.mygov.housing.forms.modeltenancy.validation;
 
 import org.junit.Test;
+import scot.mygov.housing.forms.modeltenancy.model.DepositSchemeAdministrators;
 import scot.mygov.housing.forms.modeltenancy.model.ModelTenancy;
 import scot.mygov.validation.ValidationResultsBuilder;
 
@@ -10,7 +11,7 @@ import static org.junit.Assert.assertTrue;
 public class DepositSchemeAdministratorRuleTest {
 
     private ModelTenancyObjectMother om = new ModelTenancyObjectMother();
-    private DepositSchemeAdministratorRule sut = new DepositSchemeAdministratorRule();
+    private DepositSchemeAdministratorRule sut = new DepositSchemeAdministratorRule(new DepositSchemeAdministrators());
 
     @Test
     public void accceptsRecognisedAdmin() {
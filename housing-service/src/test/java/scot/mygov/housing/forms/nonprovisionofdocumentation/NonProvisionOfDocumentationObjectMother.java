@@ -0,0 +1,30 @@
+package scot.mygov.housing.forms.nonprovisionofdocumentation;
+
+import scot.mygov.housing.forms.modeltenancy.validation.ModelTenancyObjectMother;
+import scot.mygov.housing.forms.nonprovisionofdocumentation.model.NonProvisionOfDocumentation;
+
+import java.time.LocalDate;
+
+import static java.util.Arrays.asList;
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.landlord;
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.person;
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.someLandlords;
+
+public class NonProvisionOfDocumentationObjectMother {
+
+    public static NonProvisionOfDocumentation anyNonProvisionOfDocumentation() {
+        NonProvisionOfDocumentation nonProvision = new NonProvisionOfDocumentation();
+        nonProvision.setLandlords(someLandlords("landlord", 2));
+        nonProvision.setLandlordsAgent(landlord("landlordsAgent"));
+        nonProvision.setTenantNames(asList("tenant0", "tenant1"));
+        nonProvision.setTenantsAgent(person("tenantsAgent"));
+        nonProvision.setAddress(new ModelTenancyObjectMother().validAddress("property"));
+        nonProvision.setIntendedReferralDate(LocalDate.of(2020, 1, 1));
+        nonProvision.setSection10Failure(true);
+        nonProvision.setSection10Details("section10Details");
+        nonProvision.setSection11Failure(true);
+        nonProvision.setSection11Details("section11Details");
+        nonProvision.setSection16Failure(false);
+        return nonProvision;
+    }
+}
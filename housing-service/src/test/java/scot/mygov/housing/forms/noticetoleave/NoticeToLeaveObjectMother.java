@@ -0,0 +1,26 @@
+package scot.mygov.housing.forms.noticetoleave;
+
+import scot.mygov.housing.forms.modeltenancy.validation.ModelTenancyObjectMother;
+import scot.mygov.housing.forms.noticetoleave.model.NoticeToLeave;
+import scot.mygov.housing.forms.noticetoleave.model.Reason;
+
+import java.time.LocalDate;
+
+import static java.util.Arrays.asList;
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.someLandlords;
+
+public class NoticeToLeaveObjectMother {
+
+    public static NoticeToLeave anyNoticeToLeave() {
+        NoticeToLeave noticeToLeave = new NoticeToLeave();
+        noticeToLeave.setTenantNames(asList("tenant0", "tenant1"));
+        noticeToLeave.setAddress(new ModelTenancyObjectMother().validAddress("property"));
+        noticeToLeave.setEntryDate(LocalDate.of(2019, 1, 1));
+        noticeToLeave.setLandlords(someLandlords("landlord", 2));
+        noticeToLeave.setReasons(asList(Reason.LANDLORD_TO_SELL.name(), Reason.YOU_RENT_ARREARS.name()));
+        noticeToLeave.setReasonDetails("reasonDetails");
+        noticeToLeave.setSupportingEvidence("supportingEvidence");
+        noticeToLeave.setEarliestTribunalDate(LocalDate.of(2020, 1, 1));
+        return noticeToLeave;
+    }
+}
@@ -0,0 +1,24 @@
+package scot.mygov.housing.forms.rentincreaseforimprovementsnotice;
+
+import scot.mygov.housing.forms.rentincreaseforimprovementsnotice.model.RentIncreaseForImprovements;
+
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.landlord;
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.someLandlords;
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.somePeople;
+
+public class RentIncreaseForImprovementsObjectMother {
+
+    public static RentIncreaseForImprovements anyRentIncreaseForImprovements() {
+        RentIncreaseForImprovements rentIncrease = new RentIncreaseForImprovements();
+        rentIncrease.setAddress("1 Any Street, Edinburgh, EH1 1AA");
+        rentIncrease.setLandlords(someLandlords("landlord", 2));
+        rentIncrease.setLandlordsAgent(landlord("landlordsAgent"));
+        rentIncrease.setTenants(somePeople("tenant", 2));
+        rentIncrease.setImprovements("improvements");
+        rentIncrease.setRentIncreaseAmount("20");
+        rentIncrease.setRentIncreaseFrequency("CALENDAR_MONTH");
+        rentIncrease.setIncludesReceipts(true);
+        rentIncrease.setIncludesBeforeAndAfterPictures(false);
+        return rentIncrease;
+    }
+}
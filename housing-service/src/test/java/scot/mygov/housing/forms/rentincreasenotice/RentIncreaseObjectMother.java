@@ -0,0 +1,31 @@
+package scot.mygov.housing.forms.rentincreasenotice;
+
+import scot.mygov.housing.forms.modeltenancy.validation.ModelTenancyObjectMother;
+import scot.mygov.housing.forms.rentincreasenotice.model.RentIncrease;
+
+import java.time.LocalDate;
+
+import static java.util.Arrays.asList;
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.landlord;
+import static scot.mygov.housing.forms.rentadjudication.RentAdjudicationObjectMother.someLandlords;
+
+public class RentIncreaseObjectMother {
+
+    public static RentIncrease anyRentIncrease() {
+        RentIncrease rentIncrease = new RentIncrease();
+        rentIncrease.setTenantNames(asList("tenant0", "tenant1"));
+        rentIncrease.setAddress(new ModelTenancyObjectMother().validAddress("property"));
+        rentIncrease.setInRentPressureZone("false");
+        rentIncrease.setLandlords(someLandlords("landlord", 2));
+        rentIncrease.setLandlordsAgent(landlord("landlordsAgent"));
+        rentIncrease.setOldRentAmount("100");
+        rentIncrease.setOldRentPeriod("CALENDAR_MONTH");
+        rentIncrease.setNewRentAmount("110");
+        rentIncrease.setNewRentPeriod("CALENDAR_MONTH");
+        rentIncrease.setRentIncreaseDate(LocalDate.of(2020, 6, 1));
+        rentIncrease.setLastRentIncreaseDate(LocalDate.of(2019, 6, 1));
+        rentIncrease.setNotificationDate(LocalDate.of(2020, 2, 1));
+        rentIncrease.setNotificationSendDate(LocalDate.of(2020, 2, 1));
+        return rentIncrease;
+    }
+}
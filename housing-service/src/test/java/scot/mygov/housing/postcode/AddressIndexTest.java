@@ -0,0 +1,151 @@
+package scot.mygov.housing.postcode;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import scot.mygov.housing.JsonCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AddressIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AddressIndexBuilder builder = new AddressIndexBuilder(JsonCodec.defaultCodec());
+
+    @Test
+    public void csvExtractIsIndexedByPostcode() throws Exception {
+        // ARRANGE
+        AddressIndex sut = index("extract.csv",
+                "UPRN,BUILDING_NUMBER,BUILDING_NAME,THOROUGHFARE,POST_TOWN,POSTCODE,COUNTRY,X_COORDINATE",
+                "906030092,2,,Victoria Quay,EDINBURGH,EH6 6QQ,S,326991",
+                "906030093,1,\"Quay House, The\",Victoria Quay,EDINBURGH,EH6 6QQ,S,326992",
+                "906030094,10,,Lady Lawson Street,EDINBURGH,EH3 9DS,S,325123");
+
+        // ACT
+        PostcodeServiceResults results = sut.lookupPostcode("eh66qq");
+
+        // ASSERT
+        assertEquals(2, results.getResults().size());
+        PostcodeServiceResult first = results.getResults().get(0);
+        assertEquals("906030093", first.getUprn());
+        assertEquals("1 Quay House, The", first.getBuilding());
+        assertEquals("Victoria Quay", first.getStreet());
+        assertEquals("EDINBURGH", first.getTown());
+        assertEquals("EH6 6QQ", first.getPostcode());
+        assertEquals("Scotland", first.getCountry());
+        assertEquals("2", results.getResults().get(1).getBuilding());
+        assertEquals(3, sut.getAddressCount());
+        assertEquals(2, sut.getPostcodeCount());
+    }
+
+    @Test
+    public void ndjsonExtractIsIndexedByUprn() throws Exception {
+        // ARRANGE
+        AddressIndex sut = index("extract.ndjson",
+                "{\"uprn\":\"906030092\",\"dpa_building_number\":\"2\",\"dpa_thoroughfare\":\"Victoria Quay\","
+                        + "\"dpa_postcode\":\"EH6 6QQ\",\"dpa_organisation_name\":\"Scottish Government\"}",
+                "",
+                "{\"uprn\":\"906030094\",\"dpa_thoroughfare\":\"Lady Lawson Street\",\"dpa_postcode\":\"EH3 9DS\"}");
+
+        // ACT
+        PostcodeServiceResult result = sut.lookupUprn("906030092");
+
+        // ASSERT
+        assertEquals("Scottish Government", result.getOrg());
+        assertEquals("EH6 6QQ", result.getPostcode());
+        assertNull(result.getTown());
+        assertEquals("Lady Lawson Street", sut.lookupUprn("906030094").getStreet());
+    }
+
+    @Test
+    public void unknownKeysAreMisses() throws Exception {
+        // ARRANGE
+        AddressIndex sut = index("extract.csv",
+                "UPRN,THOROUGHFARE,POSTCODE",
+                "906030092,Victoria Quay,EH6 6QQ");
+
+        // ACT & ASSERT
+        assertNull(sut.lookupPostcode("EH6 6QR"));
+        assertNull(sut.lookupPostcode("AB1 1AA"));
+        assertNull(sut.lookupPostcode("NOT A POSTCODE"));
+        assertNull(sut.lookupUprn("906030093"));
+        assertNull(sut.lookupUprn("not-a-uprn"));
+    }
+
+    @Test
+    public void extractLargerThanOneRunIsMergedInOrder() throws Exception {
+        // ARRANGE - runs of two, with the addresses of each postcode spread across them
+        Path extract = folder.getRoot().toPath().resolve("extract.csv");
+        Files.write(extract, asList(
+                "UPRN,BUILDING_NUMBER,THOROUGHFARE,POSTCODE",
+                "906030094,10,Lady Lawson Street,EH3 9DS",
+                "906030092,2,Victoria Quay,EH6 6QQ",
+                "906030095,3,Victoria Quay,EH6 6QQ",
+                "906030096,12,Lady Lawson Street,EH3 9DS",
+                "906030093,1,Victoria Quay,EH6 6QQ"));
+        Path index = folder.getRoot().toPath().resolve("address.idx");
+
+        // ACT
+        int count = new AddressIndexBuilder(JsonCodec.defaultCodec(), 2).build(extract, index);
+        AddressIndex sut = AddressIndex.open(index);
+
+        // ASSERT
+        assertEquals(5, count);
+        assertEquals(2, sut.getPostcodeCount());
+        assertEquals(asList("1", "2", "3"), buildings(sut.lookupPostcode("EH6 6QQ")));
+        assertEquals(asList("10", "12"), buildings(sut.lookupPostcode("EH3 9DS")));
+        assertEquals("12", sut.lookupUprn("906030096").getBuilding());
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            assertEquals(asList("address.idx", "extract.csv"),
+                    files.map(file -> file.getFileName().toString()).sorted().collect(toList()));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws Exception {
+        // ARRANGE
+        Path file = folder.newFile("address.idx").toPath();
+        Files.write(file, "not an index, but long enough to have a header".getBytes());
+
+        // ACT
+        AddressIndex.open(file);
+
+        // ASSERT -- see expected exception
+    }
+
+    @Test
+    public void postcodeKeysIgnoreCaseAndSpaces() {
+        assertEquals(AddressIndex.postcodeKey("EH10 4AX"), AddressIndex.postcodeKey(" eh104ax"));
+        assertEquals(0, AddressIndex.postcodeKey(""));
+        assertEquals(0, AddressIndex.postcodeKey("EH10 4AX 123"));
+    }
+
+    @Test
+    public void csvLinesAreSplitOnUnquotedCommas() {
+        List<String> actual = AddressIndexBuilder.parseCsvLine("1,\"Quay House, The\",,\"say \"\"hi\"\"\"");
+        assertEquals(asList("1", "Quay House, The", "", "say \"hi\""), actual);
+    }
+
+    private static List<String> buildings(PostcodeServiceResults results) {
+        return results.getResults().stream().map(PostcodeServiceResult::getBuilding).collect(toList());
+    }
+
+    private AddressIndex index(String extractName, String... lines) throws IOException {
+        Path extract = folder.getRoot().toPath().resolve(extractName);
+        Files.write(extract, asList(lines));
+        Path index = folder.getRoot().toPath().resolve("address.idx");
+        builder.build(extract, index);
+        return AddressIndex.open(index);
+    }
+}
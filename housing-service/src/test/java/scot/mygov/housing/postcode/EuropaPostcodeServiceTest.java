@@ -1,14 +1,19 @@
 package scot.mygov.housing.postcode;
 
+import com.fasterxml.jackson.core.JsonParser;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Test;
+import org.mockito.stubbing.Answer;
+import scot.mygov.housing.JsonCodec;
 import scot.mygov.housing.europa.AddressResultWrapper;
 import scot.mygov.housing.europa.Europa;
 import scot.mygov.housing.europa.EuropaAddress;
 import scot.mygov.housing.europa.EuropaException;
 import scot.mygov.housing.europa.EuropaMetadata;
+import scot.mygov.housing.europa.EuropaResponseReader;
 import scot.mygov.housing.europa.EuropaResults;
 
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
@@ -61,6 +66,26 @@ public class EuropaPostcodeServiceTest {
 
     }
 
+    @Test
+    public void uprnLookupReturnsTheAddress() throws Exception {
+
+        // ARRANGE
+        EuropaResults results = greenpathEuropaResults();
+        EuropaAddress address = results.getResults().get(0).getAddress().get(0);
+        results.getResults().get(0).getAddress().retainAll(singletonList(address));
+        results.getMetadata().setCount(1);
+        Europa europa = mock(Europa.class);
+        when(europa.lookupUprn(any(), any())).thenAnswer(readingResponse(results));
+        PostcodeService sut = new EuropaPostcodeService(europa);
+
+        // ACT
+        PostcodeServiceResult actual = sut.lookupUprn(address.getUprn());
+
+        // ASSERT
+        assertEquals(address.getUprn(), actual.getUprn());
+        assertEquals("Scotland", actual.getCountry());
+    }
+
     @Test
     public void formatsBuilding() {
         EuropaAddress address = new EuropaAddress();
@@ -88,16 +113,29 @@ public class EuropaPostcodeServiceTest {
 
     private Europa excpetionThrowingMapcloud() throws EuropaException {
         Europa mapcloud = mock(Europa.class);
-        when(mapcloud.lookupPostcode(any())).thenThrow(new EuropaException("arg", new RuntimeException("arg")));
+        when(mapcloud.lookupPostcode(any(), any())).thenThrow(new EuropaException("arg", new RuntimeException("arg")));
         return mapcloud;
     }
 
     private Europa europaWithResults(EuropaResults results) throws EuropaException {
         Europa europa = mock(Europa.class);
-        when(europa.lookupPostcode(any())).thenReturn(results);
+        when(europa.lookupPostcode(any(), any())).thenAnswer(readingResponse(results));
         return europa;
     }
 
+    /**
+     * Passes the results, as Europa would send them, to the reader the lookup was given.
+     */
+    private Answer<Object> readingResponse(EuropaResults results) {
+        return invocation -> {
+            EuropaResponseReader<?> reader = invocation.getArgument(1);
+            String json = JsonCodec.defaultCodec().getMapper().writeValueAsString(results);
+            try (JsonParser parser = JsonCodec.defaultCodec().getMapper().createParser(json)) {
+                return reader.read(parser);
+            }
+        };
+    }
+
     private EuropaResults greenpathEuropaResults() {
         EuropaResults res = new EuropaResults();
         res.setMetadata(new EuropaMetadata());
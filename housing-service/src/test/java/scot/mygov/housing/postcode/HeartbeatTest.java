@@ -2,10 +2,13 @@ package scot.mygov.housing.postcode;
 
 import org.junit.Test;
 import org.mockito.Mockito;
+import scot.mygov.housing.CircuitBreaker;
 import scot.mygov.housing.europa.Europa;
 import scot.mygov.housing.europa.EuropaException;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 public class HeartbeatTest {
 
@@ -23,4 +26,22 @@ public class HeartbeatTest {
         Heartbeat sut = new Heartbeat(europa);
         sut.run();
     }
+
+    @Test
+    public void probesWhileCircuitIsOpen() throws EuropaException {
+        Europa europa = Mockito.mock(Europa.class);
+        Mockito.when(europa.getCircuitState()).thenReturn(CircuitBreaker.State.OPEN);
+        Heartbeat sut = new Heartbeat(europa);
+        sut.probeIfOpen();
+        verify(europa).lookupUprn(any());
+    }
+
+    @Test
+    public void doesNotProbeWhileCircuitIsClosed() throws EuropaException {
+        Europa europa = Mockito.mock(Europa.class);
+        Mockito.when(europa.getCircuitState()).thenReturn(CircuitBreaker.State.CLOSED);
+        Heartbeat sut = new Heartbeat(europa);
+        sut.probeIfOpen();
+        verify(europa, never()).lookupUprn(any());
+    }
 }
@@ -0,0 +1,109 @@
+package scot.mygov.housing.postcode;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import scot.mygov.housing.JsonCodec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class IndexedPostcodeServiceTest {
+
+    private static final String HEADER = "UPRN,BUILDING_NUMBER,THOROUGHFARE,POST_TOWN,POSTCODE";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final PostcodeService fallback = mock(PostcodeService.class);
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    @Test
+    public void indexedPostcodeDoesNotUseFallback() throws Exception {
+        // ARRANGE
+        IndexedPostcodeService sut = service("906030092,2,Victoria Quay,EDINBURGH,EH6 6QQ");
+        sut.reload();
+
+        // ACT
+        PostcodeServiceResults results = sut.lookup("EH6 6QQ");
+
+        // ASSERT
+        assertEquals("906030092", results.getResults().get(0).getUprn());
+        assertEquals("906030092", sut.lookupUprn("906030092").getUprn());
+        verifyNoInteractions(fallback);
+        assertEquals(1, registry.meter(MetricRegistry.name(IndexedPostcodeService.class, "hits")).getCount());
+    }
+
+    @Test
+    public void missesUseFallback() throws Exception {
+        // ARRANGE
+        PostcodeServiceResults fallbackResults = new PostcodeServiceResults();
+        when(fallback.lookup("TD1 1AA")).thenReturn(fallbackResults);
+        IndexedPostcodeService sut = service("906030092,2,Victoria Quay,EDINBURGH,EH6 6QQ");
+        sut.reload();
+
+        // ACT
+        PostcodeServiceResults results = sut.lookup("TD1 1AA");
+
+        // ASSERT
+        assertSame(fallbackResults, results);
+        assertEquals(1, registry.meter(MetricRegistry.name(IndexedPostcodeService.class, "misses")).getCount());
+    }
+
+    @Test
+    public void fallbackIsUsedUntilAnIndexIsBuilt() throws Exception {
+        // ARRANGE
+        IndexedPostcodeService sut = service("906030092,2,Victoria Quay,EDINBURGH,EH6 6QQ");
+
+        // ACT
+        sut.lookup("EH6 6QQ");
+
+        // ASSERT
+        verify(fallback).lookup("EH6 6QQ");
+        assertNull(sut.lookupUprn("906030092"));
+    }
+
+    @Test
+    public void newerExtractIsRebuiltAndSwappedIn() throws Exception {
+        // ARRANGE
+        IndexedPostcodeService sut = service("906030092,2,Victoria Quay,EDINBURGH,EH6 6QQ");
+        sut.reload();
+        Path extract = folder.getRoot().toPath().resolve("extract.csv");
+        Files.write(extract, asList(HEADER,
+                "906030092,2,Victoria Quay,EDINBURGH,EH6 6QQ",
+                "906030093,4,Victoria Quay,EDINBURGH,EH6 6QQ"));
+        Files.setLastModifiedTime(extract, FileTime.from(Instant.now().plusSeconds(60)));
+
+        // ACT
+        sut.reload();
+
+        // ASSERT
+        assertEquals(2, sut.lookup("EH6 6QQ").getResults().size());
+        assertEquals(2, registry.getGauges().get(MetricRegistry.name(IndexedPostcodeService.class, "size")).getValue());
+    }
+
+    private IndexedPostcodeService service(String... rows) throws Exception {
+        Path extract = folder.getRoot().toPath().resolve("extract.csv");
+        Files.write(extract, asList(HEADER));
+        Files.write(extract, asList(rows), java.nio.file.StandardOpenOption.APPEND);
+        return new IndexedPostcodeService(
+                folder.getRoot().toPath().resolve("address.idx"),
+                extract,
+                new AddressIndexBuilder(JsonCodec.defaultCodec()),
+                fallback,
+                registry);
+    }
+}
@@ -0,0 +1,165 @@
+package scot.mygov.housing.postcode;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Test;
+import scot.mygov.housing.MetricName;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PostcodeBatchLookupTest {
+
+    private final PostcodeService postcodeService = mock(PostcodeService.class);
+
+    private final PostcodeBatchLookup sut
+            = new PostcodeBatchLookup(postcodeService, 2, 10, 10, Duration.ofSeconds(10), new MetricRegistry());
+
+    @After
+    public void shutdown() {
+        sut.shutdown();
+    }
+
+    @Test
+    public void duplicateInputsAreLookedUpOnce() throws Exception {
+        // ARRANGE
+        when(postcodeService.lookup("EH6 6QQ")).thenReturn(results("906030092"));
+        BatchLookupRequest request = request(asList("EH6 6QQ", "eh66qq", "EH6 6QQ"), asList("906030092", "906030092"));
+        when(postcodeService.lookupUprn("906030092")).thenReturn(address("906030092"));
+
+        // ACT
+        BatchLookupResults results = sut.lookup(request);
+
+        // ASSERT
+        assertEquals(asList("EH6 6QQ", "eh66qq"), asList(results.getPostcodes().keySet().toArray()));
+        assertEquals("906030092", results.getPostcodes().get("eh66qq").getResults().get(0).getUprn());
+        assertEquals("906030092", results.getUprns().get("906030092").getResults().get(0).getUprn());
+        verify(postcodeService, times(1)).lookup("EH6 6QQ");
+        verify(postcodeService, times(1)).lookupUprn("906030092");
+    }
+
+    @Test
+    public void failuresAreReportedPerKey() throws Exception {
+        // ARRANGE
+        when(postcodeService.lookup("EH6 6QQ")).thenReturn(results("906030092"));
+        when(postcodeService.lookup("TD1 1AA")).thenThrow(new PostcodeServiceException("failed", null));
+        when(postcodeService.lookupUprn("1")).thenReturn(null);
+
+        // ACT
+        BatchLookupResults results = sut.lookup(
+                request(asList("EH6 6QQ", "TD1 1AA", "not a postcode"), asList("1", "x1")));
+
+        // ASSERT
+        assertNull(results.getPostcodes().get("EH6 6QQ").getError());
+        assertEquals("Postcode data not available", results.getPostcodes().get("TD1 1AA").getError());
+        assertNull(results.getPostcodes().get("TD1 1AA").getResults());
+        assertEquals("Invalid postcode", results.getPostcodes().get("not a postcode").getError());
+        assertTrue(results.getUprns().get("1").getResults().isEmpty());
+        assertEquals("Invalid uprn", results.getUprns().get("x1").getError());
+    }
+
+    @Test
+    public void lookupsAreLimitedToTheConcurrency() throws Exception {
+        // ARRANGE
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        CountDownLatch twoRunning = new CountDownLatch(2);
+        when(postcodeService.lookupUprn(any())).thenAnswer(invocation -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            twoRunning.countDown();
+            twoRunning.await(5, TimeUnit.SECONDS);
+            running.decrementAndGet();
+            return null;
+        });
+
+        // ACT
+        sut.lookup(request(Collections.emptyList(), asList("1", "2", "3", "4", "5", "6")));
+
+        // ASSERT
+        assertEquals(2, mostRunning.get());
+    }
+
+    @Test(timeout = 5000)
+    public void lookupsBeyondTheQueueAreReportedAsErrors() throws Exception {
+        // ARRANGE - one thread and one queue slot, both held until the batch has been submitted
+        CountDownLatch release = new CountDownLatch(1);
+        when(postcodeService.lookupUprn(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        MetricRegistry registry = new MetricRegistry();
+        PostcodeBatchLookup small
+                = new PostcodeBatchLookup(postcodeService, 1, 1, 10, Duration.ofSeconds(10), registry);
+
+        // ACT
+        CompletableFuture<BatchLookupResults> batch = CompletableFuture.supplyAsync(
+                () -> small.lookup(request(Collections.emptyList(), asList("1", "2", "3"))));
+        while (registry.meter(MetricName.REJECTIONS.name(small)).getCount() == 0) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        BatchLookupResults results = batch.get(5, TimeUnit.SECONDS);
+        small.shutdown();
+
+        // ASSERT
+        assertNull(results.getUprns().get("1").getError());
+        assertNull(results.getUprns().get("2").getError());
+        assertTrue(results.getUprns().get("3").getError().startsWith("Too many postcode lookups"));
+    }
+
+    @Test
+    public void lookupsNotFinishedByTheDeadlineAreReportedAsErrors() throws Exception {
+        // ARRANGE
+        CountDownLatch release = new CountDownLatch(1);
+        when(postcodeService.lookup("EH6 6QQ")).thenReturn(results("906030092"));
+        when(postcodeService.lookup("TD1 1AA")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return results("1");
+        });
+        PostcodeBatchLookup quick
+                = new PostcodeBatchLookup(postcodeService, 2, 10, 10, Duration.ofMillis(200), new MetricRegistry());
+
+        // ACT
+        BatchLookupResults results = quick.lookup(request(asList("EH6 6QQ", "TD1 1AA"), Collections.emptyList()));
+        release.countDown();
+        quick.shutdown();
+
+        // ASSERT
+        assertNull(results.getPostcodes().get("EH6 6QQ").getError());
+        assertEquals("Timed out looking up postcode data", results.getPostcodes().get("TD1 1AA").getError());
+    }
+
+    private static BatchLookupRequest request(List<String> postcodes, List<String> uprns) {
+        BatchLookupRequest request = new BatchLookupRequest();
+        request.setPostcodes(postcodes);
+        request.setUprns(uprns);
+        return request;
+    }
+
+    private static PostcodeServiceResults results(String uprn) {
+        PostcodeServiceResults results = new PostcodeServiceResults();
+        results.setResults(Collections.singletonList(address(uprn)));
+        return results;
+    }
+
+    private static PostcodeServiceResult address(String uprn) {
+        PostcodeServiceResult address = new PostcodeServiceResult();
+        address.setUprn(uprn);
+        return address;
+    }
+}
@@ -0,0 +1,132 @@
+package scot.mygov.housing.postcode;
+
+import jakarta.ws.rs.core.Response;
+import org.junit.Test;
+import scot.mygov.housing.BasicAuthCheck;
+import scot.mygov.validation.ValidationResults;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PostcodeBatchResourceTest {
+
+    private static final String AUTHORIZATION = basic("tool:secret");
+
+    @Test
+    public void emptyBatchIsRejected() {
+        // ARRANGE
+        PostcodeBatchResource sut = new PostcodeBatchResource(batchLookup(10), auth());
+
+        // ACT
+        Response actual = sut.lookup(AUTHORIZATION, new BatchLookupRequest());
+
+        // ASSERT
+        assertEquals(400, actual.getStatus());
+        ValidationResults validationResults = (ValidationResults) actual.getEntity();
+        assertTrue(validationResults.getIssues().containsKey("postcodes"));
+    }
+
+    @Test
+    public void oversizedBatchIsRejected() {
+        // ARRANGE
+        PostcodeBatchResource sut = new PostcodeBatchResource(batchLookup(2), auth());
+        BatchLookupRequest request = new BatchLookupRequest();
+        request.setPostcodes(asList("EH6 6QQ", "TD1 1AA"));
+        request.setUprns(Collections.singletonList("906030092"));
+
+        // ACT
+        Response actual = sut.lookup(AUTHORIZATION, request);
+
+        // ASSERT
+        assertEquals(400, actual.getStatus());
+    }
+
+    @Test
+    public void returnsResultsFromBatchLookup() {
+        // ARRANGE
+        PostcodeBatchLookup batchLookup = batchLookup(10);
+        BatchLookupRequest request = new BatchLookupRequest();
+        request.setPostcodes(Collections.singletonList("EH6 6QQ"));
+        BatchLookupResults results = new BatchLookupResults();
+        when(batchLookup.lookup(request)).thenReturn(results);
+        PostcodeBatchResource sut = new PostcodeBatchResource(batchLookup, auth());
+
+        // ACT
+        Response actual = sut.lookup(AUTHORIZATION, request);
+
+        // ASSERT
+        assertEquals(200, actual.getStatus());
+        assertSame(results, actual.getEntity());
+    }
+
+    @Test
+    public void batchWithoutCredentialsIsRejected() {
+        // ARRANGE
+        PostcodeBatchLookup batchLookup = batchLookup(10);
+        PostcodeBatchResource sut = new PostcodeBatchResource(batchLookup, auth());
+        BatchLookupRequest request = new BatchLookupRequest();
+        request.setPostcodes(Collections.singletonList("EH6 6QQ"));
+
+        // ACT
+        Response actual = sut.lookup(null, request);
+
+        // ASSERT
+        assertEquals(401, actual.getStatus());
+        verify(batchLookup, never()).lookup(any());
+    }
+
+    @Test
+    public void batchWithWrongCredentialsIsRejected() {
+        // ARRANGE
+        PostcodeBatchLookup batchLookup = batchLookup(10);
+        PostcodeBatchResource sut = new PostcodeBatchResource(batchLookup, auth());
+        BatchLookupRequest request = new BatchLookupRequest();
+        request.setPostcodes(Collections.singletonList("EH6 6QQ"));
+
+        // ACT
+        Response actual = sut.lookup(basic("tool:wrong"), request);
+
+        // ASSERT
+        assertEquals(401, actual.getStatus());
+        verify(batchLookup, never()).lookup(any());
+    }
+
+    @Test
+    public void batchIsRejectedWhenNoCredentialsAreConfigured() {
+        // ARRANGE
+        PostcodeBatchResource sut = new PostcodeBatchResource(batchLookup(10), new BasicAuthCheck(null, null));
+        BatchLookupRequest request = new BatchLookupRequest();
+        request.setPostcodes(Collections.singletonList("EH6 6QQ"));
+
+        // ACT
+        Response actual = sut.lookup(basic(":"), request);
+
+        // ASSERT
+        assertEquals(401, actual.getStatus());
+    }
+
+    private static BasicAuthCheck auth() {
+        return new BasicAuthCheck("tool", "secret");
+    }
+
+    private static String basic(String credentials) {
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private PostcodeBatchLookup batchLookup(int maxKeys) {
+        PostcodeBatchLookup batchLookup = mock(PostcodeBatchLookup.class);
+        when(batchLookup.getMaxKeys()).thenReturn(maxKeys);
+        return batchLookup;
+    }
+}
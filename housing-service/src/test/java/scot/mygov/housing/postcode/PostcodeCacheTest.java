@@ -0,0 +1,191 @@
+package scot.mygov.housing.postcode;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Ticker;
+import org.junit.Test;
+import scot.mygov.housing.europa.Europa;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class PostcodeCacheTest {
+
+    private static final Duration TTL = Duration.ofHours(6);
+
+    private static final Duration STALE = Duration.ofHours(1);
+
+    private static final Duration NEGATIVE_TTL = Duration.ofMinutes(10);
+
+    private final FakeTicker ticker = new FakeTicker();
+
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    @Test
+    public void repeatLookupsAreServedFromTheCache() throws Exception {
+        // ARRANGE
+        CountingLoader loader = new CountingLoader(1);
+        PostcodeCache sut = cache(loader);
+
+        // ACT
+        PostcodeServiceResults first = sut.get("EH1 1AA");
+        PostcodeServiceResults second = sut.get("EH1 1AA");
+
+        // ASSERT
+        assertSame(first, second);
+        assertEquals(1, loader.calls.get());
+        assertEquals(1, registry.meter(name("hits")).getCount());
+        assertEquals(1, registry.meter(name("misses")).getCount());
+    }
+
+    @Test
+    public void staleEntryIsServedWhileItIsRefreshed() throws Exception {
+        // ARRANGE
+        CountingLoader loader = new CountingLoader(1);
+        PostcodeCache sut = cache(loader);
+        PostcodeServiceResults original = sut.get("EH1 1AA");
+        ticker.advance(TTL.plusMinutes(1));
+
+        // ACT
+        PostcodeServiceResults stale = sut.get("EH1 1AA");
+        refreshes.forEach(Runnable::run);
+        PostcodeServiceResults refreshed = sut.get("EH1 1AA");
+
+        // ASSERT
+        assertSame(original, stale);
+        assertEquals(2, loader.calls.get());
+        assertNotSame(original, refreshed);
+    }
+
+    @Test
+    public void entryPastTheStaleWindowIsLoadedAgain() throws Exception {
+        // ARRANGE
+        CountingLoader loader = new CountingLoader(1);
+        PostcodeCache sut = cache(loader);
+        sut.get("EH1 1AA");
+        ticker.advance(TTL.plus(STALE).plusMinutes(1));
+
+        // ACT
+        sut.get("EH1 1AA");
+
+        // ASSERT
+        assertEquals(2, loader.calls.get());
+        assertEquals(0, refreshes.size());
+        assertEquals(1, registry.meter(name("evictions")).getCount());
+    }
+
+    @Test
+    public void emptyResultsAreCachedForTheNegativeTtl() throws Exception {
+        // ARRANGE
+        CountingLoader loader = new CountingLoader(0);
+        PostcodeCache sut = cache(loader);
+        sut.get("EH1 1ZZ");
+
+        // ACT
+        ticker.advance(NEGATIVE_TTL.minusMinutes(1));
+        sut.get("EH1 1ZZ");
+        int callsWithinTtl = loader.calls.get();
+        ticker.advance(Duration.ofMinutes(2));
+        sut.get("EH1 1ZZ");
+
+        // ASSERT
+        assertEquals(1, callsWithinTtl);
+        assertEquals(2, loader.calls.get());
+    }
+
+    @Test
+    public void failuresAreNotCached() throws Exception {
+        // ARRANGE
+        AtomicInteger calls = new AtomicInteger();
+        PostcodeCache sut = cache(postcode -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new PostcodeServiceException("arg", null);
+            }
+            return results(1);
+        });
+
+        // ACT
+        try {
+            sut.get("EH1 1AA");
+            fail("expected the failure to be thrown");
+        } catch (PostcodeServiceException e) {
+            // expected
+        }
+        PostcodeServiceResults results = sut.get("EH1 1AA");
+
+        // ASSERT
+        assertEquals(1, results.getResults().size());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void sizeIsBounded() throws Exception {
+        // ARRANGE
+        PostcodeCache sut = new PostcodeCache(
+                new CountingLoader(1), TTL, STALE, NEGATIVE_TTL, 2, refreshes::add, registry, ticker);
+
+        // ACT
+        sut.get("EH1 1AA");
+        sut.get("EH1 1AB");
+        sut.get("EH1 1AC");
+
+        // ASSERT
+        assertEquals(2, sut.size());
+        assertEquals(1, registry.meter(name("evictions")).getCount());
+    }
+
+    private PostcodeCache cache(PostcodeCache.Loader loader) {
+        return new PostcodeCache(loader, TTL, STALE, NEGATIVE_TTL, 100, refreshes::add, registry, ticker);
+    }
+
+    private static String name(String metric) {
+        return MetricRegistry.name(Europa.class, "postcode-cache", metric);
+    }
+
+    private static PostcodeServiceResults results(int count) {
+        PostcodeServiceResults results = new PostcodeServiceResults();
+        results.setResults(Collections.nCopies(count, new PostcodeServiceResult()));
+        return results;
+    }
+
+    private static class CountingLoader implements PostcodeCache.Loader {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final int count;
+
+        CountingLoader(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public PostcodeServiceResults load(String postcode) {
+            calls.incrementAndGet();
+            return results(count);
+        }
+    }
+
+    private static class FakeTicker extends Ticker {
+
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(Duration duration) {
+            nanos += TimeUnit.NANOSECONDS.convert(duration);
+        }
+    }
+}
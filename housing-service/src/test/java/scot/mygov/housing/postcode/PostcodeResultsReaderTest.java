@@ -0,0 +1,96 @@
+package scot.mygov.housing.postcode;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.Test;
+import scot.mygov.housing.JsonCodec;
+import scot.mygov.housing.europa.EuropaAddress;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PostcodeResultsReaderTest {
+
+    @Test
+    public void addressesAreFormattedAsBoundResultsWouldBe() throws Exception {
+        // ARRANGE
+        String json = "{\"metadata\":{\"count\":1,\"querytime\":0.1},\"results\":[{\"address\":[{"
+                + "\"uprn\":\"906030092\","
+                + "\"dpa_organisation_name\":\"Scottish Government\","
+                + "\"dpa_building_name\":\"Victoria Quay\","
+                + "\"dpa_thoroughfare\":\"Commercial Street\","
+                + "\"dpa_post_town\":\"Edinburgh\","
+                + "\"dpa_postcode\":\"EH6 6QQ\","
+                + "\"country\":\"S\","
+                + "\"x_coordinate\":326990.0,"
+                + "\"classification\":{\"code\":\"CO01GV\",\"description\":\"Central Government Service\"}"
+                + "}]}]}";
+        EuropaAddress address = new EuropaAddress();
+        address.setUprn("906030092");
+        address.setOrganisationName("Scottish Government");
+        address.setBuildingName("Victoria Quay");
+        address.setThoroughfare("Commercial Street");
+        address.setTown("Edinburgh");
+        address.setPostcode("EH6 6QQ");
+        address.setCountry("S");
+        PostcodeServiceResult expected = EuropaPostcodeService.toResult(address);
+
+        // ACT
+        List<PostcodeServiceResult> actual = read(json).getResults();
+
+        // ASSERT
+        assertEquals(1, actual.size());
+        assertEquals(expected.getUprn(), actual.get(0).getUprn());
+        assertEquals(expected.getBuilding(), actual.get(0).getBuilding());
+        assertEquals(expected.getOrg(), actual.get(0).getOrg());
+        assertEquals(expected.getStreet(), actual.get(0).getStreet());
+        assertEquals(expected.getTown(), actual.get(0).getTown());
+        assertEquals(expected.getPostcode(), actual.get(0).getPostcode());
+        assertEquals("Scotland", actual.get(0).getCountry());
+    }
+
+    @Test
+    public void fieldsDoNotCarryOverBetweenAddresses() throws Exception {
+        // ARRANGE
+        String json = "{\"metadata\":{\"count\":2},\"results\":[{\"address\":["
+                + "{\"uprn\":\"1\",\"dpa_organisation_name\":\"Org\",\"dpa_thoroughfare\":\"A Street\"},"
+                + "{\"uprn\":\"2\",\"dpa_thoroughfare\":\"B Street\"}"
+                + "]}]}";
+
+        // ACT
+        List<PostcodeServiceResult> actual = read(json).getResults();
+
+        // ASSERT
+        assertEquals(2, actual.size());
+        assertEquals("Org", actual.get(0).getOrg());
+        assertEquals("", actual.get(1).getOrg());
+    }
+
+    @Test
+    public void noResultsGivesAnEmptyList() throws Exception {
+        // ARRANGE
+        String json = "{\"metadata\":{\"count\":0},\"results\":[]}";
+
+        // ACT
+        PostcodeServiceResults actual = read(json);
+
+        // ASSERT
+        assertTrue(actual.getResults().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void unexpectedResponseIsAnError() throws Exception {
+        // ACT
+        read("[]");
+
+        // ASSERT -- see expected exception
+    }
+
+    private static PostcodeServiceResults read(String json) throws IOException {
+        try (JsonParser parser = JsonCodec.defaultCodec().getMapper().createParser(json)) {
+            return PostcodeResultsReader.INSTANCE.read(parser);
+        }
+    }
+}